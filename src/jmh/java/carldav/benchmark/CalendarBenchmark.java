@@ -0,0 +1,118 @@
+package carldav.benchmark;
+
+import carldav.entity.Item;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.Period;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unitedinternet.cosmo.calendar.InstanceList;
+import org.unitedinternet.cosmo.calendar.RecurrenceExpander;
+import org.unitedinternet.cosmo.calendar.data.OutputFilter;
+import org.unitedinternet.cosmo.calendar.query.CalendarFilter;
+import org.unitedinternet.cosmo.calendar.query.CalendarFilterEvaluater;
+import org.unitedinternet.cosmo.calendar.query.ComponentFilter;
+import org.unitedinternet.cosmo.calendar.query.TimeRangeFilter;
+import org.unitedinternet.cosmo.model.hibernate.EntityConverter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the iCalendar code paths hit by PUT and by calendar-query/calendar-multiget reports.
+ * Parsed calendars are shared between invocations and must not be modified by a benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalendarBenchmark {
+
+    @Param({Fixtures.DAVDROID, Fixtures.IOS, Fixtures.INSTANCE_MODS})
+    public String fixture;
+
+    private final EntityConverter converter = new EntityConverter();
+    private final RecurrenceExpander expander = new RecurrenceExpander();
+    private final CalendarFilterEvaluater evaluater = new CalendarFilterEvaluater();
+
+    private String content;
+    private Calendar calendar;
+    private Period period;
+    private OutputFilter expandFilter;
+    private OutputFilter limitFilter;
+    private CalendarFilter calendarFilter;
+
+    @Setup
+    public void setup() {
+        content = Fixtures.load(fixture);
+        calendar = Fixtures.parse(content);
+        period = Fixtures.expandPeriod(calendar);
+
+        expandFilter = new OutputFilter("VCALENDAR");
+        expandFilter.setExpand(period);
+        expandFilter.setAllSubComponents();
+        expandFilter.setAllProperties();
+
+        limitFilter = new OutputFilter("VCALENDAR");
+        limitFilter.setLimit(period);
+        limitFilter.setAllSubComponents();
+        limitFilter.setAllProperties();
+
+        final ComponentFilter eventFilter = new ComponentFilter(Component.VEVENT);
+        eventFilter.setTimeRangeFilter(new TimeRangeFilter(period));
+        final ComponentFilter calendarComponentFilter = new ComponentFilter(Calendar.VCALENDAR);
+        calendarComponentFilter.getComponentFilters().add(eventFilter);
+        calendarFilter = new CalendarFilter();
+        calendarFilter.setFilter(calendarComponentFilter);
+    }
+
+    @Benchmark
+    public Item convert() {
+        return converter.convert(Fixtures.item(content));
+    }
+
+    @Benchmark
+    public Date[] calculateRecurrenceRange() {
+        return expander.calculateRecurrenceRange(calendar);
+    }
+
+    @Benchmark
+    public InstanceList expandInstances() {
+        final InstanceList instances = new InstanceList();
+        instances.setUTC(true);
+        for (final Object component : calendar.getComponents().getComponents(Component.VEVENT)) {
+            instances.addComponent((Component) component, period.getStart(), period.getEnd());
+        }
+        return instances;
+    }
+
+    @Benchmark
+    public StringBuffer outputFilterExpand() {
+        final StringBuffer buffer = new StringBuffer();
+        expandFilter.filter(calendar, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public StringBuffer outputFilterLimit() {
+        final StringBuffer buffer = new StringBuffer();
+        limitFilter.filter(calendar, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public boolean evaluateFilter() {
+        return evaluater.evaluate(calendar, calendarFilter);
+    }
+}
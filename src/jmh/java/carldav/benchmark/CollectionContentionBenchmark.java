@@ -0,0 +1,186 @@
+package carldav.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent member writes into one collection against an in-memory HSQLDB in MVCC mode, with the collection
+ * columns of the V5 schema. Every operation inserts a member and advances the sync token of its collection in
+ * one transaction, either by reading the collection and writing back the whole row with a version check as an
+ * entity flush does, or with the single atomic <code>UPDATE</code> of
+ * <code>CollectionRepository.advanceSyncToken</code>. A version check failing rolls the operation back and
+ * returns -1. Both variants hold the collection row lock until commit, so writers to a shared collection are
+ * serialized either way. With <code>shared</code> all threads write into the same collection, otherwise each
+ * thread into its own. Pass e.g. <code>-t 8</code> to change the number of writers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class CollectionContentionBenchmark {
+
+    private static final AtomicLong DATABASES = new AtomicLong();
+    private static final int MAX_WRITERS = 256;
+
+    @Param({"true", "false"})
+    public boolean shared;
+
+    private final AtomicLong collections = new AtomicLong();
+    private String url;
+    private Connection schema;
+
+    @Setup
+    public void setup() throws SQLException {
+        url = "jdbc:hsqldb:mem:contention" + DATABASES.incrementAndGet() + ";hsqldb.tx=mvcc";
+        schema = DriverManager.getConnection(url, "SA", "");
+        try (Statement statement = schema.createStatement()) {
+            statement.execute("create table collection (id bigint primary key, displayname varchar(255), itemname varchar(255), "
+                    + "modifydate timestamp, synctoken bigint, oldestsynctoken bigint, version bigint default 0 not null)");
+            statement.execute("create table item (id bigint generated by default as identity primary key, collectionid bigint, name varchar(255))");
+        }
+        try (PreparedStatement statement = schema.prepareStatement(
+                "insert into collection values (?, 'calendar', 'calendar', current_timestamp, 0, null, 0)")) {
+            for (int id = 1; id <= MAX_WRITERS; id++) {
+                statement.setLong(1, id);
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = schema.createStatement()) {
+            statement.execute("shutdown");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+
+        private Connection connection;
+        private long collectionId;
+        private long member;
+
+        @Setup(Level.Trial)
+        public void setup(final CollectionContentionBenchmark benchmark) throws SQLException {
+            connection = DriverManager.getConnection(benchmark.url, "SA", "");
+            connection.setAutoCommit(false);
+            collectionId = benchmark.shared ? 1 : benchmark.collections.incrementAndGet();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+
+        private void insertMember() throws SQLException {
+            try (PreparedStatement statement = connection.prepareStatement("insert into item (collectionid, name) values (?, ?)")) {
+                statement.setLong(1, collectionId);
+                statement.setString(2, Thread.currentThread().getId() + "-" + member++ + ".ics");
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    @Benchmark
+    public long readModifyWrite(final Writer writer) throws SQLException {
+        final Connection connection = writer.connection;
+        try {
+            String displayName;
+            String name;
+            long syncToken;
+            Long oldestSyncToken;
+            long version;
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "select displayname, itemname, synctoken, oldestsynctoken, version from collection where id = ?")) {
+                statement.setLong(1, writer.collectionId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    displayName = resultSet.getString(1);
+                    name = resultSet.getString(2);
+                    syncToken = resultSet.getLong(3) + 1;
+                    oldestSyncToken = (Long) resultSet.getObject(4);
+                    version = resultSet.getLong(5);
+                }
+            }
+
+            writer.insertMember();
+
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "update collection set displayname = ?, itemname = ?, modifydate = ?, synctoken = ?, oldestsynctoken = ?, "
+                            + "version = ? where id = ? and version = ?")) {
+                statement.setString(1, displayName);
+                statement.setString(2, name);
+                statement.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+                statement.setLong(4, syncToken);
+                statement.setObject(5, oldestSyncToken);
+                statement.setLong(6, version + 1);
+                statement.setLong(7, writer.collectionId);
+                statement.setLong(8, version);
+                if (statement.executeUpdate() == 0) {
+                    connection.rollback();
+                    return -1;
+                }
+            }
+            connection.commit();
+            return syncToken;
+        } catch (SQLException exception) {
+            connection.rollback();
+            throw exception;
+        }
+    }
+
+    @Benchmark
+    public long atomicUpdate(final Writer writer) throws SQLException {
+        final Connection connection = writer.connection;
+        try {
+            writer.insertMember();
+
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "update collection set synctoken = coalesce(synctoken, 0) + 1, version = version + 1, modifydate = ? where id = ?")) {
+                statement.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+                statement.setLong(2, writer.collectionId);
+                statement.executeUpdate();
+            }
+
+            final long syncToken;
+            try (PreparedStatement statement = connection.prepareStatement("select synctoken, version from collection where id = ?")) {
+                statement.setLong(1, writer.collectionId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    syncToken = resultSet.getLong(1);
+                }
+            }
+            connection.commit();
+            return syncToken;
+        } catch (SQLException exception) {
+            connection.rollback();
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package carldav.benchmark;
+
+import carldav.entity.Item;
+import net.fortuna.ical4j.data.CalendarBuilder;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Period;
+import org.apache.commons.io.IOUtils;
+import org.unitedinternet.cosmo.calendar.RecurrenceExpander;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the iCalendar payloads shared by all benchmarks. The payloads were taken from the DAVdroid and iOS
+ * integration tests plus an iCal event with overridden instances.
+ */
+final class Fixtures {
+
+    static final String DAVDROID = "davdroid.ics";
+    static final String IOS = "ios.ics";
+    static final String INSTANCE_MODS = "instance_mods.ics";
+
+    private static final long EXPAND_DAYS = 90;
+
+    private Fixtures() {
+        // prevent instantiation
+    }
+
+    static String load(final String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/benchmark/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("unknown fixture " + name);
+            }
+            return IOUtils.toString(in, "UTF-8");
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception.getMessage(), exception);
+        }
+    }
+
+    static Calendar parse(final String content) {
+        try {
+            return new CalendarBuilder().build(new StringReader(content));
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception.getMessage(), exception);
+        }
+    }
+
+    static Item item(final String content) {
+        final Item item = new Item(Item.Type.VEVENT);
+        item.setCalendar(content);
+        return item;
+    }
+
+    /**
+     * Returns a UTC period starting at the first occurrence of the given calendar and spanning 90 days,
+     * which covers several instances of every fixture.
+     */
+    static Period expandPeriod(final Calendar calendar) {
+        final Date[] range = new RecurrenceExpander().calculateRecurrenceRange(calendar);
+        final DateTime start = new DateTime(range[0].getTime());
+        final DateTime end = new DateTime(range[0].getTime() + TimeUnit.DAYS.toMillis(EXPAND_DAYS));
+        start.setUtc(true);
+        end.setUtc(true);
+        return new Period(start, end);
+    }
+}
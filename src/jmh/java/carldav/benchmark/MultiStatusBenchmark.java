@@ -0,0 +1,79 @@
+package carldav.benchmark;
+
+import static carldav.CarldavConstants.GET_ETAG;
+import static carldav.jackrabbit.webdav.DavConstants.PROPFIND_BY_PROPERTY;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import carldav.jackrabbit.webdav.MultiStatus;
+import carldav.jackrabbit.webdav.MultiStatusResponse;
+import carldav.jackrabbit.webdav.property.DavPropertyNameSet;
+import carldav.jackrabbit.webdav.xml.StaxUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unitedinternet.cosmo.dav.WebDavResource;
+import org.unitedinternet.cosmo.dav.caldav.property.CalendarData;
+import org.unitedinternet.cosmo.dav.property.Etag;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Benchmarks serialization of a calendar-multiget style <code>DAV:multistatus</code> body carrying
+ * <code>DAV:getetag</code> and <code>CALDAV:calendar-data</code> for every member.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiStatusBenchmark {
+
+    @Param({"10", "500"})
+    public int responses;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private MultiStatus multiStatus;
+
+    @Setup
+    public void setup() {
+        final String content = Fixtures.load(Fixtures.DAVDROID);
+        final DavPropertyNameSet props = new DavPropertyNameSet();
+        props.add(GET_ETAG);
+
+        multiStatus = new MultiStatus();
+        for (int i = 0; i < responses; i++) {
+            final WebDavResource resource = mock(WebDavResource.class);
+            when(resource.getHref()).thenReturn("/carldav/dav/test01@localhost.de/calendar/" + i + ".ics");
+            when(resource.getProperty(GET_ETAG)).thenReturn(new Etag("\"" + Integer.toHexString(i) + "\""));
+
+            final MultiStatusResponse response = new MultiStatusResponse(resource, props, PROPFIND_BY_PROPERTY);
+            response.add(new CalendarData(content));
+            multiStatus.addResponse(response);
+        }
+    }
+
+    @Benchmark
+    public int writeTo() throws XMLStreamException {
+        out.reset();
+        final XMLStreamWriter writer = StaxUtils.createWriter(out);
+        writer.writeStartDocument("UTF-8", "1.0");
+        multiStatus.writeTo(writer);
+        writer.writeEndDocument();
+        writer.close();
+        return out.size();
+    }
+}
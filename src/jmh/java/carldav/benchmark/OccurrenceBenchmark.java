@@ -0,0 +1,71 @@
+package carldav.benchmark;
+
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Period;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unitedinternet.cosmo.calendar.InstanceList;
+import org.unitedinternet.cosmo.calendar.OccurrenceSet;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares expanding a recurring event into {@link InstanceList} instances with expanding it into an
+ * {@link OccurrenceSet}, over the 90 day window of the other benchmarks and over a year.
+ * Run with <code>-prof gc</code> to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OccurrenceBenchmark {
+
+    @Param({Fixtures.DAVDROID, Fixtures.IOS, Fixtures.INSTANCE_MODS})
+    public String fixture;
+
+    @Param({"90", "365"})
+    public int days;
+
+    private Calendar calendar;
+    private Period period;
+
+    @Setup
+    public void setup() {
+        calendar = Fixtures.parse(Fixtures.load(fixture));
+        final DateTime start = Fixtures.expandPeriod(calendar).getStart();
+        final DateTime end = new DateTime(start.getTime() + TimeUnit.DAYS.toMillis(days));
+        end.setUtc(true);
+        period = new Period(start, end);
+    }
+
+    @Benchmark
+    public InstanceList instanceList() {
+        final InstanceList instances = new InstanceList();
+        for (final Object component : calendar.getComponents().getComponents(Component.VEVENT)) {
+            instances.addComponent((Component) component, period.getStart(), period.getEnd());
+        }
+        return instances;
+    }
+
+    @Benchmark
+    public OccurrenceSet occurrenceSet() {
+        final OccurrenceSet occurrences = new OccurrenceSet();
+        for (final Object component : calendar.getComponents().getComponents(Component.VEVENT)) {
+            occurrences.addComponent((Component) component, period.getStart(), period.getEnd());
+        }
+        return occurrences;
+    }
+}
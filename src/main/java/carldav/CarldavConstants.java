@@ -50,6 +50,7 @@ public final class CarldavConstants {
     public static final DavPropertyName IS_COLLECTION = create(caldav("iscollection"));
     public static final DavPropertyName PRINCIPAL_URL = create(caldav("principal-URL"));
     public static final DavPropertyName SUPPORTED_REPORT_SET = create(caldav("supported-report-set"));
+    public static final DavPropertyName SYNC_TOKEN = create(caldav("sync-token"));
 
     public static final DavPropertyName SUPPORTED_CALENDAR_DATA = create(c("supported-calendar-data"));
     public static final DavPropertyName SUPPORTED_COLLATION_SET = create(c("supported-collation-set"));
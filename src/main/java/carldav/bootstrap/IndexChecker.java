@@ -0,0 +1,87 @@
+package carldav.bootstrap;
+
+import org.slf4j.Logger;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.metamodel.EntityType;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Reports indexes declared with {@link Table#indexes()} on the entities that are missing in the
+ * database, e.g. because a migration has not been applied.
+ */
+@Component
+public class IndexChecker implements ApplicationListener<ContextRefreshedEvent> {
+
+    private static final Logger LOG = getLogger(IndexChecker.class);
+
+    private final DataSource dataSource;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public IndexChecker(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        Assert.notNull(dataSource, "dataSource is null");
+        Assert.notNull(entityManagerFactory, "entityManagerFactory is null");
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent contextRefreshedEvent) {
+        try (Connection connection = dataSource.getConnection()) {
+            final DatabaseMetaData metaData = connection.getMetaData();
+            int missing = 0;
+
+            for (final EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+                final Table table = entity.getJavaType().getAnnotation(Table.class);
+                if (table == null || table.indexes().length == 0) {
+                    continue;
+                }
+
+                final Set<String> existing = indexNames(metaData, table.name());
+                for (final Index index : table.indexes()) {
+                    if (!existing.contains(index.name().toLowerCase(Locale.ENGLISH))) {
+                        LOG.warn("index {} on {} ({}) is missing", index.name(), table.name(), index.columnList());
+                        missing++;
+                    }
+                }
+            }
+
+            if (missing == 0) {
+                LOG.info("all entity indexes present");
+            }
+        } catch (SQLException exception) {
+            LOG.warn("could not check indexes: {}", exception.getMessage());
+        }
+    }
+
+    private static Set<String> indexNames(DatabaseMetaData metaData, String table) throws SQLException {
+        final String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ENGLISH) : table;
+        final Set<String> indexNames = new HashSet<>();
+
+        try (ResultSet resultSet = metaData.getIndexInfo(null, null, name, false, true)) {
+            while (resultSet.next()) {
+                final String indexName = resultSet.getString("INDEX_NAME");
+                if (indexName != null) {
+                    indexNames.add(indexName.toLowerCase(Locale.ENGLISH));
+                }
+            }
+        }
+
+        return indexNames;
+    }
+}
@@ -1,10 +1,13 @@
 package carldav.card;
 
+import carldav.repository.specification.CardSpecs;
+import org.springframework.data.domain.Sort;
 import org.springframework.util.Assert;
 import org.unitedinternet.cosmo.calendar.query.AddressbookFilter;
 import carldav.repository.ItemRepository;
 import carldav.entity.CollectionItem;
 import carldav.entity.Item;
+import org.unitedinternet.cosmo.model.hibernate.EntityConverter;
 
 import java.util.List;
 
@@ -13,6 +16,8 @@ import java.util.List;
  */
 class CardQueryProcessorImpl implements CardQueryProcessor {
 
+    private static final EntityConverter entityConverter = new EntityConverter();
+
     private final ItemRepository itemRepository;
 
     CardQueryProcessorImpl(final ItemRepository itemRepository) {
@@ -22,7 +27,16 @@ class CardQueryProcessorImpl implements CardQueryProcessor {
 
     @Override
     public List<Item> filterQuery(final CollectionItem collection, final AddressbookFilter filter) {
-        //TODO filter is not in use yet
-        return itemRepository.findByCollectionIdAndType(collection.getId(), Item.Type.VCARD);
+        if (filter == null || filter.getPropertyFilters().isEmpty()) {
+            return itemRepository.findByCollectionIdAndTypeOrderByNameAsc(collection.getId(), Item.Type.VCARD);
+        }
+
+        // cards stored before the card property index existed, or before it kept long values in full, are indexed on first use.
+        // this is an intended write in the transaction of the query, each card is only indexed once
+        for (final Item card : itemRepository.findUnindexedCardsByCollectionIdAndType(collection.getId(), Item.Type.VCARD)) {
+            entityConverter.convertCard(card);
+        }
+
+        return itemRepository.findAll(CardSpecs.cards(collection.getId(), filter), new Sort("name"));
     }
 }
@@ -0,0 +1,136 @@
+package carldav.entity;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.util.Locale;
+
+/**
+ * Searchable property value of a vCard, used to answer CARDDAV:addressbook-query filters in the
+ * database instead of parsing every card of an address book.
+ * <p>
+ * The indexed {@link #getValue() value} columns hold at most {@link #MAX_VALUE_LENGTH} characters.
+ * Longer values are additionally kept in full in the unindexed {@link #getLongValue() long value}
+ * columns, which are matched instead of the truncated ones.
+ */
+@Entity
+@Table(name = "item_card_property",
+        indexes = {@Index(name = "idx_cardproperty_value", columnList = "name,foldedvalue"),
+                   @Index(name = "idx_cardproperty_item", columnList = "itemid")}
+)
+public class CardProperty {
+
+    public static final int MAX_VALUE_LENGTH = 1024;
+
+    private Long id;
+    private Item item;
+    private String name;
+    private String value;
+    private String foldedValue;
+    private String longValue;
+    private String longFoldedValue;
+
+    public CardProperty() {}
+
+    public CardProperty(Item item, String name, String value) {
+        this.item = item;
+        this.name = name;
+        final String folded = fold(value);
+        this.value = truncate(value);
+        this.foldedValue = truncate(folded);
+        if (value.length() > MAX_VALUE_LENGTH || folded.length() > MAX_VALUE_LENGTH) {
+            this.longValue = value;
+            this.longFoldedValue = folded;
+        }
+    }
+
+    /**
+     * Folds the given text for caseless matching against {@link #getFoldedValue()}.
+     */
+    public static String fold(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static String truncate(String text) {
+        return text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) : text;
+    }
+
+    @Id
+    @GeneratedValue
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(final Long id) {
+        this.id = id;
+    }
+
+    @ManyToOne(targetEntity=Item.class, fetch=FetchType.LAZY)
+    @JoinColumn(name = "itemid", nullable = false)
+    public Item getItem() {
+        return item;
+    }
+
+    public void setItem(Item item) {
+        this.item = item;
+    }
+
+    @NotNull
+    @Column(name = "name", nullable = false, length = 16)
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @NotNull
+    @Column(name = "value", nullable = false, length = MAX_VALUE_LENGTH)
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Case folded {@link #getValue() value} matched by the caseless collations.
+     */
+    @NotNull
+    @Column(name = "foldedvalue", nullable = false, length = MAX_VALUE_LENGTH)
+    public String getFoldedValue() {
+        return foldedValue;
+    }
+
+    public void setFoldedValue(String foldedValue) {
+        this.foldedValue = foldedValue;
+    }
+
+    /**
+     * Full value if {@link #getValue() value} or {@link #getFoldedValue() folded value} are truncated,
+     * <code>null</code> otherwise.
+     */
+    @Column(name = "longvalue", columnDefinition = "CLOB")
+    @Lob
+    public String getLongValue() {
+        return longValue;
+    }
+
+    public void setLongValue(String longValue) {
+        this.longValue = longValue;
+    }
+
+    /**
+     * Full case folded value, set together with {@link #getLongValue() long value}.
+     */
+    @Column(name = "longfoldedvalue", columnDefinition = "CLOB")
+    @Lob
+    public String getLongFoldedValue() {
+        return longFoldedValue;
+    }
+
+    public void setLongFoldedValue(String longFoldedValue) {
+        this.longFoldedValue = longFoldedValue;
+    }
+}
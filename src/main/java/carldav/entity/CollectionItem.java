@@ -15,6 +15,9 @@
  */
 package carldav.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.validator.constraints.Length;
 
 import javax.persistence.*;
@@ -23,10 +26,16 @@ import java.util.Date;
 import java.util.Set;
 
 @Entity
-@Table(name = "collection", uniqueConstraints = {@UniqueConstraint(name = "displayname_owner", columnNames = {"displayname", "ownerid"})})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
+@Table(name = "collection",
+        indexes = {@Index(name = "idx_collection_name_owner", columnList = "itemname,ownerid")},
+        uniqueConstraints = {@UniqueConstraint(name = "displayname_owner", columnNames = {"displayname", "ownerid"})})
 public class CollectionItem {
 
     private Long id;
+    private Long version;
     private Date modifiedDate;
     private String displayName;
     private String name;
@@ -34,6 +43,9 @@ public class CollectionItem {
     private User owner;
     private CollectionItem parent;
     private Set<CollectionItem> collections;
+    private Set<ItemChange> changes;
+    private Long syncToken;
+    private Long oldestSyncToken;
 
     @Id
     @GeneratedValue
@@ -45,6 +57,20 @@ public class CollectionItem {
         this.id = id;
     }
 
+    /**
+     * Incremented with every update of the collection and every change to one of its members,
+     * ETag and CTag of the collection are derived from it.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(final Long version) {
+        this.version = version;
+    }
+
     @Column(name = "modifydate")
     @Temporal(TemporalType.TIMESTAMP)
     public Date getModifiedDate() {
@@ -55,6 +81,32 @@ public class CollectionItem {
         this.modifiedDate = modifiedDate;
     }
 
+    /**
+     * Incremented with every change to a member of this collection, only ever written by
+     * {@link carldav.repository.CollectionRepository#advanceSyncToken(CollectionItem, java.util.Date)}.
+     */
+    @Column(name = "synctoken")
+    public Long getSyncToken() {
+        return syncToken;
+    }
+
+    public void setSyncToken(Long syncToken) {
+        this.syncToken = syncToken;
+    }
+
+    /**
+     * Lowest sync token which can still be answered with a delta, older tokens
+     * refer to tombstones that have been compacted away.
+     */
+    @Column(name = "oldestsynctoken")
+    public Long getOldestSyncToken() {
+        return oldestSyncToken;
+    }
+
+    public void setOldestSyncToken(Long oldestSyncToken) {
+        this.oldestSyncToken = oldestSyncToken;
+    }
+
     @NotNull
     @Column(name = "displayname")
     public String getDisplayName() {
@@ -114,4 +166,13 @@ public class CollectionItem {
     public void setCollections(Set<CollectionItem> collections) {
         this.collections = collections;
     }
+
+    @OneToMany(targetEntity=ItemChange.class, mappedBy="collection", fetch=FetchType.LAZY, orphanRemoval=true)
+    public Set<ItemChange> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(Set<ItemChange> changes) {
+        this.changes = changes;
+    }
 }
@@ -15,12 +15,17 @@
  */
 package carldav.entity;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.validator.constraints.Length;
 import org.hibernate.validator.constraints.NotEmpty;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 @Entity
 @Table(name = "item",
@@ -29,7 +34,10 @@ import java.util.Date;
                  @Index(name = "idx_startdt",columnList = "startdate"),
                  @Index(name = "idx_enddt",columnList = "enddate"),
                  @Index(name = "idx_floating",columnList = "floating"),
-                 @Index(name = "idx_recurring",columnList = "recurring")
+                 @Index(name = "idx_recurring",columnList = "recurring"),
+                 @Index(name = "idx_item_collection_type",columnList = "collectionid,type,itemname"),
+                 @Index(name = "idx_item_collection_name",columnList = "collectionid,itemname"),
+                 @Index(name = "idx_item_collection_range",columnList = "collectionid,type,startdate,enddate")
         },
         uniqueConstraints = {@UniqueConstraint(name = "uid_collection", columnNames = {"uid", "collectionid"})}
 )
@@ -40,13 +48,15 @@ public class Item {
     }
 
     private Long id;
+    private Long version;
     private Date modifiedDate;
     private String displayName;
     private String name;
     private String uid;
     private CollectionItem collection;
     private String mimetype;
-    private String calendar;
+    private ItemContent content;
+    private Long contentLength;
     private Date startDate;
     private Date endDate;
     private Boolean floating;
@@ -54,6 +64,12 @@ public class Item {
     private Date clientCreationDate;
     private Date clientModifiedDate;
     private Type type;
+    private Date occurrencesFrom;
+    private Date occurrencesUntil;
+    private String occurrencesHash;
+    private Boolean cardIndexed;
+    private List<ItemOccurrence> occurrences = new ArrayList<>();
+    private List<CardProperty> cardProperties = new ArrayList<>();
 
     public Item() {}
 
@@ -61,8 +77,28 @@ public class Item {
         this.type = type;
     }
 
+    /**
+     * Summary of a collection member without its content, see
+     * {@link carldav.repository.ItemRepository#findSummariesByCollectionId(Long)}.
+     */
+    public Item(Long id, Long version, String name, String displayName, String uid, String mimetype, Type type, Date modifiedDate, Long contentLength) {
+        this.id = id;
+        this.version = version;
+        this.name = name;
+        this.displayName = displayName;
+        this.uid = uid;
+        this.mimetype = mimetype;
+        this.type = type;
+        this.modifiedDate = modifiedDate;
+        this.contentLength = contentLength;
+    }
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "item_id")
+    @GenericGenerator(name = "item_id", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "item_seq"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled")})
     public Long getId() {
         return id;
     }
@@ -71,6 +107,20 @@ public class Item {
         this.id = id;
     }
 
+    /**
+     * Incremented with every update, the ETag of the item is derived from it. Updates and deletes
+     * only apply to the version loaded before, a concurrent change fails them.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(final Long version) {
+        this.version = version;
+    }
+
     @Column(name = "modifydate")
     @Temporal(TemporalType.TIMESTAMP)
     public Date getModifiedDate() {
@@ -132,14 +182,43 @@ public class Item {
         this.mimetype = mimetype;
     }
 
-    @Column(name = "calendar", columnDefinition = "CLOB")
-    @Lob
+    @OneToOne(targetEntity=ItemContent.class, fetch=FetchType.LAZY, cascade=CascadeType.ALL, orphanRemoval=true)
+    @JoinColumn(name = "contentid")
+    public ItemContent getContent() {
+        return content;
+    }
+
+    public void setContent(ItemContent content) {
+        this.content = content;
+    }
+
+    /**
+     * Content of this item, loaded from {@link ItemContent} on first access.
+     */
+    @Transient
     public String getCalendar() {
-        return calendar;
+        return content == null ? null : content.getCalendar();
     }
 
     public void setCalendar(String calendar) {
-        this.calendar = calendar;
+        if (content == null) {
+            content = new ItemContent(calendar);
+        } else {
+            content.setCalendar(calendar);
+        }
+    }
+
+    /**
+     * UTF-8 encoded length of {@link #getCalendar()} as of the last write, <code>null</code> for
+     * items stored before the length was recorded.
+     */
+    @Column(name = "contentlength")
+    public Long getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(Long contentLength) {
+        this.contentLength = contentLength;
     }
 
     @Column(name = "startdate")
@@ -207,4 +286,83 @@ public class Item {
     public void setType(final Type type) {
         this.type = type;
     }
+
+    /**
+     * Start of the time range the {@link #getOccurrences() occurrences} of a recurring item have
+     * been materialized for, <code>null</code> if they have been materialized from the first instance.
+     */
+    @Column(name = "occurrencesfrom")
+    @Temporal(TemporalType.TIMESTAMP)
+    @OptimisticLock(excluded = true)
+    public Date getOccurrencesFrom() {
+        return occurrencesFrom;
+    }
+
+    public void setOccurrencesFrom(Date occurrencesFrom) {
+        this.occurrencesFrom = occurrencesFrom;
+    }
+
+    /**
+     * End of the time range the {@link #getOccurrences() occurrences} of a recurring item have
+     * been materialized for, <code>null</code> if they have not been materialized yet.
+     */
+    @Column(name = "occurrencesuntil")
+    @Temporal(TemporalType.TIMESTAMP)
+    @OptimisticLock(excluded = true)
+    public Date getOccurrencesUntil() {
+        return occurrencesUntil;
+    }
+
+    public void setOccurrencesUntil(Date occurrencesUntil) {
+        this.occurrencesUntil = occurrencesUntil;
+    }
+
+    /**
+     * SHA-1 of the content the {@link #getOccurrences() occurrences} have been materialized from,
+     * <code>null</code> if not known.
+     */
+    @Column(name = "occurrenceshash", length = 40)
+    @OptimisticLock(excluded = true)
+    public String getOccurrencesHash() {
+        return occurrencesHash;
+    }
+
+    public void setOccurrencesHash(String occurrencesHash) {
+        this.occurrencesHash = occurrencesHash;
+    }
+
+    @OptimisticLock(excluded = true)
+    @OneToMany(targetEntity=ItemOccurrence.class, mappedBy="item", fetch=FetchType.LAZY, cascade=CascadeType.ALL, orphanRemoval=true)
+    public List<ItemOccurrence> getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(List<ItemOccurrence> occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    /**
+     * True once the {@link #getCardProperties() card properties} of a card were indexed, <code>null</code>
+     * for cards stored before the card property index existed. Cards without searchable properties have no
+     * property rows, so this marks them as indexed.
+     */
+    @Column(name = "cardindexed")
+    @OptimisticLock(excluded = true)
+    public Boolean getCardIndexed() {
+        return cardIndexed;
+    }
+
+    public void setCardIndexed(Boolean cardIndexed) {
+        this.cardIndexed = cardIndexed;
+    }
+
+    @OptimisticLock(excluded = true)
+    @OneToMany(targetEntity=CardProperty.class, mappedBy="item", fetch=FetchType.LAZY, cascade=CascadeType.ALL, orphanRemoval=true)
+    public List<CardProperty> getCardProperties() {
+        return cardProperties;
+    }
+
+    public void setCardProperties(List<CardProperty> cardProperties) {
+        this.cardProperties = cardProperties;
+    }
 }
@@ -0,0 +1,91 @@
+package carldav.entity;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Latest change of a collection member, used to answer sync-collection reports. Only one
+ * entry is kept per member name, deleted members remain as tombstones until compacted.
+ */
+@Entity
+@Table(name = "item_change",
+        indexes = {@Index(name = "idx_change_token", columnList = "collectionid,synctoken")},
+        uniqueConstraints = {@UniqueConstraint(name = "change_collection_name", columnNames = {"collectionid", "itemname"})}
+)
+public class ItemChange {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private Long id;
+    private CollectionItem collection;
+    private String name;
+    private Long syncToken;
+    private Type type;
+
+    public ItemChange() {}
+
+    public ItemChange(CollectionItem collection, String name) {
+        this.collection = collection;
+        this.name = name;
+    }
+
+    @Id
+    @GeneratedValue(generator = "item_change_id")
+    @GenericGenerator(name = "item_change_id", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "item_seq"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled")})
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(final Long id) {
+        this.id = id;
+    }
+
+    @ManyToOne(targetEntity=CollectionItem.class, fetch=FetchType.LAZY)
+    @JoinColumn(name = "collectionid", nullable = false)
+    public CollectionItem getCollection() {
+        return collection;
+    }
+
+    public void setCollection(CollectionItem collection) {
+        this.collection = collection;
+    }
+
+    @NotNull
+    @Column(name = "itemname", nullable = false, length=255)
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @NotNull
+    @Column(name = "synctoken", nullable = false)
+    public Long getSyncToken() {
+        return syncToken;
+    }
+
+    public void setSyncToken(Long syncToken) {
+        this.syncToken = syncToken;
+    }
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+}
@@ -0,0 +1,50 @@
+package carldav.entity;
+
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+
+/**
+ * iCalendar or vCard payload of an {@link Item}, kept apart from the item row so queries for
+ * item metadata don't load it. Uninitialized contents are fetched in batches on first access.
+ */
+@Entity
+@Table(name = "item_content")
+@BatchSize(size = 50)
+public class ItemContent {
+
+    private Long id;
+    private String calendar;
+
+    public ItemContent() {}
+
+    public ItemContent(String calendar) {
+        this.calendar = calendar;
+    }
+
+    @Id
+    @GeneratedValue(generator = "item_content_id")
+    @GenericGenerator(name = "item_content_id", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "item_seq"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled")})
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(final Long id) {
+        this.id = id;
+    }
+
+    @Column(name = "calendar", columnDefinition = "CLOB")
+    @Lob
+    public String getCalendar() {
+        return calendar;
+    }
+
+    public void setCalendar(String calendar) {
+        this.calendar = calendar;
+    }
+}
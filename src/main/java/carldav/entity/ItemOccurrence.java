@@ -0,0 +1,77 @@
+package carldav.entity;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+
+/**
+ * Materialized instance of a recurring item, used to answer time-range queries with an
+ * index range scan instead of expanding the recurrence of every candidate item.
+ */
+@Entity
+@Table(name = "item_occurrence",
+        indexes = {@Index(name = "idx_occurrence_range", columnList = "startdate,enddate"),
+                   @Index(name = "idx_occurrence_item", columnList = "itemid")}
+)
+public class ItemOccurrence {
+
+    private Long id;
+    private Item item;
+    private Date startDate;
+    private Date endDate;
+
+    public ItemOccurrence() {}
+
+    public ItemOccurrence(Item item, Date startDate, Date endDate) {
+        this.item = item;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    @Id
+    @GeneratedValue(generator = "item_occurrence_id")
+    @GenericGenerator(name = "item_occurrence_id", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "item_seq"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled")})
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(final Long id) {
+        this.id = id;
+    }
+
+    @ManyToOne(targetEntity=Item.class, fetch=FetchType.LAZY)
+    @JoinColumn(name = "itemid", nullable = false)
+    public Item getItem() {
+        return item;
+    }
+
+    public void setItem(Item item) {
+        this.item = item;
+    }
+
+    @NotNull
+    @Column(name = "startdate", nullable = false)
+    public Date getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(Date startDate) {
+        this.startDate = startDate;
+    }
+
+    @NotNull
+    @Column(name = "enddate", nullable = false)
+    public Date getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(Date endDate) {
+        this.endDate = endDate;
+    }
+}
@@ -15,11 +15,16 @@
  */
 package carldav.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name="users", uniqueConstraints = {@UniqueConstraint(name = "user_email", columnNames = "email")})
 public class User {
 
@@ -20,6 +20,7 @@ public class ExceptionResolverHandler {
         exceptionResolvers.add(new ConstrainViolationExceptionResolver());
         exceptionResolvers.add(new UidInUseExceptionResolver());
         exceptionResolvers.add(new DataIntegrityViolationExceptionResolver());
+        exceptionResolvers.add(new OptimisticLockingFailureExceptionResolver());
     }
 
     public CosmoDavException resolve(final Exception exception) {
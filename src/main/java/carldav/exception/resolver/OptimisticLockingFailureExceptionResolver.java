@@ -0,0 +1,22 @@
+package carldav.exception.resolver;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.unitedinternet.cosmo.dav.CosmoDavException;
+import org.unitedinternet.cosmo.dav.PreconditionFailedException;
+
+import javax.persistence.OptimisticLockException;
+
+/**
+ * Versioned updates and deletes only apply to the version of an item or collection the request
+ * has seen, e.g. the one matched by <code>If-Match</code>. A concurrent change fails them.
+ */
+class OptimisticLockingFailureExceptionResolver implements ExceptionResolver {
+
+    @Override
+    public CosmoDavException resolve(final Exception exception) {
+        if (exception instanceof OptimisticLockingFailureException || exception instanceof OptimisticLockException) {
+            return new PreconditionFailedException("resource was modified concurrently");
+        }
+        return null;
+    }
+}
@@ -1,7 +1,9 @@
 package carldav.exception.resolver;
 
 import carldav.jackrabbit.webdav.xml.DomUtils;
+import carldav.jackrabbit.webdav.xml.StaxUtils;
 import carldav.jackrabbit.webdav.xml.XmlSerializable;
+import carldav.jackrabbit.webdav.xml.XmlStreamSerializable;
 import org.unitedinternet.cosmo.dav.CosmoDavException;
 import org.w3c.dom.Document;
 
@@ -56,7 +58,9 @@ public final class ResponseUtils {
     public static void sendXmlResponse(HttpServletResponse httpResponse, XmlSerializable serializable, int status) {
         httpResponse.setStatus(status);
 
-        if (serializable != null) {
+        if (serializable instanceof XmlStreamSerializable) {
+            streamXmlResponse(httpResponse, (XmlStreamSerializable) serializable);
+        } else if (serializable != null) {
             ByteArrayOutputStream out = new ByteArrayOutputStream();
             try {
                 Document doc = DomUtils.createDocument();
@@ -78,4 +82,32 @@ public final class ResponseUtils {
             }
         }
     }
+
+    /**
+     * Writes the response body as it is serialized instead of buffering a complete DOM
+     * document. No content length is sent, so the container falls back to chunked
+     * transfer encoding.
+     */
+    private static void streamXmlResponse(HttpServletResponse httpResponse, XmlStreamSerializable serializable) {
+        XMLStreamWriter writer = null;
+
+        try {
+            httpResponse.setContentType("text/xml; charset=UTF-8");
+            writer = StaxUtils.createWriter(httpResponse.getOutputStream());
+            writer.writeStartDocument("UTF-8", "1.0");
+            serializable.writeTo(writer);
+            writer.writeEndDocument();
+            writer.flush();
+        } catch (Exception e) {
+            throw new CosmoDavException(e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (XMLStreamException exception) {
+                    //ignore me
+                }
+            }
+        }
+    }
 }
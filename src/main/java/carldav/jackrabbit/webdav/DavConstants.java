@@ -27,6 +27,7 @@ public interface DavConstants {
     String XML_PROPNAME = "propname";
     String XML_PROPSTAT = "propstat";
     String XML_RESPONSE = "response";
+    String XML_SYNC_TOKEN = "sync-token";
 
     QName ALLPROP = new QName("DAV:", XML_ALLPROP, "D");
     QName PROPNAME = new QName("DAV:", XML_PROPNAME, "D");
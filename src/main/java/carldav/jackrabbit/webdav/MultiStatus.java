@@ -1,20 +1,26 @@
 package carldav.jackrabbit.webdav;
 
+import static carldav.CarldavConstants.ADDRESS_DATA;
+import static carldav.CarldavConstants.CALENDAR_DATA;
 import static carldav.CarldavConstants.caldav;
+import static carldav.jackrabbit.webdav.DavConstants.PROPFIND_BY_PROPERTY;
 import static carldav.jackrabbit.webdav.DavConstants.XML_MULTISTATUS;
 
 import carldav.jackrabbit.webdav.property.DavPropertyNameSet;
 import carldav.jackrabbit.webdav.xml.DomUtils;
-import carldav.jackrabbit.webdav.xml.XmlSerializable;
+import carldav.jackrabbit.webdav.xml.StaxUtils;
+import carldav.jackrabbit.webdav.xml.XmlStreamSerializable;
 import org.unitedinternet.cosmo.dav.WebDavResource;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
-public class MultiStatus implements XmlSerializable {
+public class MultiStatus implements XmlStreamSerializable {
 
     private final Map<String, MultiStatusResponse> responses = new TreeMap<>();
 
@@ -27,6 +33,15 @@ public class MultiStatus implements XmlSerializable {
         return multiStatus;
     }
 
+    @Override
+    public void writeTo(XMLStreamWriter writer) throws XMLStreamException {
+        StaxUtils.writeStartElement(writer, caldav(XML_MULTISTATUS));
+        for (Map.Entry<String, MultiStatusResponse> resp : responses.entrySet()) {
+            resp.getValue().writeTo(writer);
+        }
+        writer.writeEndElement();
+    }
+
     public void addResponse(MultiStatusResponse response) {
         responses.put(response.getHref(), response);
     }
@@ -34,11 +49,15 @@ public class MultiStatus implements XmlSerializable {
     public void addResourceProperties(WebDavResource resource, DavPropertyNameSet propNameSet, int propFindType, int depth) {
         addResponse(new MultiStatusResponse(resource, propNameSet, propFindType));
         if (depth > 0 && resource.isCollection()) {
-            final List<WebDavResource> members2 = resource.getMembers();
+            final List<WebDavResource> members2 = requiresContent(propNameSet, propFindType) ? resource.getMembers() : resource.getMemberSummaries();
 
             for (final WebDavResource webDavResource : members2) {
                 addResourceProperties(webDavResource, propNameSet, propFindType, depth - 1);
             }
         }
     }
+
+    private static boolean requiresContent(DavPropertyNameSet propNameSet, int propFindType) {
+        return propFindType == PROPFIND_BY_PROPERTY && (propNameSet.contains(CALENDAR_DATA) || propNameSet.contains(ADDRESS_DATA));
+    }
 }
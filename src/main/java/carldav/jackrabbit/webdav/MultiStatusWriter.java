@@ -0,0 +1,76 @@
+package carldav.jackrabbit.webdav;
+
+import static carldav.CarldavConstants.caldav;
+import static carldav.jackrabbit.webdav.DavConstants.XML_MULTISTATUS;
+import static carldav.jackrabbit.webdav.DavConstants.XML_SYNC_TOKEN;
+
+import carldav.jackrabbit.webdav.xml.StaxUtils;
+import org.unitedinternet.cosmo.dav.CosmoDavException;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Writes a <code>DAV:multistatus</code> body response by response instead of collecting all
+ * responses in a {@link MultiStatus} first. Nothing is written to the servlet response until
+ * the first response is added or the writer is closed, so errors raised before that point are
+ * still reported with their own status code.
+ */
+public class MultiStatusWriter {
+
+    private final HttpServletResponse httpResponse;
+    private XMLStreamWriter writer;
+
+    public MultiStatusWriter(final HttpServletResponse httpResponse) {
+        this.httpResponse = httpResponse;
+    }
+
+    public void write(final MultiStatusResponse response) {
+        try {
+            open();
+            response.writeTo(writer);
+        } catch (XMLStreamException e) {
+            throw new CosmoDavException(e);
+        }
+    }
+
+    public void close() {
+        close(null);
+    }
+
+    /**
+     * Finishes the multistatus body, writing the given <code>DAV:sync-token</code>
+     * after the last response unless it is <code>null</code>.
+     */
+    public void close(final String syncToken) {
+        try {
+            open();
+            if (syncToken != null) {
+                StaxUtils.writeTextElement(writer, caldav(XML_SYNC_TOKEN), syncToken);
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new CosmoDavException(e);
+        }
+    }
+
+    private void open() throws XMLStreamException {
+        if (writer == null) {
+            try {
+                httpResponse.setStatus(207);
+                httpResponse.setContentType("text/xml; charset=UTF-8");
+                writer = StaxUtils.createWriter(httpResponse.getOutputStream());
+            } catch (IOException e) {
+                throw new CosmoDavException(e);
+            }
+            writer.writeStartDocument("UTF-8", "1.0");
+            StaxUtils.writeStartElement(writer, caldav(XML_MULTISTATUS));
+        }
+    }
+}
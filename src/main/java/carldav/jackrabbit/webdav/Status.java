@@ -1,15 +1,19 @@
 package carldav.jackrabbit.webdav;
 
 import carldav.jackrabbit.webdav.xml.DomUtils;
-import carldav.jackrabbit.webdav.xml.XmlSerializable;
+import carldav.jackrabbit.webdav.xml.StaxUtils;
+import carldav.jackrabbit.webdav.xml.XmlStreamSerializable;
 import org.springframework.http.HttpStatus;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
 import static carldav.CarldavConstants.XML_STATUS;
 import static carldav.CarldavConstants.caldav;
 
-public class Status implements DavConstants, XmlSerializable {
+public class Status implements DavConstants, XmlStreamSerializable {
 
     private final String version;
     private final int code;
@@ -27,4 +31,8 @@ public class Status implements DavConstants, XmlSerializable {
         DomUtils.setText(e, statusLine);
         return e;
     }
+
+    public void writeTo(XMLStreamWriter writer) throws XMLStreamException {
+        StaxUtils.writeTextElement(writer, caldav(XML_STATUS), version + " " + code + " " + phrase);
+    }
 }
@@ -46,6 +46,7 @@ public class DavInputContext implements CaldavConstants {
     private final HttpServletRequest request;
     private final InputStream in;
     private Calendar calendar;
+    private String calendarString;
 
     public DavInputContext(HttpServletRequest request, InputStream in) {
         Assert.notNull(request, "request is null");
@@ -58,8 +59,14 @@ public class DavInputContext implements CaldavConstants {
         return getCalendar(false);
     }
 
+    /**
+     * @return canonical form of the parsed calendar, serialized once per request
+     */
     public String getCalendarString() throws CosmoDavException {
-        return getCalendar().toString();
+        if (calendarString == null) {
+            calendarString = getCalendar().toString();
+        }
+        return calendarString;
     }
 
     /**
@@ -80,14 +87,7 @@ public class DavInputContext implements CaldavConstants {
             return null;
         }
 
-        if (getContentType() == null) {
-            throw new BadRequestException("No media type specified");
-        }
-
-        final MediaType mediaType = MediaType.parseMediaType(getContentType());
-        if (!mediaType.isCompatibleWith(TEXT_CALENDAR) && !mediaType.isCompatibleWith(TEXT_VCARD)) {
-            throw new UnsupportedCalendarDataException(mediaType.toString());
-        }
+        checkMediaType();
 
         try {
             Calendar c = CalendarUtils.parseCalendar(getInputStream());
@@ -112,6 +112,42 @@ public class DavInputContext implements CaldavConstants {
         return calendar;
     }
 
+    /**
+     * Parses the input stream into a calendar object that may hold any number of calendar
+     * objects of different types and a METHOD, e.g. the export of a whole calendar. The
+     * calendar is not validated, its parts are validated one by one when imported.
+     *
+     * @return Calendar parsed, <code>null</code> if there is no input stream
+     * @throws CosmoDavException
+     *             - if something is wrong this exception is thrown.
+     */
+    public Calendar getImportCalendar() throws CosmoDavException {
+        if (!hasStream()) {
+            return null;
+        }
+
+        checkMediaType();
+
+        try {
+            return CalendarUtils.parseCalendar(getInputStream());
+        } catch (IOException e) {
+            throw new CosmoDavException(e);
+        } catch (ParserException e) {
+            throw new InvalidCalendarDataException("Failed to parse calendar object: " + e.getMessage());
+        }
+    }
+
+    private void checkMediaType() throws CosmoDavException {
+        if (getContentType() == null) {
+            throw new BadRequestException("No media type specified");
+        }
+
+        final MediaType mediaType = MediaType.parseMediaType(getContentType());
+        if (!mediaType.isCompatibleWith(TEXT_CALENDAR) && !mediaType.isCompatibleWith(TEXT_VCARD)) {
+            throw new UnsupportedCalendarDataException(mediaType.toString());
+        }
+    }
+
     public boolean hasStream() {
         return in != null;
     }
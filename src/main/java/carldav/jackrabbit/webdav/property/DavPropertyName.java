@@ -3,14 +3,17 @@ package carldav.jackrabbit.webdav.property;
 import carldav.CarldavConstants;
 import carldav.jackrabbit.webdav.DavConstants;
 import carldav.jackrabbit.webdav.xml.DomUtils;
-import carldav.jackrabbit.webdav.xml.XmlSerializable;
+import carldav.jackrabbit.webdav.xml.StaxUtils;
+import carldav.jackrabbit.webdav.xml.XmlStreamSerializable;
 import org.springframework.util.Assert;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
-public class DavPropertyName implements DavConstants, XmlSerializable, PropEntry {
+public class DavPropertyName implements DavConstants, XmlStreamSerializable, PropEntry {
 
     private QName name;
 
@@ -43,6 +46,10 @@ public class DavPropertyName implements DavConstants, XmlSerializable, PropEntry
         return name.getLocalPart();
     }
 
+    public QName getQName() {
+        return name;
+    }
+
     public String getNamespace() {
         return name.getNamespaceURI();
     }
@@ -69,5 +76,10 @@ public class DavPropertyName implements DavConstants, XmlSerializable, PropEntry
     public Element toXml(Document document) {
         return DomUtils.createElement(document, name.getLocalPart(), name);
     }
+
+    public void writeTo(XMLStreamWriter writer) throws XMLStreamException {
+        StaxUtils.writeStartElement(writer, name);
+        writer.writeEndElement();
+    }
 }
 
@@ -0,0 +1,132 @@
+package carldav.jackrabbit.webdav.xml;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.OutputStream;
+
+public final class StaxUtils {
+
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = createFactory();
+
+    private StaxUtils() {
+        //private
+    }
+
+    /**
+     * Creates a writer which declares namespaces on demand, so callers only have to write qualified names.
+     */
+    public static XMLStreamWriter createWriter(OutputStream out) throws XMLStreamException {
+        return XML_OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+    }
+
+    public static void writeStartElement(XMLStreamWriter writer, QName name) throws XMLStreamException {
+        writer.writeStartElement(name.getPrefix(), name.getLocalPart(), name.getNamespaceURI());
+    }
+
+    public static void writeStartElement(XMLStreamWriter writer, String localName, QName namespace) throws XMLStreamException {
+        if (namespace == null) {
+            writer.writeStartElement(localName);
+        } else {
+            writer.writeStartElement(namespace.getPrefix(), localName, namespace.getNamespaceURI());
+        }
+    }
+
+    public static void writeTextElement(XMLStreamWriter writer, QName name, String text) throws XMLStreamException {
+        writeStartElement(writer, name);
+        writeCharacters(writer, text);
+        writer.writeEndElement();
+    }
+
+    /**
+     * Writes the given text like the DOM serializer does, which keeps carriage returns
+     * as character references so that CRLF line breaks of iCalendar and vCard data survive
+     * the end-of-line normalization of XML parsers.
+     */
+    public static void writeCharacters(XMLStreamWriter writer, String text) throws XMLStreamException {
+        if (text == null || "".equals(text)) {
+            return;
+        }
+        int start = 0;
+        int cr;
+        while ((cr = text.indexOf('\r', start)) != -1) {
+            if (cr > start) {
+                writer.writeCharacters(text.substring(start, cr));
+            }
+            writer.writeEntityRef("#13");
+            start = cr + 1;
+        }
+        if (start < text.length()) {
+            writer.writeCharacters(text.substring(start));
+        }
+    }
+
+    /**
+     * Writes the given object. Objects which cannot stream are serialized to a scratch
+     * document first and copied to the writer afterwards.
+     */
+    public static void write(XMLStreamWriter writer, XmlSerializable serializable) throws XMLStreamException {
+        if (serializable instanceof XmlStreamSerializable) {
+            ((XmlStreamSerializable) serializable).writeTo(writer);
+        } else {
+            Document document = DomUtils.createDocument();
+            writeElement(writer, serializable.toXml(document));
+        }
+    }
+
+    public static void writeElement(XMLStreamWriter writer, Element element) throws XMLStreamException {
+        String localName = element.getLocalName() != null ? element.getLocalName() : element.getNodeName();
+        writer.writeStartElement(nullToEmpty(element.getPrefix()), localName, nullToEmpty(element.getNamespaceURI()));
+
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attribute = (Attr) attributes.item(i);
+            if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attribute.getNamespaceURI())) {
+                continue;
+            }
+            if (attribute.getNamespaceURI() == null) {
+                String name = attribute.getLocalName() != null ? attribute.getLocalName() : attribute.getName();
+                writer.writeAttribute(name, attribute.getValue());
+            } else {
+                writer.writeAttribute(nullToEmpty(attribute.getPrefix()), attribute.getNamespaceURI(), attribute.getLocalName(), attribute.getValue());
+            }
+        }
+
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            switch (child.getNodeType()) {
+                case Node.ELEMENT_NODE:
+                    writeElement(writer, (Element) child);
+                    break;
+                case Node.TEXT_NODE:
+                case Node.CDATA_SECTION_NODE:
+                    writeCharacters(writer, child.getNodeValue());
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        writer.writeEndElement();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static XMLOutputFactory createFactory() {
+        XMLOutputFactory factory = XMLOutputFactory.newInstance();
+        factory.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, true);
+        return factory;
+    }
+}
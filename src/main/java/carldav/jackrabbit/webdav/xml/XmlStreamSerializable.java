@@ -0,0 +1,16 @@
+package carldav.jackrabbit.webdav.xml;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+public interface XmlStreamSerializable extends XmlSerializable {
+
+    /**
+     * Writes the xml representation of the implementing object to the given
+     * writer. The result must be equivalent to the element returned by
+     * {@link #toXml(org.w3c.dom.Document)}.
+     *
+     * @param writer the writer to serialize to
+     */
+    void writeTo(XMLStreamWriter writer) throws XMLStreamException;
+}
@@ -0,0 +1,145 @@
+package carldav.repository;
+
+import carldav.entity.CollectionItem;
+import org.springframework.util.Assert;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of collection ids by owner email and collection name, shared across requests.
+ * A hit loads the collection by primary key instead of querying by owner and name, so collection
+ * metadata like the modification date or sync token is always read from the current row and
+ * changes to it need no invalidation. Entries are evicted when a collection is created or removed.
+ */
+public class CollectionLookupCache {
+
+    private final CollectionRepository collectionRepository;
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maxEntries upper bound of cached collection ids, 0 disables caching
+     */
+    public CollectionLookupCache(final CollectionRepository collectionRepository, final int maxEntries) {
+        Assert.notNull(collectionRepository, "collectionRepository is null");
+        Assert.isTrue(maxEntries >= 0, "maxEntries is negative");
+        this.collectionRepository = collectionRepository;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the collection of the given owner with the given name, the home collection if
+     * {@code name} is <code>null</code>. On a miss the collection is looked up with {@code loader}.
+     */
+    public CollectionItem get(final String owner, final String name, final Supplier<CollectionItem> loader) {
+        Assert.notNull(owner, "owner is null");
+        Assert.notNull(loader, "loader is null");
+
+        final Key key = new Key(owner, name);
+        final Long id;
+        synchronized (this) {
+            id = entries.get(key);
+        }
+
+        if (id != null) {
+            final CollectionItem collection = collectionRepository.findOne(id);
+            if (collection != null) {
+                hits.incrementAndGet();
+                return collection;
+            }
+            evict(key);
+        }
+
+        misses.incrementAndGet();
+        final CollectionItem collection = loader.get();
+        if (collection != null && collection.getId() != null && maxEntries > 0) {
+            put(key, collection.getId());
+        }
+        return collection;
+    }
+
+    /**
+     * Evicts the given collection, and the home collection entry of its owner if it is one.
+     */
+    public void evict(final CollectionItem collection) {
+        Assert.notNull(collection, "collection is null");
+        if (collection.getOwner() == null) {
+            return;
+        }
+        evict(new Key(collection.getOwner().getEmail(), collection.getName()));
+        if (collection.getParent() == null) {
+            evict(new Key(collection.getOwner().getEmail(), null));
+        }
+    }
+
+    /**
+     * Evicts all collections of the given owner.
+     */
+    public synchronized void evictOwner(final String owner) {
+        entries.keySet().removeIf(key -> key.owner.equals(owner));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private synchronized void evict(final Key key) {
+        entries.remove(key);
+    }
+
+    private synchronized void put(final Key key, final Long id) {
+        entries.put(key, id);
+        if (entries.size() > maxEntries) {
+            final Iterator<Map.Entry<Key, Long>> iterator = entries.entrySet().iterator();
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static final class Key {
+        private final String owner;
+        private final String name;
+
+        private Key(final String owner, final String name) {
+            this.owner = owner;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) other;
+            return owner.equals(key.owner) && Objects.equals(name, key.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * owner.hashCode() + Objects.hashCode(name);
+        }
+    }
+}
@@ -9,7 +9,7 @@ import java.util.List;
 /**
  * @author Kamill Sokol
  */
-public interface CollectionRepository extends CrudRepository<CollectionItem, Long> {
+public interface CollectionRepository extends CrudRepository<CollectionItem, Long>, CollectionRepositoryCustom {
 
     @Query("select c from CollectionItem c where c.name = ?1 and c.owner.email = ?#{ principal.username }")
     CollectionItem findByCurrentOwnerEmailAndName(String name);
@@ -0,0 +1,19 @@
+package carldav.repository;
+
+import carldav.entity.CollectionItem;
+
+import java.util.Date;
+
+public interface CollectionRepositoryCustom {
+
+    /**
+     * Advances sync token and version of a collection and stamps its modification date with a single atomic
+     * <code>UPDATE</code>, so concurrent writers to one collection don't lose increments. The update locks
+     * the collection row until the transaction ends, concurrent writers to the same collection still wait
+     * for each other. A managed instance is flushed before and refreshed after the update, a detached one
+     * gets the new values set from one <code>SELECT</code> of the row.
+     *
+     * @return the new sync token
+     */
+    long advanceSyncToken(CollectionItem collection, Date modifiedDate);
+}
@@ -0,0 +1,73 @@
+package carldav.repository;
+
+import carldav.entity.CollectionItem;
+import org.hibernate.SQLQuery;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Date;
+
+public class CollectionRepositoryImpl implements CollectionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public long advanceSyncToken(final CollectionItem collection, final Date modifiedDate) {
+        Assert.notNull(collection, "collection is null");
+        final Long id = collection.getId();
+        final boolean managed = entityManager.contains(collection);
+
+        if (managed) {
+            // the refresh below would discard pending changes of the collection
+            entityManager.flush();
+        }
+
+        // an empty query space keeps Hibernate from evicting every cached collection, only this one is evicted
+        final int updated = entityManager
+                .createNativeQuery("update collection set synctoken = coalesce(synctoken, 0) + 1, version = version + 1, modifydate = :modifiedDate where id = :id")
+                .unwrap(SQLQuery.class)
+                .addSynchronizedQuerySpace("")
+                .setTimestamp("modifiedDate", modifiedDate)
+                .setLong("id", id)
+                .executeUpdate();
+        Assert.isTrue(updated == 1, "collection " + id + " not found");
+        evict(id);
+
+        if (managed) {
+            entityManager.refresh(collection);
+            return collection.getSyncToken();
+        }
+
+        final Object[] row = (Object[]) entityManager
+                .createNativeQuery("select synctoken, version from collection where id = :id")
+                .unwrap(SQLQuery.class)
+                .addSynchronizedQuerySpace("")
+                .setLong("id", id)
+                .uniqueResult();
+        final long syncToken = ((Number) row[0]).longValue();
+        collection.setSyncToken(syncToken);
+        collection.setVersion(((Number) row[1]).longValue());
+        collection.setModifiedDate(modifiedDate);
+        return syncToken;
+    }
+
+    /**
+     * Evicts the collection from the second-level cache now and once more after the transaction
+     * completed, so concurrent readers can't cache the row as it was before the update.
+     */
+    private void evict(final Long id) {
+        entityManager.getEntityManagerFactory().getCache().evict(CollectionItem.class, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(final int status) {
+                    entityManager.getEntityManagerFactory().getCache().evict(CollectionItem.class, id);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package carldav.repository;
+
+import carldav.entity.ItemChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.List;
+
+public interface ItemChangeRepository extends CrudRepository<ItemChange, Long> {
+
+    ItemChange findByCollectionIdAndName(Long id, String name);
+
+    List<ItemChange> findByCollectionId(Long id);
+
+    List<ItemChange> findByCollectionIdAndSyncTokenGreaterThanOrderBySyncTokenAsc(Long id, Long syncToken);
+
+    long countByCollectionIdAndType(Long id, ItemChange.Type type);
+
+    List<ItemChange> findByCollectionIdAndTypeOrderBySyncTokenAsc(Long id, ItemChange.Type type, Pageable pageable);
+}
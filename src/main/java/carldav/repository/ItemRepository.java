@@ -20,14 +20,32 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
-public interface ItemRepository extends CrudRepository<Item, Long>, JpaSpecificationExecutor {
+public interface ItemRepository extends CrudRepository<Item, Long>, JpaSpecificationExecutor, ItemRepositoryCustom {
 
-    List<Item> findByCollectionIdAndType(Long id, Item.Type type);
+    List<Item> findByCollectionIdAndTypeOrderByNameAsc(Long id, Item.Type type);
 
     List<Item> findByCollectionId(Long id);
 
+    List<Item> findByCollectionIdAndNameIn(Long id, Collection<String> names);
+
+    /**
+     * Returns the recurring items of a collection whose occurrences have not been materialized
+     * up to the given date yet, unless their recurrence ends before.
+     */
+    @Query("select i from Item i where i.collection.id = ?1 and i.recurring = true and (i.occurrencesUntil is null or " +
+            "(i.occurrencesUntil < ?2 and (i.endDate is null or i.occurrencesUntil < i.endDate)))")
+    List<Item> findRecurringByCollectionIdAndOccurrencesUntilBefore(Long id, Date until);
+
+    /**
+     * Returns the items of a collection that have not been added to the card property index yet.
+     */
+    @Query("select i from Item i where i.collection.id = ?1 and i.type = ?2 and i.cardIndexed is null")
+    List<Item> findUnindexedCardsByCollectionIdAndType(Long id, Item.Type type);
+
     @Query("select i from Item i where i.collection.name = ?1 and i.name = ?2 and i.collection.owner.email = ?#{ principal.username }")
     Item findByCurrentOwnerEmailAndCollectionNameAndName(String collectionName, String name);
 
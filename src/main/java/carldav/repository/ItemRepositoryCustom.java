@@ -0,0 +1,28 @@
+package carldav.repository;
+
+import carldav.entity.Item;
+
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+
+    /**
+     * Returns detached summaries of the items of a collection without their calendar or card content.
+     * The content length of items stored before it was recorded is computed from their contents, which
+     * are loaded with one query for all of them.
+     */
+    List<Item> findSummariesByCollectionId(Long id);
+
+    /**
+     * Persists new items, flushing and detaching them after every <code>batchSize</code> items
+     * so inserts are sent as JDBC batches and memory stays bounded. Detaching cascades to their
+     * content and occurrences, other entities of the persistence context stay managed.
+     */
+    void persistInBatches(List<Item> items, int batchSize);
+
+    /**
+     * Writes pending changes, so a versioned update or delete of an item that was modified
+     * concurrently fails right away rather than on commit.
+     */
+    void flush();
+}
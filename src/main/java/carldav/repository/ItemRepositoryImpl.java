@@ -0,0 +1,68 @@
+package carldav.repository;
+
+import carldav.entity.Item;
+import org.springframework.util.Assert;
+import org.unitedinternet.cosmo.util.Utf8Util;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Item> findSummariesByCollectionId(final Long id) {
+        final List<Item> summaries = entityManager
+                .createQuery("select new carldav.entity.Item(i.id, i.version, i.name, i.displayName, i.uid, i.mimetype, i.type, "
+                        + "i.modifiedDate, i.contentLength) from Item i where i.collection.id = :id", Item.class)
+                .setParameter("id", id)
+                .getResultList();
+
+        final Map<Long, Item> withoutLength = new HashMap<>();
+        for (Item summary : summaries) {
+            if (summary.getContentLength() == null) {
+                withoutLength.put(summary.getId(), summary);
+            }
+        }
+        if (withoutLength.isEmpty()) {
+            return summaries;
+        }
+
+        final List<Object[]> contents = entityManager
+                .createQuery("select i.id, c.calendar from Item i join i.content c where i.id in :ids", Object[].class)
+                .setParameter("ids", withoutLength.keySet())
+                .getResultList();
+        for (Object[] content : contents) {
+            if (content[1] != null) {
+                withoutLength.get(content[0]).setContentLength(Utf8Util.length((String) content[1]));
+            }
+        }
+        return summaries;
+    }
+
+    @Override
+    public void persistInBatches(final List<Item> items, final int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be positive");
+
+        for (int from = 0; from < items.size(); from += batchSize) {
+            final List<Item> batch = items.subList(from, Math.min(from + batchSize, items.size()));
+            for (Item item : batch) {
+                entityManager.persist(item);
+            }
+            entityManager.flush();
+            for (Item item : batch) {
+                entityManager.detach(item);
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,56 @@
+package carldav.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hit, miss and put counts of the Hibernate second-level cache regions and the query cache.
+ * Counts stay zero unless <code>hibernate.generate_statistics</code> is enabled, which the application
+ * properties only do when <code>carldav.hibernate.statistics</code> is set, e.g. while measuring.
+ */
+@Component
+public class SecondLevelCacheStatistics {
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheStatistics(EntityManagerFactory entityManagerFactory) {
+        Assert.notNull(entityManagerFactory, "entityManagerFactory is null");
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * @return hit, miss and put counts by region name
+     */
+    public Map<String, org.hibernate.stat.SecondLevelCacheStatistics> getRegionStatistics() {
+        final Map<String, org.hibernate.stat.SecondLevelCacheStatistics> regions = new TreeMap<>();
+        for (final String region : statistics.getSecondLevelCacheRegionNames()) {
+            regions.put(region, statistics.getSecondLevelCacheStatistics(region));
+        }
+        return regions;
+    }
+
+    public long getQueryCacheHitCount() {
+        return statistics.getQueryCacheHitCount();
+    }
+
+    public long getQueryCacheMissCount() {
+        return statistics.getQueryCacheMissCount();
+    }
+
+    /**
+     * @return number of the given entities loaded from the database rather than a cache
+     */
+    public long getEntityLoadCount(Class<?> entity) {
+        return statistics.getEntityStatistics(entity.getName()).getLoadCount();
+    }
+
+    public void clear() {
+        statistics.clear();
+    }
+}
@@ -15,11 +15,18 @@
  */
 package carldav.repository;
 
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import carldav.entity.User;
 
+import javax.persistence.QueryHint;
+
 public interface UserRepository extends CrudRepository<User, Long> {
 
+    /**
+     * Cached in the Hibernate query cache, looked up on every authentication.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     User findByEmailIgnoreCase(String email);
 
 }
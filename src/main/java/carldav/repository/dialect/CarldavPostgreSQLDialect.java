@@ -0,0 +1,36 @@
+package carldav.repository.dialect;
+
+import org.hibernate.dialect.PostgreSQL94Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.descriptor.sql.LongVarcharTypeDescriptor;
+import org.hibernate.type.descriptor.sql.SqlTypeDescriptor;
+
+import java.sql.Types;
+
+/**
+ * PostgreSQL dialect for the schema in <code>db/migration/postgresql</code>.
+ * <p>
+ * Registers <code>timerange_overlaps(start, end, rangeStart, rangeEnd)</code>, which compares the
+ * <code>tstzrange</code> of a start/end column pair with the <code>&amp;&amp;</code> operator so
+ * PostgreSQL can answer it from the GiST indexes on <code>carldav_timerange(startdate, enddate)</code>.
+ * <p>
+ * Maps <code>@Lob</code> strings to <code>text</code> instead of large objects.
+ */
+public class CarldavPostgreSQLDialect extends PostgreSQL94Dialect {
+
+    public static final String TIMERANGE_OVERLAPS = "timerange_overlaps";
+
+    public CarldavPostgreSQLDialect() {
+        registerFunction(TIMERANGE_OVERLAPS, new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN,
+                "(carldav_timerange(?1, ?2) && tstzrange(?3, ?4, '[)'))"));
+    }
+
+    @Override
+    protected SqlTypeDescriptor getSqlTypeDescriptorOverride(int sqlCode) {
+        if (sqlCode == Types.CLOB) {
+            return LongVarcharTypeDescriptor.INSTANCE;
+        }
+        return super.getSqlTypeDescriptorOverride(sqlCode);
+    }
+}
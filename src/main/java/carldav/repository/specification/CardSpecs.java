@@ -0,0 +1,118 @@
+package carldav.repository.specification;
+
+import carldav.entity.CardProperty;
+import carldav.entity.Item;
+import org.springframework.data.jpa.domain.Specification;
+import org.unitedinternet.cosmo.calendar.query.AddressbookFilter;
+import org.unitedinternet.cosmo.calendar.query.CardPropertyFilter;
+import org.unitedinternet.cosmo.calendar.query.CardTextMatchFilter;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates a CARDDAV:filter into predicates on the card property index.
+ */
+public final class CardSpecs {
+
+    private static final char ESCAPE = '\\';
+
+    private CardSpecs() {
+        //private
+    }
+
+    public static Specification<Item> cards(Long collectionId, AddressbookFilter filter) {
+        return (root, query, cb) -> {
+            final Predicate parent = cb.equal(root.get("collection").get("id"), collectionId);
+            final Predicate type = cb.equal(root.get("type"), Item.Type.VCARD);
+            if (filter == null || filter.getPropertyFilters().isEmpty()) {
+                return cb.and(parent, type);
+            }
+
+            final List<Predicate> predicates = new ArrayList<>(filter.getPropertyFilters().size());
+            for (CardPropertyFilter propertyFilter : filter.getPropertyFilters()) {
+                predicates.add(propertyFilter(root, query, cb, propertyFilter));
+            }
+            return cb.and(parent, type, combine(cb, predicates, filter.isAllOf()));
+        };
+    }
+
+    private static Predicate propertyFilter(Root<Item> root, CriteriaQuery<?> query, CriteriaBuilder cb, CardPropertyFilter filter) {
+        if (filter.isNotDefined()) {
+            return cb.not(cb.exists(property(root, query, cb, filter.getName(), null)));
+        }
+        if (filter.getTextMatchFilters().isEmpty()) {
+            return cb.exists(property(root, query, cb, filter.getName(), null));
+        }
+
+        final List<Predicate> predicates = new ArrayList<>(filter.getTextMatchFilters().size());
+        for (CardTextMatchFilter textMatch : filter.getTextMatchFilters()) {
+            final Predicate matches = cb.exists(property(root, query, cb, filter.getName(), textMatch));
+            if (textMatch.isNegateCondition()) {
+                // a negated text-match holds for a defined property without any matching value
+                predicates.add(cb.and(cb.exists(property(root, query, cb, filter.getName(), null)), cb.not(matches)));
+            } else {
+                predicates.add(matches);
+            }
+        }
+        return combine(cb, predicates, filter.isAllOf());
+    }
+
+    /**
+     * Selects the indexed values of the given property of the current card, restricted to the values
+     * matching {@code textMatch} unless it is <code>null</code>. The negate-condition of {@code textMatch}
+     * is left to the caller.
+     */
+    private static Subquery<Long> property(Root<Item> root, CriteriaQuery<?> query, CriteriaBuilder cb, String name, CardTextMatchFilter textMatch) {
+        final Subquery<Long> subquery = query.subquery(Long.class);
+        final Root<CardProperty> property = subquery.from(CardProperty.class);
+        final Predicate itemAndName = cb.and(cb.equal(property.get("item"), root), cb.equal(property.get("name"), name));
+
+        if (textMatch == null) {
+            return subquery.select(property.get("id")).where(itemAndName);
+        }
+
+        final Expression<String> value;
+        final Expression<String> longValue;
+        final String text;
+        if (textMatch.isCaseless()) {
+            value = property.get("foldedValue");
+            longValue = property.get("longFoldedValue");
+            text = CardProperty.fold(textMatch.getValue());
+        } else {
+            value = property.get("value");
+            longValue = property.get("longValue");
+            text = textMatch.getValue();
+        }
+
+        // truncated values are matched in full
+        final String pattern = pattern(text, textMatch.getMatchType());
+        final Predicate match = cb.or(cb.and(cb.isNull(longValue), cb.like(value, pattern, ESCAPE)), cb.like(longValue, pattern, ESCAPE));
+        return subquery.select(property.get("id")).where(itemAndName, match);
+    }
+
+    private static String pattern(String text, CardTextMatchFilter.MatchType matchType) {
+        final String escaped = text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        switch (matchType) {
+            case EQUALS:
+                return escaped;
+            case STARTS_WITH:
+                return escaped + "%";
+            case ENDS_WITH:
+                return "%" + escaped;
+            default:
+                return "%" + escaped + "%";
+        }
+    }
+
+    private static Predicate combine(CriteriaBuilder cb, List<Predicate> predicates, boolean allOf) {
+        final Predicate[] array = predicates.toArray(new Predicate[predicates.size()]);
+        return allOf ? cb.and(array) : cb.or(array);
+    }
+}
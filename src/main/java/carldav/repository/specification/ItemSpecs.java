@@ -1,12 +1,18 @@
 package carldav.repository.specification;
 
 import carldav.entity.Item;
+import carldav.entity.ItemOccurrence;
+import carldav.repository.dialect.CarldavPostgreSQLDialect;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.domain.Specifications;
 
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -60,6 +66,14 @@ public final class ItemSpecs {
     }
 
     public static Specification<Item> stamp(Item.Type type, Boolean recurring, Date start, Date end) {
+        return stamp(type, recurring, start, end, false);
+    }
+
+    /**
+     * @param rangeOperator true to compare time ranges with {@link CarldavPostgreSQLDialect#TIMERANGE_OVERLAPS},
+     *                      which requires the PostgreSQL schema and dialect
+     */
+    public static Specification<Item> stamp(Item.Type type, Boolean recurring, Date start, Date end, boolean rangeOperator) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>(3);
 
@@ -72,7 +86,18 @@ public final class ItemSpecs {
                 predicates.add(cb.equal(root.<String>get("recurring"), recurring));
             }
 
-            if (start != null && end != null) {
+            if (start != null && end != null && rangeOperator) {
+                final Path<Date> startDate = root.get("startDate");
+                final Path<Date> endDate = root.get("endDate");
+
+                // carldav_timerange includes instants at the range start, instants at the range end are matched separately
+                final Predicate overlaps = overlaps(cb, startDate, endDate, start, end);
+                final Predicate instantAtEnd = cb.and(cb.equal(startDate, endDate), cb.equal(startDate, end));
+
+                final Predicate notRecurring = cb.or(cb.isNull(root.get("recurring")), cb.isFalse(root.get("recurring")));
+                final Predicate recurringMatch = cb.and(cb.isTrue(root.get("recurring")), occurrence(root, query, cb, start, end, true));
+                predicates.add(cb.or(cb.and(notRecurring, cb.or(overlaps, instantAtEnd)), recurringMatch));
+            } else if (start != null && end != null) {
                 final Predicate startDate1 = cb.lessThan(root.get("startDate"), end);
                 final Predicate endDate1 = cb.greaterThan(root.get("endDate"), start);
 
@@ -87,10 +112,54 @@ public final class ItemSpecs {
 
                 // edge case where start==end
                 final Predicate or = cb.or(startDate1AndEndDate1, startDateEqualEndDateAndStartDateEqualOrEndDateEqual);
-                predicates.add(or);
+
+                final Predicate notRecurring = cb.or(cb.isNull(root.get("recurring")), cb.isFalse(root.get("recurring")));
+                final Predicate recurringMatch = cb.and(cb.isTrue(root.get("recurring")), occurrence(root, query, cb, start, end, false));
+                predicates.add(cb.or(cb.and(notRecurring, or), recurringMatch));
             }
 
             return predicates.stream().reduce((left, right) -> cb.and(left, right)).orElse(null);
         };
     }
+
+    /**
+     * Matches recurring items with a materialized occurrence overlapping the given range. Items whose
+     * occurrences don't cover the range, because it ends after them or starts before them, are matched
+     * as well and left to the caller to filter.
+     */
+    private static Predicate occurrence(Root<Item> root, CriteriaQuery<?> query, CriteriaBuilder cb, Date start, Date end, boolean rangeOperator) {
+        final Subquery<Long> subquery = query.subquery(Long.class);
+        final Root<ItemOccurrence> occurrence = subquery.from(ItemOccurrence.class);
+        final Path<Date> occurrenceStart = occurrence.get("startDate");
+        final Path<Date> occurrenceEnd = occurrence.get("endDate");
+
+        final Predicate match;
+        if (rangeOperator) {
+            match = overlaps(cb, occurrenceStart, occurrenceEnd, start, end);
+        } else {
+            final Predicate overlaps = cb.and(cb.lessThan(occurrenceStart, end), cb.greaterThan(occurrenceEnd, start));
+            final Predicate instant = cb.and(cb.equal(occurrenceStart, occurrenceEnd),
+                    cb.greaterThanOrEqualTo(occurrenceStart, start), cb.lessThan(occurrenceStart, end));
+            match = cb.or(overlaps, instant);
+        }
+
+        subquery.select(occurrence.get("id")).where(cb.equal(occurrence.get("item"), root), match);
+
+        final Path<Date> occurrencesFrom = root.get("occurrencesFrom");
+        final Path<Date> occurrencesUntil = root.get("occurrencesUntil");
+        final Path<Date> endDate = root.get("endDate");
+        final Predicate uncovered = cb.or(cb.isNull(occurrencesUntil),
+                cb.and(cb.lessThan(occurrencesUntil, end), cb.or(cb.isNull(endDate), cb.greaterThan(endDate, occurrencesUntil))),
+                cb.greaterThan(occurrencesFrom, start));
+
+        return cb.or(cb.exists(subquery), uncovered);
+    }
+
+    /**
+     * Matches start/end pairs overlapping the given range, instants at the range start included.
+     */
+    private static Predicate overlaps(CriteriaBuilder cb, Path<Date> startDate, Path<Date> endDate, Date start, Date end) {
+        return cb.isTrue(cb.function(CarldavPostgreSQLDialect.TIMERANGE_OVERLAPS, Boolean.class,
+                startDate, endDate, cb.literal(start), cb.literal(end)));
+    }
 }
@@ -0,0 +1,193 @@
+package carldav.security;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.Assert;
+
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded LRU cache of successful authentications keyed by username and a salted hash of the
+ * presented password. Entries expire after a fixed time to live, so a changed password or a
+ * locked account is picked up without explicit invalidation at the latest after that time.
+ * <p>
+ * Raw passwords are never stored. The salt is generated per instance and never leaves it.
+ */
+public class AuthenticationCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final String salt;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+
+    /**
+     * @param maxEntries upper bound of cached authentications, 0 disables caching
+     * @param ttlSeconds time in seconds a cached authentication stays valid
+     */
+    public AuthenticationCache(final int maxEntries, final long ttlSeconds) {
+        this(maxEntries, ttlSeconds, System::nanoTime);
+    }
+
+    AuthenticationCache(final int maxEntries, final long ttlSeconds, final LongSupplier ticker) {
+        Assert.isTrue(maxEntries >= 0, "maxEntries is negative");
+        Assert.isTrue(ttlSeconds >= 0, "ttlSeconds is negative");
+        Assert.notNull(ticker, "ticker is null");
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.ticker = ticker;
+        this.salt = Long.toHexString(new SecureRandom().nextLong());
+    }
+
+    /**
+     * Returns the cached authentication for the given credentials or <code>null</code> if there
+     * is none or it has expired.
+     */
+    public Authentication get(final String username, final String password) {
+        if (username == null || password == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        final Key key = key(username, password);
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                if (ticker.getAsLong() - entry.created < ttlNanos) {
+                    hits.incrementAndGet();
+                    return entry.authentication;
+                }
+                entries.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(final String username, final String password, final Authentication authentication) {
+        if (username == null || password == null || maxEntries == 0) {
+            return;
+        }
+        final Key key = key(username, password);
+        synchronized (this) {
+            entries.put(key, new Entry(authentication, ticker.getAsLong()));
+            final Iterator<Entry> iterator = entries.values().iterator();
+            while (entries.size() > maxEntries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Drops every cached authentication of the given user. Usernames are compared
+     * case-insensitively like the user lookup does.
+     */
+    public synchronized void invalidate(final String username) {
+        if (username == null) {
+            return;
+        }
+        entries.keySet().removeIf(key -> key.username.equalsIgnoreCase(username));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Records the time spent verifying credentials that were not found in this cache.
+     */
+    public void recordLoad(final long nanos) {
+        loads.incrementAndGet();
+        loadNanos.addAndGet(nanos);
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        final long hitCount = hits.get();
+        final long requests = hitCount + misses.get();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    public long getTotalLoadNanos() {
+        return loadNanos.get();
+    }
+
+    public double getAverageLoadNanos() {
+        final long loadCount = loads.get();
+        return loadCount == 0 ? 0.0 : (double) loadNanos.get() / loadCount;
+    }
+
+    private Key key(final String username, final String password) {
+        return new Key(username, DigestUtils.sha256Hex(salt + password));
+    }
+
+    private static final class Entry {
+        private final Authentication authentication;
+        private final long created;
+
+        private Entry(final Authentication authentication, final long created) {
+            this.authentication = authentication;
+            this.created = created;
+        }
+    }
+
+    private static final class Key {
+        private final String username;
+        private final String credentialHash;
+
+        private Key(final String username, final String credentialHash) {
+            this.username = username;
+            this.credentialHash = credentialHash;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return username.equals(key.username) && credentialHash.equals(key.credentialHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(username, credentialHash);
+        }
+    }
+}
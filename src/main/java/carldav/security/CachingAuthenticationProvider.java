@@ -0,0 +1,55 @@
+package carldav.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.util.Assert;
+
+/**
+ * Answers repeated HTTP Basic authentications from an {@link AuthenticationCache} instead of
+ * loading and verifying the user on every stateless request. Credentials not found in the cache
+ * are verified by the delegate, only successful authentications are cached.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final AuthenticationCache authenticationCache;
+
+    public CachingAuthenticationProvider(final AuthenticationProvider delegate, final AuthenticationCache authenticationCache) {
+        Assert.notNull(delegate, "delegate is null");
+        Assert.notNull(authenticationCache, "authenticationCache is null");
+        this.delegate = delegate;
+        this.authenticationCache = authenticationCache;
+    }
+
+    @Override
+    public Authentication authenticate(final Authentication authentication) throws AuthenticationException {
+        final String username = authentication.getName();
+        final String password = authentication.getCredentials() == null ? null : authentication.getCredentials().toString();
+
+        final Authentication cached = authenticationCache.get(username, password);
+        if (cached != null) {
+            final UsernamePasswordAuthenticationToken result =
+                    new UsernamePasswordAuthenticationToken(cached.getPrincipal(), null, cached.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+
+        final long start = System.nanoTime();
+        try {
+            final Authentication result = delegate.authenticate(authentication);
+            if (result != null && result.isAuthenticated()) {
+                authenticationCache.put(username, password, result);
+            }
+            return result;
+        } finally {
+            authenticationCache.recordLoad(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean supports(final Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
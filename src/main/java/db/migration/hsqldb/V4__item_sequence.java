@@ -0,0 +1,32 @@
+package db.migration.hsqldb;
+
+import org.flywaydb.core.api.migration.jdbc.JdbcMigration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Creates the pooled id sequence of items and their content, occurrences and changes. Hibernate
+ * allocates blocks of 50 ids per call, the first block has to start above the ids handed out so far.
+ * HSQLDB only accepts a constant start value, hence a Java migration.
+ */
+public class V4__item_sequence implements JdbcMigration {
+
+    private static final int INCREMENT = 50;
+    private static final String[] TABLES = {"item", "item_content", "item_occurrence", "item_change"};
+
+    @Override
+    public void migrate(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            long max = 0;
+            for (final String table : TABLES) {
+                try (ResultSet resultSet = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+                    resultSet.next();
+                    max = Math.max(max, resultSet.getLong(1));
+                }
+            }
+            statement.execute("create sequence item_seq as bigint start with " + (max + INCREMENT) + " increment by " + INCREMENT);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package org.unitedinternet.cosmo.calendar;
+
+import carldav.entity.Item;
+import net.fortuna.ical4j.model.Calendar;
+import org.springframework.util.Assert;
+import org.unitedinternet.cosmo.util.Utf8Util;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of parsed calendars. Entries are keyed by item id and modification date, so a
+ * changed item never resolves to a stale calendar even without explicit invalidation. The cache is
+ * bounded by the summed content length of the cached items rather than by entry count. Lookups only
+ * need the id and modification date, the lazily loaded content of an item is not touched on a hit.
+ * <p>
+ * ical4j fills the onset caches of the timezones of a parsed calendar without synchronization, so
+ * like the timezones interned by {@link CosmoTimeZoneRegistryFactory} cached calendars are confined
+ * to the thread that cached them: every thread keeps its own entries, bounded by the maximum weight.
+ * Hit, miss and eviction counts are summed over all threads. Cached calendars are shared between
+ * callers of one thread and must be treated as read-only.
+ */
+public class CalendarCache {
+
+    private final long maxWeight;
+    private final ThreadLocal<Segment> segments = ThreadLocal.withInitial(Segment::new);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxWeight upper bound of the summed content length in bytes held by this cache per thread, 0 disables caching
+     */
+    public CalendarCache(final long maxWeight) {
+        Assert.isTrue(maxWeight >= 0, "maxWeight is negative");
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Returns the parsed calendar of the given item, parsing it with {@code parser} on a cache miss.
+     * Items without an id or calendar are never cached.
+     */
+    public Calendar get(final Item item, final Function<Item, Calendar> parser) {
+        if (item.getId() == null) {
+            misses.incrementAndGet();
+            return parser.apply(item);
+        }
+
+        final Key key = new Key(item.getId(), item.getModifiedDate());
+        final Entry entry = segments.get().entries.get(key);
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.calendar;
+        }
+
+        misses.incrementAndGet();
+        final Calendar calendar = parser.apply(item);
+        if (calendar != null) {
+            put(key, calendar, weigh(item));
+        }
+        return calendar;
+    }
+
+    /**
+     * Caches an already parsed calendar of the given item, e.g. the calendar parsed from a request body,
+     * so the next {@link #get(Item, Function)} of this item version on the calling thread needs no parse.
+     * The calendar must not be modified afterwards.
+     */
+    public void put(final Item item, final Calendar calendar) {
+        Assert.notNull(calendar, "calendar is null");
+        if (item.getId() == null) {
+            return;
+        }
+        put(new Key(item.getId(), item.getModifiedDate()), calendar, weigh(item));
+    }
+
+    /**
+     * Drops every calendar of the given item cached by the calling thread regardless of its modification
+     * date. Other threads can't serve them for a newer modification date either and evict them over time.
+     */
+    public void invalidate(final Item item) {
+        if (item.getId() == null) {
+            return;
+        }
+        final Segment segment = segments.get();
+        final Iterator<Map.Entry<Key, Entry>> iterator = segment.entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Key, Entry> next = iterator.next();
+            if (next.getKey().id.equals(item.getId())) {
+                segment.weight -= next.getValue().weight;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops the calendars cached by the calling thread.
+     */
+    public void clear() {
+        final Segment segment = segments.get();
+        segment.entries.clear();
+        segment.weight = 0;
+    }
+
+    /**
+     * Number of calendars cached by the calling thread.
+     */
+    public int size() {
+        return segments.get().entries.size();
+    }
+
+    /**
+     * Summed weight of the calendars cached by the calling thread.
+     */
+    public long getWeight() {
+        return segments.get().weight;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private void put(final Key key, final Calendar calendar, final long weight) {
+        if (weight < 0 || weight > maxWeight) {
+            return;
+        }
+
+        final Segment segment = segments.get();
+        final Entry previous = segment.entries.put(key, new Entry(calendar, weight));
+        if (previous != null) {
+            segment.weight -= previous.weight;
+        }
+        segment.weight += weight;
+
+        final Iterator<Entry> iterator = segment.entries.values().iterator();
+        while (segment.weight > maxWeight && iterator.hasNext()) {
+            segment.weight -= iterator.next().weight;
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Weighs an item by its stored content length. Only items stored before the length was
+     * recorded have their content measured, -1 if they have none.
+     */
+    public static long weigh(final Item item) {
+        if (item.getContentLength() != null) {
+            return item.getContentLength();
+        }
+        final String content = item.getCalendar();
+        return content == null ? -1 : Utf8Util.length(content);
+    }
+
+    private static final class Segment {
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long weight;
+    }
+
+    private static final class Entry {
+        private final Calendar calendar;
+        private final long weight;
+
+        private Entry(final Calendar calendar, final long weight) {
+            this.calendar = calendar;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Key {
+        private final Long id;
+        private final Long modified;
+
+        private Key(final Long id, final Date modifiedDate) {
+            this.id = id;
+            this.modified = modifiedDate == null ? null : modifiedDate.getTime();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return id.equals(key.id) && Objects.equals(modified, key.modified);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, modified);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.unitedinternet.cosmo.calendar;
+
+import net.fortuna.ical4j.model.TimeZone;
+import net.fortuna.ical4j.model.TimeZoneRegistry;
+import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
+import net.fortuna.ical4j.model.TimeZoneRegistryImpl;
+import net.fortuna.ical4j.model.component.VTimeZone;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates timezone registries that intern the VTIMEZONE definitions found in parsed calendars.
+ * Identical definitions, compared structurally with {@link VTimeZone#equals(Object)}, resolve to one
+ * {@link TimeZone} so the observance onsets ical4j computes lazily are computed once instead of once
+ * per parsed calendar. TZIDs are still resolved per registry, so two calendars using the same TZID
+ * for different definitions don't interfere.
+ * <p>
+ * ical4j fills the onset caches of a timezone without synchronization, so interned timezones are
+ * confined to the thread that interned them: every thread keeps its own LRU set of at most
+ * {@link #MAX_ZONES} definitions. A definition is therefore parsed and its onsets computed once
+ * per thread rather than once per process. Hit, miss and eviction counts and the number of
+ * interned definitions are summed over all threads.
+ * <p>
+ * Registered through <code>net.fortuna.ical4j.timezone.registry</code> in ical4j.properties.
+ * Shared timezones must be treated as read-only.
+ */
+public class CosmoTimeZoneRegistryFactory extends TimeZoneRegistryFactory {
+
+    static final int MAX_ZONES = 128;
+
+    private static final ThreadLocal<Map<Key, TimeZone>> ZONES = ThreadLocal.withInitial(() -> new LinkedHashMap<Key, TimeZone>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, TimeZone> eldest) {
+            if (size() > MAX_ZONES) {
+                EVICTIONS.incrementAndGet();
+                INTERNED.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    });
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+    private static final AtomicLong INTERNED = new AtomicLong();
+
+    @Override
+    public TimeZoneRegistry createRegistry() {
+        return new InterningTimeZoneRegistry();
+    }
+
+    /**
+     * Returns the instance of the given timezone's definition interned by the current thread,
+     * interning the given timezone if there is none yet.
+     */
+    public static TimeZone intern(final TimeZone timezone) {
+        final Map<Key, TimeZone> zones = ZONES.get();
+        final Key key = new Key(timezone.getVTimeZone());
+
+        final TimeZone shared = zones.get(key);
+        if (shared != null) {
+            HITS.incrementAndGet();
+            return shared;
+        }
+
+        MISSES.incrementAndGet();
+        INTERNED.incrementAndGet();
+        zones.put(key, timezone);
+        return timezone;
+    }
+
+    /**
+     * Number of distinct VTIMEZONE definitions interned by the current thread.
+     */
+    public static int getDistinctZones() {
+        return ZONES.get().size();
+    }
+
+    /**
+     * Number of VTIMEZONE definitions interned by all threads, a definition interned by several
+     * threads is counted once per thread.
+     */
+    public static long getInternedZones() {
+        return INTERNED.get();
+    }
+
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+
+    public static long getEvictionCount() {
+        return EVICTIONS.get();
+    }
+
+    /**
+     * Drops the definitions interned by the current thread and resets the hit, miss and eviction counts.
+     */
+    static void clear() {
+        final Map<Key, TimeZone> zones = ZONES.get();
+        INTERNED.addAndGet(-zones.size());
+        zones.clear();
+        HITS.set(0);
+        MISSES.set(0);
+        EVICTIONS.set(0);
+    }
+
+    private static final class InterningTimeZoneRegistry extends TimeZoneRegistryImpl {
+
+        @Override
+        public void register(final TimeZone timezone) {
+            super.register(intern(timezone));
+        }
+    }
+
+    /**
+     * Compares definitions by their parsed properties and observances instead of their iCalendar text,
+     * which would have to be formatted and hashed on every parse.
+     */
+    private static final class Key {
+        private final VTimeZone definition;
+        private final int hash;
+
+        private Key(final VTimeZone definition) {
+            this.definition = definition;
+            this.hash = definition.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return hash == key.hash && definition.equals(key.definition);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
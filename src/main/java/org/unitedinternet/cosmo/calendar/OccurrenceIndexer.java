@@ -0,0 +1,127 @@
+package org.unitedinternet.cosmo.calendar;
+
+import carldav.entity.Item;
+import carldav.entity.ItemOccurrence;
+import carldav.repository.ItemRepository;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.DateTime;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.util.Assert;
+import org.unitedinternet.cosmo.model.hibernate.EntityConverter;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Materializes the occurrences of recurring items as {@link ItemOccurrence} rows. Occurrences
+ * are expanded from the first instance, or from the retention period before the current time for
+ * items starting earlier, up to a horizon relative to the current time. Items are only expanded
+ * again on write when their content changed. Queries reaching beyond the materialized range extend
+ * it lazily with {@link #ensureIndexed(Long, Date)}, never beyond the maximum horizon, and match
+ * items whose range starts after the query start without their occurrences.
+ */
+public class OccurrenceIndexer {
+
+    private static final EntityConverter entityConverter = new EntityConverter();
+
+    private final ItemRepository itemRepository;
+    private final CalendarCache calendarCache;
+    private final long retentionMillis;
+    private final long horizonMillis;
+    private final long maxHorizonMillis;
+
+    /**
+     * @param retentionDays days before now occurrences are materialized for
+     * @param horizonDays days after now occurrences are materialized for on write
+     * @param maxHorizonDays days after now queries may extend the materialized range to
+     */
+    public OccurrenceIndexer(ItemRepository itemRepository, CalendarCache calendarCache, int retentionDays, int horizonDays, int maxHorizonDays) {
+        Assert.notNull(itemRepository, "itemRepository is null");
+        Assert.notNull(calendarCache, "calendarCache is null");
+        Assert.isTrue(retentionDays >= 0, "retentionDays must not be negative");
+        Assert.isTrue(horizonDays > 0, "horizonDays must be positive");
+        Assert.isTrue(maxHorizonDays >= horizonDays, "maxHorizonDays must not be less than horizonDays");
+        this.itemRepository = itemRepository;
+        this.calendarCache = calendarCache;
+        this.retentionMillis = TimeUnit.DAYS.toMillis(retentionDays);
+        this.horizonMillis = TimeUnit.DAYS.toMillis(horizonDays);
+        this.maxHorizonMillis = TimeUnit.DAYS.toMillis(maxHorizonDays);
+    }
+
+    /**
+     * Replaces the occurrences of the given item unless they were materialized from the same content
+     * before. Occurrences of items that are not recurring anymore are removed.
+     */
+    public void index(Item item) {
+        final String hash = item.getCalendar() == null ? null : DigestUtils.sha1Hex(item.getCalendar());
+        if (item.getOccurrencesUntil() != null && hash != null && hash.equals(item.getOccurrencesHash())) {
+            return;
+        }
+        index(item, new Date(System.currentTimeMillis() + horizonMillis));
+        item.setOccurrencesHash(item.getOccurrencesUntil() == null ? null : hash);
+    }
+
+    /**
+     * Extends the materialized occurrences of the recurring items in the given collection
+     * to cover queries ending at <code>until</code>. Ends beyond the maximum horizon are capped,
+     * and items are only re-indexed once they fall more than half the horizon behind it, so
+     * queries ending far in the future don't re-index the collection every time. Items left
+     * uncovered are matched by the time range query and filtered in memory.
+     * <p>
+     * Called by calendar queries, so a query may write occurrence rows in the transaction of its
+     * request. This is intended, the rows are only written for items that fell behind the horizon,
+     * at most once per half horizon.
+     */
+    public void ensureIndexed(Long collectionId, Date until) {
+        long now = System.currentTimeMillis();
+        Date horizon = new Date(Math.min(Math.max(until.getTime(), now + horizonMillis), now + maxHorizonMillis));
+        Date required = new Date(Math.min(until.getTime(), horizon.getTime() - horizonMillis / 2));
+
+        for (Item item : itemRepository.findRecurringByCollectionIdAndOccurrencesUntilBefore(collectionId, required)) {
+            index(item, horizon);
+        }
+    }
+
+    private void index(Item item, Date horizon) {
+        if (!Boolean.TRUE.equals(item.getRecurring()) || item.getStartDate() == null) {
+            if (item.getOccurrencesUntil() != null) {
+                item.getOccurrences().clear();
+            }
+            item.setOccurrencesFrom(null);
+            item.setOccurrencesUntil(null);
+            return;
+        }
+        item.getOccurrences().clear();
+
+        Date from = null;
+        Date retention = new Date(System.currentTimeMillis() - retentionMillis);
+        if (item.getStartDate().before(retention)) {
+            from = retention;
+        }
+
+        Date until = horizon;
+        if (item.getEndDate() != null && item.getEndDate().before(horizon)) {
+            until = item.getEndDate();
+        }
+
+        if (from != null && !from.before(until)) {
+            item.setOccurrencesFrom(from);
+            item.setOccurrencesUntil(until);
+            return;
+        }
+
+        Calendar calendar = calendarCache.get(item, entityConverter::convertContent);
+        DateTime rangeStart = new DateTime(from != null ? from : item.getStartDate());
+        rangeStart.setUtc(true);
+        DateTime rangeEnd = new DateTime(until);
+        rangeEnd.setUtc(true);
+
+        OccurrenceSet occurrences = new RecurrenceExpander().getOccurrenceSet(calendar, rangeStart, rangeEnd, null);
+        for (int i = 0; i < occurrences.size(); i++) {
+            item.getOccurrences().add(new ItemOccurrence(item, new Date(occurrences.getStart(i)), new Date(occurrences.getEnd(i))));
+        }
+
+        item.setOccurrencesFrom(from);
+        item.setOccurrencesUntil(until);
+    }
+}
@@ -0,0 +1,563 @@
+package org.unitedinternet.cosmo.calendar;
+
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.DateList;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Dur;
+import net.fortuna.ical4j.model.Parameter;
+import net.fortuna.ical4j.model.Period;
+import net.fortuna.ical4j.model.Property;
+import net.fortuna.ical4j.model.TimeZone;
+import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
+import net.fortuna.ical4j.model.parameter.Range;
+import net.fortuna.ical4j.model.parameter.Value;
+import net.fortuna.ical4j.model.property.DtEnd;
+import net.fortuna.ical4j.model.property.DtStart;
+import net.fortuna.ical4j.model.property.Duration;
+import net.fortuna.ical4j.model.property.ExDate;
+import net.fortuna.ical4j.model.property.ExRule;
+import net.fortuna.ical4j.model.property.RDate;
+import net.fortuna.ical4j.model.property.RRule;
+import net.fortuna.ical4j.model.property.RecurrenceId;
+import net.fortuna.ical4j.util.Dates;
+import org.unitedinternet.cosmo.CosmoParseException;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * Occurrences of a recurring component kept in parallel primitive arrays instead of a map of
+ * {@link Instance} objects keyed by recurrence id string. Occurrences are ordered by recurrence id,
+ * stored as epoch millis plus the kind of date it was given as, so looking up the occurrence an
+ * override replaces is a binary search. Generating a recurrence rule's occurrences doesn't allocate
+ * beyond the dates ical4j computes.
+ * <p>
+ * {@link #addMaster}, {@link #addOverride} and {@link #setTimezone} follow the semantics of
+ * {@link InstanceList} without UTC conversion, which is what callers only interested in start and
+ * end instants use.
+ */
+public class OccurrenceSet {
+
+    /** Recurrence id was a DATE. */
+    static final byte DATE = 0;
+    /** Recurrence id was a floating DATE-TIME. */
+    static final byte FLOATING = 1;
+    /** Recurrence id was a DATE-TIME in UTC or with a timezone. */
+    static final byte UTC = 2;
+
+    private static final int INITIAL_CAPACITY = 16;
+    /** Bytes held by the arrays per occurrence, with compressed references. */
+    private static final int BYTES_PER_OCCURRENCE = 3 * 8 + 3 + 4;
+
+    private TimeZone timezone;
+
+    private long[] rids = new long[INITIAL_CAPACITY];
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private byte[] startKinds = new byte[INITIAL_CAPACITY];
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private boolean[] overridden = new boolean[INITIAL_CAPACITY];
+    private Component[] components = new Component[INITIAL_CAPACITY];
+    private int size;
+
+    public TimeZone getTimezone() {
+        return timezone;
+    }
+
+    /**
+     * Set the timezone to use when pinning floating times.
+     */
+    public void setTimezone(TimeZone timezone) {
+        if (timezone != null) {
+            this.timezone = TimeZoneRegistryFactory.getInstance().createRegistry().getTimeZone(timezone.getID());
+        }
+    }
+
+    /**
+     * Add a component (either master or override instance) if it falls within
+     * the specified time range.
+     */
+    public void addComponent(Component comp, Date rangeStart, Date rangeEnd) {
+        if (comp.getProperties().getProperty(Property.RECURRENCE_ID) == null) {
+            addMaster(comp, rangeStart, rangeEnd);
+        } else {
+            addOverride(comp, rangeStart, rangeEnd);
+        }
+    }
+
+    /**
+     * Add the occurrences of a master component falling within the specified time range.
+     */
+    public void addMaster(Component comp, Date rangeStart, Date rangeEnd) {
+        Date start = getStartDate(comp);
+        if (start == null) {
+            return;
+        }
+
+        boolean dateTime = start instanceof DateTime;
+        start = adjustFloatingDateIfNecessary(start);
+
+        Dur duration;
+        Date end = getEndDate(comp);
+        if (end == null) {
+            duration = dateTime ? new Dur(0, 0, 0, 0) : new Dur(1, 0, 0, 0);
+            end = org.unitedinternet.cosmo.calendar.util.Dates.getInstance(duration.getTime(start), start);
+        } else {
+            if (dateTime) {
+                end = adjustFloatingDateIfNecessary(end);
+            }
+            if (end.before(start)) {
+                end = org.unitedinternet.cosmo.calendar.util.Dates.getInstance(
+                        new Dur(dateTime ? 0 : 1, 0, 0, 0).getTime(start), start);
+            }
+            duration = new Dur(start, end);
+        }
+        final byte kind = kindOf(start);
+
+        // Always add first instance if included in range..
+        if (dateBefore(start, rangeEnd) &&
+                (dateAfter(end, rangeStart) || dateEquals(end, rangeStart)) &&
+                comp.getProperties(Property.RRULE).isEmpty()) {
+            put(start.getTime(), kind, kind, start.getTime(), end.getTime(), comp, false);
+        }
+
+        // recurrence dates..
+        for (Object rdateValue : comp.getProperties().getProperties(Property.RDATE)) {
+            RDate rdate = (RDate) rdateValue;
+            if (Value.PERIOD.equals(rdate.getParameters().getParameter(Parameter.VALUE))) {
+                for (Object periodValue : rdate.getPeriods()) {
+                    Period period = (Period) periodValue;
+                    Date periodStart = adjustFloatingDateIfNecessary(period.getStart());
+                    Date periodEnd = adjustFloatingDateIfNecessary(period.getEnd());
+                    if (periodStart.before(rangeEnd) && periodEnd.after(rangeStart)) {
+                        put(periodStart.getTime(), kindOf(periodStart), kindOf(periodStart), periodStart.getTime(), periodEnd.getTime(), comp, false);
+                    }
+                }
+            } else {
+                for (Object dateValue : rdate.getDates()) {
+                    Date startDate = adjustFloatingDateIfNecessary((Date) dateValue);
+                    Date endDate = org.unitedinternet.cosmo.calendar.util.Dates.getInstance(duration.getTime(startDate), startDate);
+                    if (dateBefore(startDate, rangeEnd) && dateAfter(endDate, rangeStart)) {
+                        put(startDate.getTime(), kindOf(startDate), kindOf(startDate), startDate.getTime(), endDate.getTime(), comp, false);
+                    }
+                }
+            }
+        }
+
+        // recurrence rules..
+        Date adjustedRangeStart = null;
+        Date adjustedRangeEnd = null;
+        if (!comp.getProperties().getProperties(Property.RRULE).isEmpty()) {
+            adjustedRangeStart = adjustStartRangeIfNecessary(rangeStart, start, duration);
+            adjustedRangeEnd = adjustEndRangeIfNecessary(rangeEnd, start);
+        }
+
+        final long fixedDuration = fixedMillis(duration);
+        for (Object rruleValue : comp.getProperties().getProperties(Property.RRULE)) {
+            DateList startDates = ((RRule) rruleValue).getRecur().getDates(start, adjustedRangeStart,
+                    adjustedRangeEnd, dateTime ? Value.DATE_TIME : Value.DATE);
+            for (int j = 0; j < startDates.size(); j++) {
+                Date sd = (Date) startDates.get(j);
+                long startMillis = sd.getTime();
+                long endMillis = fixedDuration != Long.MIN_VALUE ? startMillis + fixedDuration : duration.getTime(sd).getTime();
+                put(startMillis, kind, kind, startMillis, endMillis, comp, false);
+            }
+        }
+
+        // exception dates..
+        for (Object exdateValue : comp.getProperties().getProperties(Property.EXDATE)) {
+            for (Object dateValue : ((ExDate) exdateValue).getDates()) {
+                Date sd = adjustFloatingDateIfNecessary((Date) dateValue);
+                remove(sd.getTime(), kindOf(sd));
+            }
+        }
+
+        // exception rules..
+        if (!comp.getProperties().getProperties(Property.EXRULE).isEmpty() && adjustedRangeStart == null) {
+            adjustedRangeStart = adjustStartRangeIfNecessary(rangeStart, start, duration);
+            adjustedRangeEnd = adjustEndRangeIfNecessary(rangeEnd, start);
+        }
+        for (Object exruleValue : comp.getProperties().getProperties(Property.EXRULE)) {
+            DateList startDates = ((ExRule) exruleValue).getRecur().getDates(start, adjustedRangeStart,
+                    adjustedRangeEnd, dateTime ? Value.DATE_TIME : Value.DATE);
+            for (int j = 0; j < startDates.size(); j++) {
+                Date sd = (Date) startDates.get(j);
+                remove(sd.getTime(), kindOf(sd));
+            }
+        }
+    }
+
+    /**
+     * Add an override component if it falls within the specified time range.
+     *
+     * @return true if the override component modifies the occurrences and false
+     *         if the override component has no effect on them
+     */
+    public boolean addOverride(Component comp, Date rangeStart, Date rangeEnd) {
+        boolean modified = false;
+
+        RecurrenceId recurrenceId = (RecurrenceId) comp.getProperties().getProperty(Property.RECURRENCE_ID);
+        if (recurrenceId == null) {
+            return false;
+        }
+
+        Date dtstart = getStartDate(comp);
+        if (dtstart == null) {
+            return false;
+        }
+
+        boolean dateTime = dtstart instanceof DateTime;
+        dtstart = adjustFloatingDateIfNecessary(dtstart);
+
+        Date dtend = getEndDate(comp);
+        if (dtend == null) {
+            Dur duration = new Dur(dateTime ? 0 : 1, 0, 0, 0);
+            dtend = org.unitedinternet.cosmo.calendar.util.Dates.getInstance(duration.getTime(dtstart), dtstart);
+        } else {
+            if (dateTime) {
+                dtend = adjustFloatingDateIfNecessary(dtend);
+            }
+            if (dtend.before(dtstart)) {
+                dtend = org.unitedinternet.cosmo.calendar.util.Dates.getInstance(
+                        new Dur(dateTime ? 0 : 1, 0, 0, 0).getTime(dtstart), dtstart);
+            }
+        }
+
+        Date riddt = adjustFloatingDateIfNecessary(recurrenceId.getDate());
+        long rid = riddt.getTime();
+        byte kind = kindOf(riddt);
+
+        // Replace the master instance if it exists
+        if (remove(rid, kind)) {
+            modified = true;
+        }
+
+        // Add modification instance if its in the range
+        if (dtstart.before(rangeEnd) && dtend.after(rangeStart)) {
+            put(rid, kind, kindOf(dtstart), dtstart.getTime(), dtend.getTime(), comp, true);
+            modified = true;
+        }
+
+        // Handle THISANDFUTURE if present
+        // TODO Ignoring THISANDPRIOR
+        if (Range.THISANDFUTURE.equals(recurrenceId.getParameters().getParameter(Parameter.RANGE))) {
+            // Policy - shift every following occurrence that isn't overridden by the
+            // same offset and give it the duration of the override component
+            boolean timeShift = dtstart.compareTo(riddt) != 0;
+            Dur offsetTime = timeShift ? new Dur(riddt, dtstart) : null;
+            Dur newDuration = timeShift ? new Dur(dtstart, dtend) : null;
+
+            int from = search(rid, kind);
+            from = from >= 0 ? from + 1 : -(from + 1);
+            for (int i = from; i < size; i++) {
+                if (overridden[i]) {
+                    continue;
+                }
+                if (timeShift) {
+                    Date originalstart = date(rids[i], kinds[i]);
+                    Value originalvalue = kinds[i] == DATE ? Value.DATE : Value.DATE_TIME;
+                    Date start = Dates.getInstance(offsetTime.getTime(originalstart), originalvalue);
+                    starts[i] = start.getTime();
+                    startKinds[i] = start instanceof DateTime ? FLOATING : DATE;
+                    ends[i] = Dates.getInstance(newDuration.getTime(start), originalvalue).getTime();
+                }
+                components[i] = comp;
+                modified = true;
+            }
+        }
+
+        return modified;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the recurrence id of the occurrence at the given index in epoch millis.
+     */
+    public long getRecurrenceId(int index) {
+        checkIndex(index);
+        return rids[index];
+    }
+
+    public long getStart(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    public long getEnd(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    /**
+     * Returns the recurrence id of the occurrence at the given index as a DATE, a floating DATE-TIME
+     * or a DATE-TIME in UTC.
+     */
+    public Date getRecurrenceIdDate(int index) {
+        checkIndex(index);
+        return date(rids[index], kinds[index]);
+    }
+
+    /**
+     * Returns the start of the occurrence at the given index as a DATE, a floating DATE-TIME or a
+     * DATE-TIME in UTC, like {@link Instance#getStart()} of the instance {@link InstanceList} creates.
+     */
+    public Date getStartDate(int index) {
+        checkIndex(index);
+        return date(starts[index], startKinds[index]);
+    }
+
+    /**
+     * Returns the end of the occurrence at the given index, of the same kind as its start.
+     */
+    public Date getEndDate(int index) {
+        checkIndex(index);
+        return date(ends[index], startKinds[index]);
+    }
+
+    public boolean isOverridden(int index) {
+        checkIndex(index);
+        return overridden[index];
+    }
+
+    /**
+     * Returns the master or override component the occurrence at the given index derives from.
+     */
+    public Component getComponent(int index) {
+        checkIndex(index);
+        return components[index];
+    }
+
+    /**
+     * Shrinks the arrays to the number of occurrences, e.g. before the set is retained in a cache.
+     */
+    public void trimToSize() {
+        if (size < rids.length) {
+            resize(size);
+        }
+    }
+
+    /**
+     * Returns the approximate number of bytes held by the arrays of this set, not counting the
+     * components the occurrences reference.
+     */
+    public long sizeInBytes() {
+        return (long) rids.length * BYTES_PER_OCCURRENCE;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+    }
+
+    /**
+     * Binary search by recurrence id, returns the index or <code>-(insertion point) - 1</code>.
+     */
+    private int search(long rid, byte kind) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = rids[mid] != rid ? Long.compare(rids[mid], rid) : Byte.compare(kinds[mid], kind);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void put(long rid, byte kind, byte startKind, long start, long end, Component comp, boolean isOverride) {
+        int index;
+        if (size == 0 || rids[size - 1] < rid || (rids[size - 1] == rid && kinds[size - 1] < kind)) {
+            // recurrence rules generate ascending dates, so appending is the common case
+            index = size;
+        } else {
+            index = search(rid, kind);
+        }
+
+        if (index < 0) {
+            index = -(index + 1);
+        } else if (index < size) {
+            set(index, rid, kind, startKind, start, end, comp, isOverride);
+            return;
+        }
+
+        if (size == rids.length) {
+            resize(Math.max(INITIAL_CAPACITY, rids.length * 2));
+        }
+        int moved = size - index;
+        if (moved > 0) {
+            System.arraycopy(rids, index, rids, index + 1, moved);
+            System.arraycopy(kinds, index, kinds, index + 1, moved);
+            System.arraycopy(startKinds, index, startKinds, index + 1, moved);
+            System.arraycopy(starts, index, starts, index + 1, moved);
+            System.arraycopy(ends, index, ends, index + 1, moved);
+            System.arraycopy(overridden, index, overridden, index + 1, moved);
+            System.arraycopy(components, index, components, index + 1, moved);
+        }
+        set(index, rid, kind, startKind, start, end, comp, isOverride);
+        size++;
+    }
+
+    private void set(int index, long rid, byte kind, byte startKind, long start, long end, Component comp, boolean isOverride) {
+        rids[index] = rid;
+        kinds[index] = kind;
+        startKinds[index] = startKind;
+        starts[index] = start;
+        ends[index] = end;
+        overridden[index] = isOverride;
+        components[index] = comp;
+    }
+
+    private boolean remove(long rid, byte kind) {
+        int index = search(rid, kind);
+        if (index < 0) {
+            return false;
+        }
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(rids, index + 1, rids, index, moved);
+            System.arraycopy(kinds, index + 1, kinds, index, moved);
+            System.arraycopy(startKinds, index + 1, startKinds, index, moved);
+            System.arraycopy(starts, index + 1, starts, index, moved);
+            System.arraycopy(ends, index + 1, ends, index, moved);
+            System.arraycopy(overridden, index + 1, overridden, index, moved);
+            System.arraycopy(components, index + 1, components, index, moved);
+        }
+        size--;
+        components[size] = null;
+        return true;
+    }
+
+    private void resize(int capacity) {
+        rids = Arrays.copyOf(rids, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        startKinds = Arrays.copyOf(startKinds, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        overridden = Arrays.copyOf(overridden, capacity);
+        components = Arrays.copyOf(components, capacity);
+    }
+
+    /**
+     * Recurrence ids are normalised like {@link Instance} does: DATE-TIMEs with a timezone are
+     * compared in UTC, DATEs and floating DATE-TIMEs only match their own kind.
+     */
+    private static byte kindOf(Date date) {
+        if (!(date instanceof DateTime)) {
+            return DATE;
+        }
+        DateTime dateTime = (DateTime) date;
+        return dateTime.isUtc() || dateTime.getTimeZone() != null ? UTC : FLOATING;
+    }
+
+    private static Date date(long millis, byte kind) {
+        if (kind == DATE) {
+            return new Date(millis);
+        }
+        DateTime dateTime = new DateTime(millis);
+        if (kind == UTC) {
+            dateTime.setUtc(true);
+        }
+        return dateTime;
+    }
+
+    /**
+     * Returns the length of the given duration in millis if it doesn't depend on the date it is
+     * applied to, which is the case unless it contains days or weeks, {@link Long#MIN_VALUE} otherwise.
+     */
+    private static long fixedMillis(Dur duration) {
+        if (duration.getWeeks() != 0 || duration.getDays() != 0) {
+            return Long.MIN_VALUE;
+        }
+        long millis = ((duration.getHours() * 60L + duration.getMinutes()) * 60L + duration.getSeconds()) * 1000L;
+        return duration.isNegative() ? -millis : millis;
+    }
+
+    private static Date getStartDate(Component comp) {
+        DtStart prop = (DtStart) comp.getProperties().getProperty(Property.DTSTART);
+        return (prop != null) ? prop.getDate() : null;
+    }
+
+    private static Date getEndDate(Component comp) {
+        DtEnd dtEnd = (DtEnd) comp.getProperties().getProperty(Property.DTEND);
+        if (dtEnd != null) {
+            return dtEnd.getDate();
+        }
+        Duration duration = (Duration) comp.getProperties().getProperty(Property.DURATION);
+        if (duration == null) {
+            return null;
+        }
+        Date dtStart = getStartDate(comp);
+        return org.unitedinternet.cosmo.calendar.util.Dates.getInstance(duration.getDuration().getTime(dtStart), dtStart);
+    }
+
+    /**
+     * See {@link InstanceList} for how the range start is adjusted.
+     */
+    private Date adjustStartRangeIfNecessary(Date startRange, Date start, Dur dur) {
+        if (!(start instanceof DateTime) && timezone != null && startRange instanceof DateTime) {
+            return ICalendarUtils.normalizeUTCDateTimeToDate((DateTime) startRange, timezone);
+        }
+
+        if (!startRange.after(start)) {
+            return startRange;
+        }
+
+        Calendar cal = Dates.getCalendarInstance(startRange);
+        cal.setTime(dur.negate().getTime(startRange));
+        if (cal.getTime().before(startRange)) {
+            return org.unitedinternet.cosmo.calendar.util.Dates.getInstance(cal.getTime(), startRange);
+        }
+        return startRange;
+    }
+
+    private Date adjustEndRangeIfNecessary(Date endRange, Date start) {
+        if (start instanceof DateTime || timezone == null || !(endRange instanceof DateTime)) {
+            return endRange;
+        }
+        return ICalendarUtils.normalizeUTCDateTimeToDefaultOffset((DateTime) endRange, timezone);
+    }
+
+    private Date adjustFloatingDateIfNecessary(Date date) {
+        if (timezone == null || !(date instanceof DateTime)) {
+            return date;
+        }
+
+        DateTime dtDate = (DateTime) date;
+        if (dtDate.isUtc() || dtDate.getTimeZone() != null) {
+            return date;
+        }
+
+        try {
+            return new DateTime(dtDate.toString(), timezone);
+        } catch (ParseException e) {
+            throw new CosmoParseException("error parsing date", e);
+        }
+    }
+
+    private boolean dateBefore(Date date1, Date date2) {
+        return ICalendarUtils.beforeDate(date1, date2, timezone);
+    }
+
+    private boolean dateAfter(Date date1, Date date2) {
+        return ICalendarUtils.afterDate(date1, date2, timezone);
+    }
+
+    private boolean dateEquals(Date date1, Date date2) {
+        return ICalendarUtils.equalsDate(date1, date2, timezone);
+    }
+}
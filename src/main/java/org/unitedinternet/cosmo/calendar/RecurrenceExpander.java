@@ -321,6 +321,43 @@ public class RecurrenceExpander {
     }
     
     
+    /**
+     * Expand recurring event for given time-range into primitive occurrences.
+     * @param calendar calendar containing recurring event and modifications
+     * @param rangeStart expand start
+     * @param rangeEnd expand end
+     * @param timezone Optional timezone to use for floating dates.  If null, the
+     *        system default is used.
+     * @return OccurrenceSet containing all occurences of recurring event during
+     *         time range
+     */
+    public OccurrenceSet getOccurrenceSet(Calendar calendar, Date rangeStart, Date rangeEnd, TimeZone timezone) {
+        ComponentList vevents = calendar.getComponents().getComponents(
+                Component.VEVENT);
+
+        List<Component> exceptions = new ArrayList<Component>();
+        Component masterComp = null;
+
+        for (Iterator<VEvent> i = vevents.iterator(); i.hasNext();) {
+            VEvent event = i.next();
+            if (event.getRecurrenceId() != null) {
+                exceptions.add(event);
+            }
+            else {
+                masterComp = event;
+            }
+        }
+
+        OccurrenceSet occurrences = new OccurrenceSet();
+        occurrences.setTimezone(timezone);
+        occurrences.addMaster(masterComp, rangeStart, rangeEnd);
+        for(Component mod: exceptions) {
+            occurrences.addOverride(mod, rangeStart, rangeEnd);
+        }
+
+        return occurrences;
+    }
+
     /**
      * Determine if date is a valid occurence in recurring calendar component
      * @param calendar recurring calendar component
@@ -0,0 +1,180 @@
+package org.unitedinternet.cosmo.calendar.data;
+
+import carldav.entity.Item;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Period;
+import org.springframework.util.Assert;
+import org.unitedinternet.cosmo.calendar.CalendarCache;
+import org.unitedinternet.cosmo.model.hibernate.EntityConverter;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of the expanded instances of recurring calendar items, holding one expansion
+ * window per item. The cache is bounded by the summed weight of its entries, the content length of
+ * the item, whose parsed calendar an entry keeps reachable, plus the size of its occurrences. A
+ * request for a period within the cached window of the current item version is served without
+ * expanding again. Otherwise the item is expanded over the requested period, or over
+ * the span of the cached window and the requested period when both overlap and the span doesn't
+ * exceed {@link #MAX_WINDOW_DAYS}, and replaces the cached window.
+ * <p>
+ * Calendars are parsed through the shared {@link CalendarCache}, floating times resolve in the
+ * server timezone, so item id and modification date identify an expansion. Expanded instances
+ * reference the components and timezones of their calendar, so like the calendars of the
+ * {@link CalendarCache} they are confined to the thread that expanded them: every thread keeps its
+ * own entries, bounded by the maximum weight. Hit, miss and eviction counts are summed over all threads.
+ */
+public class ExpandedInstanceCache {
+
+    static final long MAX_WINDOW_DAYS = 366;
+
+    private static final EntityConverter entityConverter = new EntityConverter();
+    private final CalendarCache calendarCache;
+    private final long maxWeight;
+    private final ThreadLocal<Segment> segments = ThreadLocal.withInitial(Segment::new);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxWeight upper bound of the summed weight in bytes held by this cache per thread, 0 disables caching
+     */
+    public ExpandedInstanceCache(final CalendarCache calendarCache, final long maxWeight) {
+        Assert.notNull(calendarCache, "calendarCache is null");
+        Assert.isTrue(maxWeight >= 0, "maxWeight is negative");
+        this.calendarCache = calendarCache;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Returns the instances of the given item expanded over a window covering {@code period}.
+     */
+    public ExpandedInstances get(final Item item, final Period period) {
+        Assert.notNull(item, "item is null");
+        Assert.notNull(period, "period is null");
+
+        if (item.getId() == null || maxWeight == 0) {
+            misses.incrementAndGet();
+            return ExpandedInstances.expand(calendarCache.get(item, entityConverter::convertContent), period);
+        }
+
+        final Long modified = modified(item.getModifiedDate());
+        Period window = period;
+        final Entry entry = segments.get().entries.get(item.getId());
+        if (entry != null && Objects.equals(entry.modified, modified)) {
+            if (entry.instances.covers(period)) {
+                hits.incrementAndGet();
+                return entry.instances;
+            }
+            window = span(entry.instances.getWindow(), period);
+        }
+
+        misses.incrementAndGet();
+        final Calendar calendar = calendarCache.get(item, entityConverter::convertContent);
+        final ExpandedInstances instances = ExpandedInstances.expand(calendar, window);
+        final long contentLength = CalendarCache.weigh(item);
+        if (contentLength >= 0) {
+            put(item.getId(), new Entry(modified, instances, contentLength + instances.sizeInBytes()));
+        }
+        return instances;
+    }
+
+    /**
+     * Drops the instances cached by the calling thread.
+     */
+    public void clear() {
+        final Segment segment = segments.get();
+        segment.entries.clear();
+        segment.weight = 0;
+    }
+
+    /**
+     * Number of items with instances cached by the calling thread.
+     */
+    public int size() {
+        return segments.get().entries.size();
+    }
+
+    /**
+     * Summed weight of the instances cached by the calling thread.
+     */
+    public long getWeight() {
+        return segments.get().weight;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private void put(final Long id, final Entry entry) {
+        final Segment segment = segments.get();
+        final Entry previous = segment.entries.remove(id);
+        if (previous != null) {
+            segment.weight -= previous.weight;
+        }
+        if (entry.weight > maxWeight) {
+            return;
+        }
+        segment.entries.put(id, entry);
+        segment.weight += entry.weight;
+
+        final Iterator<Entry> iterator = segment.entries.values().iterator();
+        while (segment.weight > maxWeight && iterator.hasNext()) {
+            segment.weight -= iterator.next().weight;
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the span of the cached window and the requested period if they overlap and the span
+     * isn't longer than {@link #MAX_WINDOW_DAYS}, the requested period otherwise.
+     */
+    private static Period span(final Period cached, final Period requested) {
+        if (!cached.intersects(requested)) {
+            return requested;
+        }
+        final DateTime start = cached.getStart().before(requested.getStart()) ? cached.getStart() : requested.getStart();
+        final DateTime end = cached.getEnd().after(requested.getEnd()) ? cached.getEnd() : requested.getEnd();
+        if (end.getTime() - start.getTime() > TimeUnit.DAYS.toMillis(MAX_WINDOW_DAYS)) {
+            return requested;
+        }
+        return new Period(start, end);
+    }
+
+    private static Long modified(final Date modifiedDate) {
+        return modifiedDate == null ? null : modifiedDate.getTime();
+    }
+
+    private static final class Segment {
+        private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long weight;
+    }
+
+    private static final class Entry {
+        private final Long modified;
+        private final ExpandedInstances instances;
+        private final long weight;
+
+        private Entry(final Long modified, final ExpandedInstances instances, final long weight) {
+            this.modified = modified;
+            this.instances = instances;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.unitedinternet.cosmo.calendar.data;
+
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.Period;
+import net.fortuna.ical4j.model.Property;
+import net.fortuna.ical4j.model.component.CalendarComponent;
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.component.VJournal;
+import net.fortuna.ical4j.model.component.VToDo;
+import org.springframework.util.Assert;
+import org.unitedinternet.cosmo.calendar.OccurrenceSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The occurrences of a recurring calendar overlapping an expansion window, kept in an
+ * {@link OccurrenceSet}. Occurrences only reference the master and override components of the
+ * expanded calendar, components are copied by {@link OutputFilter} when the expanded calendar is
+ * written out.
+ * <p>
+ * Occurrences of a sub-window of the expansion window are the occurrences of the expansion window
+ * overlapping the sub-window, so one expansion serves every request within its window.
+ * Expanded instances are immutable and may be shared by callers of the thread that parsed the
+ * calendar, as long as the expanded calendar is treated as read-only.
+ */
+public class ExpandedInstances {
+
+    private final Calendar calendar;
+    private final Component master;
+    private final Period window;
+    private final OccurrenceSet occurrences;
+    private final int size;
+
+    private ExpandedInstances(Calendar calendar, Component master, Period window, OccurrenceSet occurrences) {
+        this.calendar = calendar;
+        this.master = master;
+        this.window = window;
+        this.occurrences = occurrences;
+        this.size = indexesOf(window).length;
+    }
+
+    /**
+     * Expands the master and override components of the given calendar over the given window.
+     */
+    public static ExpandedInstances expand(Calendar calendar, Period window) {
+        Assert.notNull(calendar, "calendar is null");
+        Assert.notNull(window, "window is null");
+
+        OccurrenceSet occurrences = new OccurrenceSet();
+        List<Component> overrides = new ArrayList<>();
+        Component master = null;
+        for (Object comp : calendar.getComponents()) {
+            if ((comp instanceof VEvent) ||
+                (comp instanceof VJournal) ||
+                (comp instanceof VToDo)) {
+                if (((CalendarComponent) comp).getProperties().getProperty(Property.RECURRENCE_ID) == null) {
+                    master = (Component) comp;
+                    occurrences.addComponent(master, window.getStart(), window.getEnd());
+                } else {
+                    overrides.add((Component) comp);
+                }
+            }
+        }
+
+        for (Component comp : overrides) {
+            occurrences.addComponent(comp, window.getStart(), window.getEnd());
+        }
+        occurrences.trimToSize();
+
+        return new ExpandedInstances(calendar, master, window, occurrences);
+    }
+
+    public Calendar getCalendar() {
+        return calendar;
+    }
+
+    /**
+     * Returns the master component, <code>null</code> if the calendar only contains overrides.
+     */
+    public Component getMaster() {
+        return master;
+    }
+
+    public Period getWindow() {
+        return window;
+    }
+
+    /**
+     * Returns the occurrences of the expansion window, ordered by recurrence id. Some may not
+     * overlap the window, use {@link #indexesOf(Period)} to select the ones of a period.
+     */
+    public OccurrenceSet getOccurrences() {
+        return occurrences;
+    }
+
+    /**
+     * Returns true if the given period lies within the expansion window.
+     */
+    public boolean covers(Period period) {
+        return window.getStart().compareTo(period.getStart()) <= 0 && window.getEnd().compareTo(period.getEnd()) >= 0;
+    }
+
+    /**
+     * Returns the indexes into {@link #getOccurrences()} of the occurrences overlapping the given
+     * period, ordered by recurrence id.
+     */
+    public int[] indexesOf(Period period) {
+        Assert.isTrue(covers(period), "period is not within the expansion window");
+        // FIXME: Need to handle floating date/times.  Right now
+        // floating times will use the server timezone.
+        long start = period.getStart().getTime();
+        long end = period.getEnd().getTime();
+
+        int[] indexes = new int[occurrences.size()];
+        int count = 0;
+        for (int i = 0; i < occurrences.size(); i++) {
+            if (start < occurrences.getEnd(i) && end > occurrences.getStart(i)) {
+                indexes[count++] = i;
+            }
+        }
+        return count == indexes.length ? indexes : Arrays.copyOf(indexes, count);
+    }
+
+    /**
+     * Returns the number of occurrences overlapping the expansion window.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the approximate number of bytes held by the occurrences, not counting the calendar.
+     */
+    public long sizeInBytes() {
+        return occurrences.sizeInBytes();
+    }
+}
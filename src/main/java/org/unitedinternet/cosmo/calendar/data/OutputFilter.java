@@ -41,10 +41,10 @@ import net.fortuna.ical4j.model.property.ExRule;
 import net.fortuna.ical4j.model.property.RDate;
 import net.fortuna.ical4j.model.property.RRule;
 import net.fortuna.ical4j.model.property.RecurrenceId;
+import org.springframework.util.Assert;
 import org.unitedinternet.cosmo.CosmoException;
 import org.unitedinternet.cosmo.calendar.ICalendarUtils;
-import org.unitedinternet.cosmo.calendar.Instance;
-import org.unitedinternet.cosmo.calendar.InstanceList;
+import org.unitedinternet.cosmo.calendar.OccurrenceSet;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -52,7 +52,6 @@ import java.text.ParseException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.TreeSet;
 
 /**
  * This is a filter object that allows filtering a {@link Calendar} by
@@ -92,7 +91,7 @@ public class OutputFilter {
         // is create a whole new calendar object with the new expanded
         // components in it and then write that one out.
         if (getExpand() != null) {
-            calendar = createExpanded(calendar);
+            calendar = createExpanded(ExpandedInstances.expand(calendar, getExpand()));
         }
 
         // If limit of recurrence set is required, we have to remove those
@@ -103,6 +102,21 @@ public class OutputFilter {
             calendar = createLimitedRecurrence(calendar);
         }
 
+        write(calendar, buffer);
+    }
+
+    /**
+     * Filter with recurrence expansion, expanding from instances that were
+     * expanded beforehand over a window covering the expand period.
+     * @param expanded The expanded instances.
+     * @param buffer The string buffer.
+     */
+    public void filter(ExpandedInstances expanded, final StringBuffer buffer) {
+        Assert.state(getExpand() != null, "filter does not expand");
+        write(createExpanded(expanded), buffer);
+    }
+
+    private void write(Calendar calendar, final StringBuffer buffer) {
         buffer.append(Calendar.BEGIN).
             append(':').
             append(Calendar.VCALENDAR).
@@ -127,7 +141,7 @@ public class OutputFilter {
         Calendar newCal = new Calendar();
         newCal.getProperties().addAll(calendar.getProperties());
        
-        InstanceList instances = new InstanceList();
+        OccurrenceSet instances = new OccurrenceSet();
         ComponentList overrides = new ComponentList();
         
         // Limit range
@@ -143,7 +157,7 @@ public class OutputFilter {
                 if (((CalendarComponent)comp).getProperties().
                     getProperty(Property.RECURRENCE_ID) == null) {
                     newCal.getComponents().add(comp);
-                    // seed the InstanceList with master component
+                    // seed the OccurrenceSet with master component
                     instances.addComponent((CalendarComponent)comp, period.getStart(),
                                            period.getEnd());
                 }
@@ -156,8 +170,8 @@ public class OutputFilter {
             }
         }
         
-        // Add override components to InstanceList.
-        // Only add override if it changes anything about the InstanceList.
+        // Add override components to OccurrenceSet.
+        // Only add override if it changes anything about the OccurrenceSet.
         for (Object comp : overrides) {
             if (comp instanceof CalendarComponent && instances.addOverride((CalendarComponent)comp, period.getStart(), period.getEnd())) {
                 newCal.getComponents().add(comp);
@@ -169,33 +183,21 @@ public class OutputFilter {
     
     /**
      * Creates expanded.
-     * @param calendar The calendar.
+     * @param expanded The expanded instances covering the expand period.
      * @return The calendar.
      */
-    private Calendar createExpanded(Calendar calendar) {
+    private Calendar createExpanded(ExpandedInstances expanded) {
+        Calendar calendar = expanded.getCalendar();
+
         // Create a new calendar with the same top-level properties as this one
         Calendar newCal = new Calendar();
         newCal.getProperties().addAll(calendar.getProperties());
 
-        // Now look at each component and determine whether expansion is
-        // required
-        InstanceList instances = new InstanceList();
-        ComponentList overrides = new ComponentList();
-        Component master = null;
         for (Object comp :calendar.getComponents()) {
-            if ((comp instanceof VEvent) ||
-                (comp instanceof VJournal) ||
-                (comp instanceof VToDo)) {
-                // See if this is the master instance
-                if (((CalendarComponent)comp).getProperties().
-                    getProperty(Property.RECURRENCE_ID) == null) {
-                    master = (CalendarComponent)comp;
-                    instances.addComponent(master, getExpand().getStart(),
-                                           getExpand().getEnd());
-                } else {
-                    overrides.add(comp);
-                }
-            } else if (!(comp instanceof VTimeZone))  {
+            if (!(comp instanceof VEvent) &&
+                !(comp instanceof VJournal) &&
+                !(comp instanceof VToDo) &&
+                !(comp instanceof VTimeZone))  {
                 // Create new component and convert properties to UTC
                 try {
                     Object newcomp = ((CalendarComponent)(comp)).copy();
@@ -207,11 +209,8 @@ public class OutputFilter {
             }
         }
 
-        for (Object comp : overrides) {
-            instances.addComponent((CalendarComponent)comp, getExpand().getStart(), getExpand().getEnd());
-        }
-
         // Create a copy of the master with recurrence properties removed
+        Component master = expanded.getMaster();
         boolean isRecurring = false;
         Component masterCopy = null;
         try {
@@ -233,24 +232,15 @@ public class OutputFilter {
         }
 
         // Expand each instance within the requested range
-        TreeSet<String> sortedKeys = new TreeSet<String>(instances.keySet());
-        for (String ikey : sortedKeys) {
-            Instance instance = (Instance) instances.get(ikey);
-
-            // Make sure this instance is within the requested range
-            // FIXME: Need to handle floating date/times.  Right now
-            // floating times will use the server timezone.
-            if ((getExpand().getStart().compareTo(instance.getEnd()) >= 0) ||
-                (getExpand().getEnd().compareTo(instance.getStart()) <= 0)) {
-                continue;
-            }
-            
+        OccurrenceSet occurrences = expanded.getOccurrences();
+        for (int index : expanded.indexesOf(getExpand())) {
             // Create appropriate copy
+            Component comp = occurrences.getComponent(index);
             Component copy = null;
             try {
-                copy = instance.getComp() == master ?
+                copy = comp == master ?
                     masterCopy.copy() :
-                    instance.getComp().copy();
+                    comp.copy();
                 componentToUTC(copy);
             } catch (URISyntaxException | ParseException | IOException e) {
                 throw new CosmoException("Error copying component", e);
@@ -264,7 +254,7 @@ public class OutputFilter {
                 if (rid != null) {
                     copy.getProperties().remove(rid);
                 }
-                rid = new RecurrenceId(instance.getRid());
+                rid = new RecurrenceId(occurrences.getRecurrenceIdDate(index));
                 copy.getProperties().add(rid);
 
                 // Adjust DTSTART (in UTC)
@@ -273,7 +263,7 @@ public class OutputFilter {
                 if (olddtstart != null) {
                     copy.getProperties().remove(olddtstart);
                 }
-                DtStart newdtstart = new DtStart(instance.getStart());
+                DtStart newdtstart = new DtStart(occurrences.getStartDate(index));
                 Date newdtstartDate = newdtstart.getDate(); 
                 if ( newdtstartDate instanceof DateTime &&
                     (((DateTime)newdtstartDate).getTimeZone() != null)) {
@@ -286,7 +276,7 @@ public class OutputFilter {
                     copy.getProperties().getProperty(Property.DTEND);
                 if (olddtend != null) {
                     copy.getProperties().remove(olddtend);
-                    DtEnd newdtend = new DtEnd(instance.getEnd());
+                    DtEnd newdtend = new DtEnd(occurrences.getEndDate(index));
                     Date newdtwenddate = newdtend.getDate(); 
                     if (newdtwenddate instanceof DateTime &&
                         (((DateTime)newdtwenddate).getTimeZone() != null)) {
@@ -1,22 +1,52 @@
 package org.unitedinternet.cosmo.calendar.query;
 
+import carldav.jackrabbit.webdav.xml.DomUtils;
+import carldav.jackrabbit.webdav.xml.ElementIterator;
 import org.springframework.util.Assert;
 import org.unitedinternet.cosmo.dav.caldav.CaldavConstants;
 import org.w3c.dom.Element;
 
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Represents the CARDDAV:filter element. From RFC 6352 sec 10.5:
+ *
+ * <!ELEMENT filter (prop-filter*)>
+ *
+ * <!ATTLIST filter test (anyof | allof) "anyof">
+ *
+ * An empty filter matches every card.
+ */
 public class AddressbookFilter implements CaldavConstants {
 
-   // private final ComponentFilter filter = null;
+    private final boolean allOf;
+    private final List<CardPropertyFilter> propertyFilters = new ArrayList<>();
 
     public AddressbookFilter(Element element) throws ParseException {
         Assert.notNull(element, "element is null");
-        //TODO filter not in use
-        // //new ComponentFilter(element, timezone)
+        allOf = VALUE_ALLOF.equals(DomUtils.getAttribute(element, ATTR_CARDDAV_TEST));
+
+        ElementIterator i = DomUtils.getChildren(element);
+        while (i.hasNext()) {
+            Element child = i.nextElement();
+            if (ELEMENT_CALDAV_PROP_FILTER.equals(child.getLocalName())) {
+                propertyFilters.add(new CardPropertyFilter(child));
+            } else {
+                throw new ParseException("CARDDAV:filter an invalid element name found", -1);
+            }
+        }
+    }
+
+    /**
+     * Returns true if all property filters have to match, false if any of them suffices.
+     */
+    public boolean isAllOf() {
+        return allOf;
     }
 
-//    public ComponentFilter getFilter() {
-//        return filter;
-//    }
+    public List<CardPropertyFilter> getPropertyFilters() {
+        return propertyFilters;
+    }
 }
@@ -36,7 +36,7 @@ import net.fortuna.ical4j.model.property.DateProperty;
 import net.fortuna.ical4j.model.property.DtStart;
 import net.fortuna.ical4j.model.property.Trigger;
 import org.unitedinternet.cosmo.calendar.ICalendarUtils;
-import org.unitedinternet.cosmo.calendar.InstanceList;
+import org.unitedinternet.cosmo.calendar.OccurrenceSet;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -505,7 +505,7 @@ public class CalendarFilterEvaluater {
      */
     private boolean evaluateVEventTimeRange(ComponentList comps, TimeRangeFilter filter) {
         
-        InstanceList instances = new InstanceList();
+        OccurrenceSet instances = new OccurrenceSet();
         if(filter.getTimezone()!=null) {
             instances.setTimezone(new TimeZone(filter.getTimezone()));
         }
@@ -566,7 +566,7 @@ public class CalendarFilterEvaluater {
             return false;
         }
         
-        InstanceList instances = new InstanceList();
+        OccurrenceSet instances = new OccurrenceSet();
         if (filter.getTimezone() != null) {
             instances.setTimezone(new TimeZone(filter.getTimezone()));
         }
@@ -649,7 +649,7 @@ public class CalendarFilterEvaluater {
         // DTSTART,DURATION. 
         // TODO: Handle case of no DURATION and instead DUE
         // DUE is kind of like DTEND
-        InstanceList instances = new InstanceList();
+        OccurrenceSet instances = new OccurrenceSet();
         if(filter.getTimezone()!=null) {
             instances.setTimezone(new TimeZone(filter.getTimezone()));
         }
@@ -0,0 +1,97 @@
+package org.unitedinternet.cosmo.calendar.query;
+
+import carldav.jackrabbit.webdav.xml.DomUtils;
+import carldav.jackrabbit.webdav.xml.ElementIterator;
+import org.unitedinternet.cosmo.dav.caldav.CaldavConstants;
+import org.w3c.dom.Element;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Represents the CARDDAV:prop-filter element. From RFC 6352 sec 10.5.1:
+ *
+ * <!ELEMENT prop-filter (is-not-defined | (text-match*, param-filter*))>
+ *
+ * <!ATTLIST prop-filter name CDATA #REQUIRED
+ *                       test (anyof | allof) "anyof">
+ *
+ * Only the properties extracted into the card property index can be filtered on,
+ * param-filter is not supported.
+ */
+public class CardPropertyFilter implements CaldavConstants {
+
+    public static final Set<String> SUPPORTED_PROPERTIES =
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList("FN", "N", "EMAIL", "TEL", "UID")));
+
+    private final String name;
+    private final boolean allOf;
+    private final boolean isNotDefined;
+    private final List<CardTextMatchFilter> textMatchFilters;
+
+    public CardPropertyFilter(String name, boolean allOf, boolean isNotDefined, List<CardTextMatchFilter> textMatchFilters) {
+        this.name = name;
+        this.allOf = allOf;
+        this.isNotDefined = isNotDefined;
+        this.textMatchFilters = textMatchFilters;
+    }
+
+    public CardPropertyFilter(Element element) throws ParseException {
+        final String nameAttribute = DomUtils.getAttribute(element, ATTR_CALDAV_NAME);
+        if (nameAttribute == null) {
+            throw new ParseException("CARDDAV:prop-filter a vCard property name (e.g., \"EMAIL\") is required", -1);
+        }
+        name = nameAttribute.toUpperCase(Locale.ENGLISH);
+        if (!SUPPORTED_PROPERTIES.contains(name)) {
+            throw new UnsupportedFilterException("CARDDAV:prop-filter on " + name + " is not supported");
+        }
+
+        allOf = VALUE_ALLOF.equals(DomUtils.getAttribute(element, ATTR_CARDDAV_TEST));
+
+        boolean notDefined = false;
+        textMatchFilters = new ArrayList<>();
+        ElementIterator i = DomUtils.getChildren(element);
+        while (i.hasNext()) {
+            Element child = i.nextElement();
+            if (ELEMENT_CALDAV_TEXT_MATCH.equals(child.getLocalName())) {
+                textMatchFilters.add(new CardTextMatchFilter(child));
+            } else if (ELEMENT_CALDAV_IS_NOT_DEFINED.equals(child.getLocalName())) {
+                notDefined = true;
+            } else if (ELEMENT_CALDAV_PARAM_FILTER.equals(child.getLocalName())) {
+                throw new UnsupportedFilterException("CARDDAV:param-filter is not supported");
+            } else {
+                throw new ParseException("CARDDAV:prop-filter an invalid element name found", -1);
+            }
+        }
+
+        if (notDefined && !textMatchFilters.isEmpty()) {
+            throw new ParseException("CARDDAV:is-not-defined cannnot be present with other child elements", -1);
+        }
+        isNotDefined = notDefined;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns true if all text matches have to match, false if any of them suffices.
+     */
+    public boolean isAllOf() {
+        return allOf;
+    }
+
+    public boolean isNotDefined() {
+        return isNotDefined;
+    }
+
+    public List<CardTextMatchFilter> getTextMatchFilters() {
+        return textMatchFilters;
+    }
+}
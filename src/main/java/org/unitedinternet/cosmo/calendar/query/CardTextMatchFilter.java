@@ -0,0 +1,88 @@
+package org.unitedinternet.cosmo.calendar.query;
+
+import carldav.jackrabbit.webdav.xml.DomUtils;
+import org.unitedinternet.cosmo.dav.caldav.CaldavConstants;
+import org.w3c.dom.Element;
+
+import java.text.ParseException;
+import java.util.Locale;
+
+/**
+ * Represents the CARDDAV:text-match element. From RFC 6352 sec 10.5.4:
+ *
+ * <!ELEMENT text-match (#PCDATA)>
+ *
+ * <!ATTLIST text-match collation        CDATA "i;unicode-casemap"
+ *                      negate-condition (yes | no) "no"
+ *                      match-type (equals|contains|starts-with|ends-with) "contains">
+ */
+public class CardTextMatchFilter implements CaldavConstants {
+
+    public static final String COLLATION_ASCII_CASEMAP = "i;ascii-casemap";
+    public static final String COLLATION_UNICODE_CASEMAP = "i;unicode-casemap";
+    public static final String COLLATION_OCTET = "i;octet";
+
+    public enum MatchType {
+        EQUALS, CONTAINS, STARTS_WITH, ENDS_WITH
+    }
+
+    private final String value;
+    private final String collation;
+    private final boolean negateCondition;
+    private final MatchType matchType;
+
+    public CardTextMatchFilter(String value, String collation, boolean negateCondition, MatchType matchType) {
+        this.value = value;
+        this.collation = collation;
+        this.negateCondition = negateCondition;
+        this.matchType = matchType;
+    }
+
+    public CardTextMatchFilter(Element element) throws ParseException {
+        final String text = DomUtils.getText(element);
+        value = text != null ? text : "";
+
+        final String collationAttribute = DomUtils.getAttribute(element, ATTR_CALDAV_COLLATION);
+        collation = collationAttribute != null ? collationAttribute : COLLATION_UNICODE_CASEMAP;
+        if (!COLLATION_UNICODE_CASEMAP.equalsIgnoreCase(collation) && !COLLATION_ASCII_CASEMAP.equalsIgnoreCase(collation)
+                && !COLLATION_OCTET.equalsIgnoreCase(collation)) {
+            throw new UnsupportedCollationException();
+        }
+
+        negateCondition = VALUE_YES.equals(DomUtils.getAttribute(element, ATTR_CALDAV_NEGATE_CONDITION));
+
+        final String matchTypeAttribute = DomUtils.getAttribute(element, ATTR_CARDDAV_MATCH_TYPE);
+        if (matchTypeAttribute == null) {
+            matchType = MatchType.CONTAINS;
+        } else {
+            try {
+                matchType = MatchType.valueOf(matchTypeAttribute.toUpperCase(Locale.ENGLISH).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new ParseException("CARDDAV:text-match invalid match-type " + matchTypeAttribute, -1);
+            }
+        }
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getCollation() {
+        return collation;
+    }
+
+    public boolean isNegateCondition() {
+        return negateCondition;
+    }
+
+    public MatchType getMatchType() {
+        return matchType;
+    }
+
+    /**
+     * Returns true unless the collation is 'i;octet', the only case sensitive collation supported.
+     */
+    public boolean isCaseless() {
+        return !COLLATION_OCTET.equalsIgnoreCase(collation);
+    }
+}
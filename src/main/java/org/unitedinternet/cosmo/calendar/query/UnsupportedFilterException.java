@@ -0,0 +1,14 @@
+package org.unitedinternet.cosmo.calendar.query;
+
+/**
+ * RuntimeException that indicates that a filter element or property the server
+ * cannot evaluate was specified.
+ */
+public class UnsupportedFilterException extends RuntimeException {
+
+    static final long serialVersionUID = 4313528305376253815L;
+
+    public UnsupportedFilterException(String message) {
+        super(message);
+    }
+}
@@ -20,13 +20,19 @@ import carldav.repository.ItemRepository;
 import net.fortuna.ical4j.model.Calendar;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
 import org.springframework.util.Assert;
+import org.unitedinternet.cosmo.calendar.CalendarCache;
+import org.unitedinternet.cosmo.calendar.OccurrenceIndexer;
 import org.unitedinternet.cosmo.calendar.query.CalendarFilter;
 import org.unitedinternet.cosmo.calendar.query.CalendarFilterEvaluater;
 import org.unitedinternet.cosmo.calendar.query.CalendarQueryProcessor;
+import org.unitedinternet.cosmo.calendar.query.ComponentFilter;
+import org.unitedinternet.cosmo.calendar.query.TimeRangeFilter;
 import org.unitedinternet.cosmo.dao.query.hibernate.CalendarFilterConverter;
 import org.unitedinternet.cosmo.model.hibernate.EntityConverter;
 
+import java.util.Date;
 import java.util.List;
 
 import static carldav.repository.specification.ItemSpecs.combine;
@@ -35,18 +41,33 @@ public class StandardCalendarQueryProcessor implements CalendarQueryProcessor {
 
     private static final Logger LOG = LoggerFactory.getLogger(StandardCalendarQueryProcessor.class);
 
-    private static final CalendarFilterConverter filterConverter = new CalendarFilterConverter();
     private static final EntityConverter entityConverter = new EntityConverter();
 
     private final ItemRepository itemRepository;
+    private final CalendarCache calendarCache;
+    private final OccurrenceIndexer occurrenceIndexer;
+    private final CalendarFilterConverter filterConverter;
 
-    public StandardCalendarQueryProcessor(ItemRepository itemRepository) {
+    /**
+     * @param rangeOperator true to query time ranges with the PostgreSQL range operator
+     */
+    public StandardCalendarQueryProcessor(ItemRepository itemRepository, CalendarCache calendarCache, OccurrenceIndexer occurrenceIndexer,
+                                          boolean rangeOperator) {
         Assert.notNull(itemRepository, "itemRepository is null");
+        Assert.notNull(calendarCache, "calendarCache is null");
+        Assert.notNull(occurrenceIndexer, "occurrenceIndexer is null");
         this.itemRepository = itemRepository;
+        this.calendarCache = calendarCache;
+        this.occurrenceIndexer = occurrenceIndexer;
+        this.filterConverter = new CalendarFilterConverter(rangeOperator);
     }
 
     public List<Item> filterQuery(CalendarFilter filter) {
-        return itemRepository.findAll(combine(filterConverter.translateToItemFilter(filter)));
+        Date end = getTimeRangeEnd(filter);
+        if (end != null) {
+            occurrenceIndexer.ensureIndexed(filter.getParent(), end);
+        }
+        return itemRepository.findAll(combine(filterConverter.translateToItemFilter(filter)), new Sort("name"));
     }
 
     /**
@@ -57,10 +78,25 @@ public class StandardCalendarQueryProcessor implements CalendarQueryProcessor {
      */
     public boolean filterQuery(Item item, CalendarFilter filter) {
         LOG.debug("matching item {} to filter {}", item.getUid(), filter);
-        Calendar calendar = entityConverter.convertContent(item);
+        Calendar calendar = calendarCache.get(item, entityConverter::convertContent);
         if(calendar != null) {
             return new CalendarFilterEvaluater().evaluate(calendar, filter);
         }
         return false;
     }
+
+    private static Date getTimeRangeEnd(CalendarFilter filter) {
+        Date end = null;
+        for (Object component : filter.getFilter().getComponentFilters()) {
+            TimeRangeFilter timeRange = ((ComponentFilter) component).getTimeRangeFilter();
+            if (timeRange == null || timeRange.getPeriod() == null) {
+                continue;
+            }
+            Date periodEnd = timeRange.getPeriod().getEnd();
+            if (periodEnd != null && (end == null || periodEnd.after(end))) {
+                end = periodEnd;
+            }
+        }
+        return end;
+    }
 }
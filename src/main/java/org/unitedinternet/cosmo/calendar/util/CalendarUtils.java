@@ -19,13 +19,21 @@ import net.fortuna.ical4j.data.CalendarBuilder;
 import net.fortuna.ical4j.data.ParserException;
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.Component;
-import net.fortuna.ical4j.model.TimeZoneRegistry;
+import net.fortuna.ical4j.model.Parameter;
+import net.fortuna.ical4j.model.Property;
 import net.fortuna.ical4j.model.component.CalendarComponent;
 import net.fortuna.ical4j.model.component.VTimeZone;
+import net.fortuna.ical4j.model.property.ProdId;
+import net.fortuna.ical4j.model.property.Version;
 import org.unitedinternet.cosmo.icalendar.ICalendarConstants;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Utility methods for working with icalendar data.
@@ -47,9 +55,7 @@ public class CalendarUtils implements ICalendarConstants {
      * @throws IOException - if something is wrong this exception is thrown.
      */
     public static Calendar parseCalendar(InputStream is) throws ParserException, IOException {
-        CalendarBuilder builder = new CalendarBuilder();
-        clearTZRegistry(builder);
-        return builder.build(is);
+        return new CalendarBuilder().build(is);
     }
 
     public static boolean isSupportedComponent(String type) {
@@ -70,6 +76,58 @@ public class CalendarUtils implements ICalendarConstants {
         return false;
     }
 
+    /**
+     * Splits a calendar holding many calendar objects, e.g. the export of a whole calendar, into
+     * one calendar per UID holding the components with that UID and the VTIMEZONEs they reference.
+     * Components without UID end up in calendars of their own. The split calendars share the
+     * components and timezones of the given calendar and must be used by the same thread.
+     */
+    public static List<Calendar> splitByUid(Calendar calendar) {
+        final Map<String, VTimeZone> timezones = new HashMap<>();
+        for (Object component : calendar.getComponents(Component.VTIMEZONE)) {
+            final Property tzid = ((VTimeZone) component).getProperty(Property.TZID);
+            if (tzid != null) {
+                timezones.put(tzid.getValue(), (VTimeZone) component);
+            }
+        }
+
+        final Property prodId = calendar.getProperty(Property.PRODID);
+        final Map<String, Calendar> byUid = new LinkedHashMap<>();
+        final List<Calendar> calendars = new ArrayList<>();
+
+        for (Object object : calendar.getComponents()) {
+            final Component component = (Component) object;
+            if (component instanceof VTimeZone) {
+                continue;
+            }
+
+            final Property uidProperty = component.getProperty(Property.UID);
+            final String uid = uidProperty == null || "".equals(uidProperty.getValue()) ? null : uidProperty.getValue();
+            Calendar split = uid == null ? null : byUid.get(uid);
+            if (split == null) {
+                split = new Calendar();
+                split.getProperties().add(prodId != null ? prodId : new ProdId("-//carldav//import//EN"));
+                split.getProperties().add(Version.VERSION_2_0);
+                calendars.add(split);
+                if (uid != null) {
+                    byUid.put(uid, split);
+                }
+            }
+
+            for (Object property : component.getProperties()) {
+                final Parameter tzid = ((Property) property).getParameter(Parameter.TZID);
+                final VTimeZone timezone = tzid == null ? null : timezones.get(tzid.getValue());
+                if (timezone != null && !split.getComponents().contains(timezone)) {
+                    // timezones first, so they are defined before they are referenced
+                    split.getComponents().add(0, timezone);
+                }
+            }
+            split.getComponents().add(component);
+        }
+
+        return calendars;
+    }
+
     public static boolean hasMultipleComponentTypes(Calendar calendar) {
         String found = null;
         for (Object component: calendar.getComponents()) {
@@ -86,12 +144,4 @@ public class CalendarUtils implements ICalendarConstants {
         }
         return false;
     }
-
-    private static void clearTZRegistry(CalendarBuilder cb) {
-        // clear timezone registry if present
-        TimeZoneRegistry tzr = cb.getRegistry();
-        if(tzr!=null) {
-            tzr.clear();
-        }
-    }
 }
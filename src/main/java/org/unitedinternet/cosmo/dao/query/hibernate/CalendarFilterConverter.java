@@ -37,6 +37,16 @@ public class CalendarFilterConverter {
     private static final String PROP_UID = "UID";
     private static final String PROP_SUMMARY = "SUMMARY";
 
+    private final boolean rangeOperator;
+
+    /**
+     * @param rangeOperator true to translate time ranges for the PostgreSQL range operator
+     * @see ItemSpecs#stamp(Item.Type, Boolean, java.util.Date, java.util.Date, boolean)
+     */
+    public CalendarFilterConverter(boolean rangeOperator) {
+        this.rangeOperator = rangeOperator;
+    }
+
     /**
      * Tranlsate CalendarFilter to an equivalent ItemFilter.
      * For now, only the basic CalendarFilter is supported, which is
@@ -83,7 +93,7 @@ public class CalendarFilterConverter {
             }
         }
 
-        specifications.add(ItemSpecs.stamp(eventFilter.getType(), eventFilter.getIsRecurring(), eventFilter.getStart(), eventFilter.getEnd()));
+        specifications.add(ItemSpecs.stamp(eventFilter.getType(), eventFilter.getIsRecurring(), eventFilter.getStart(), eventFilter.getEnd(), rangeOperator));
 
         for (Iterator it = compFilter.getComponentFilters().iterator(); it.hasNext(); ) {
             ComponentFilter subComp = (ComponentFilter) it.next();
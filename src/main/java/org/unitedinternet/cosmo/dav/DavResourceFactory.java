@@ -15,8 +15,10 @@
  */
 package org.unitedinternet.cosmo.dav;
 
+import org.unitedinternet.cosmo.calendar.data.ExpandedInstanceCache;
 import org.unitedinternet.cosmo.calendar.query.CalendarQueryProcessor;
 import carldav.repository.CollectionRepository;
+import carldav.repository.ItemChangeRepository;
 import carldav.repository.ItemRepository;
 import carldav.entity.CollectionItem;
 import carldav.entity.Item;
@@ -24,6 +26,7 @@ import org.unitedinternet.cosmo.security.CosmoSecurityManager;
 import org.unitedinternet.cosmo.service.ContentService;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.Executor;
 
 /**
  * Interface for components that create dav resources to represent
@@ -76,10 +79,21 @@ public interface DavResourceFactory {
 
     CalendarQueryProcessor getCalendarQueryProcessor();
 
+    ExpandedInstanceCache getExpandedInstanceCache();
+
+    ResolutionCache getResolutionCache();
+
     CosmoSecurityManager getSecurityManager();
 
     ItemRepository getItemRepository();
 
     CollectionRepository getCollectionRepository();
 
+    ItemChangeRepository getItemChangeRepository();
+
+    /**
+     * Bounded executor for the CPU bound parts of imports.
+     */
+    Executor getImportExecutor();
+
 }
@@ -1,29 +1,24 @@
 package org.unitedinternet.cosmo.dav;
 
-import org.apache.commons.codec.digest.DigestUtils;
-
-import java.nio.charset.Charset;
-import java.util.Date;
-
 /**
  * @author Kamill Sokol
  */
 public final class ETagUtil {
 
-    public static String createETag(Long id, Date modifiedDate) {
-        if(id == null && modifiedDate == null) {
+    /**
+     * Creates the entity tag of an item or collection from its id and optimistic locking version,
+     * which changes with every modification.
+     */
+    public static String createETag(Long id, Long version) {
+        if(id == null && version == null) {
             return null;
         }
 
-        String uid = String.valueOf(id);
-        String modTime = modifiedDate != null ? String.valueOf(modifiedDate.getTime()) : "";
-        final String etag = uid + ":" + modTime;
-
-        return DigestUtils.md5Hex(etag.getBytes(Charset.forName("UTF-8")));
+        return id + "-" + (version != null ? version : "");
     }
 
-    public static String createETagEscaped(Long id, Date modifiedDate) {
-        final String eTag = createETag(id, modifiedDate);
+    public static String createETagEscaped(Long id, Long version) {
+        final String eTag = createETag(id, version);
 
         if(eTag == null) {
             return null;
@@ -0,0 +1,81 @@
+package org.unitedinternet.cosmo.dav;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Identity map of the collections and items resolved while serving the current request, so
+ * resolving a resource and then its parent, or many members of the same collection, loads each
+ * collection and item at most once per request. Only found entities are remembered. Outside of
+ * a request nothing is cached. Lookup and hit counts are kept over all requests.
+ */
+public class ResolutionCache {
+
+    private static final String ATTRIBUTE = ResolutionCache.class.getName();
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        lookups.incrementAndGet();
+
+        final Map<String, Object> resolved = resolved();
+        if (resolved == null) {
+            return loader.get();
+        }
+
+        final T cached = (T) resolved.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        final T value = loader.get();
+        if (value != null) {
+            resolved.put(key, value);
+        }
+        return value;
+    }
+
+    public void evict(String key) {
+        final Map<String, Object> resolved = resolved();
+        if (resolved != null) {
+            resolved.remove(key);
+        }
+    }
+
+    /**
+     * @return number of lookups, including those outside of a request
+     */
+    public long getLookupCount() {
+        return lookups.get();
+    }
+
+    /**
+     * @return number of lookups answered without loading the entity again
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> resolved() {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+
+        Map<String, Object> resolved = (Map<String, Object>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved == null) {
+            resolved = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, resolved, RequestAttributes.SCOPE_REQUEST);
+        }
+        return resolved;
+    }
+}
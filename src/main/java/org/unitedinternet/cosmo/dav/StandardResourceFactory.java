@@ -18,9 +18,12 @@ package org.unitedinternet.cosmo.dav;
 import carldav.card.CardQueryProcessor;
 import carldav.entity.CollectionItem;
 import carldav.entity.Item;
+import carldav.repository.CollectionLookupCache;
 import carldav.repository.CollectionRepository;
+import carldav.repository.ItemChangeRepository;
 import carldav.repository.ItemRepository;
 import org.springframework.util.Assert;
+import org.unitedinternet.cosmo.calendar.data.ExpandedInstanceCache;
 import org.unitedinternet.cosmo.calendar.query.CalendarQueryProcessor;
 import org.unitedinternet.cosmo.dav.impl.*;
 import org.unitedinternet.cosmo.security.CosmoSecurityManager;
@@ -29,6 +32,7 @@ import org.unitedinternet.cosmo.service.UserService;
 import org.unitedinternet.cosmo.util.UriTemplate;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.Executor;
 
 import static org.unitedinternet.cosmo.dav.caldav.CaldavConstants.*;
 
@@ -41,6 +45,11 @@ public class StandardResourceFactory implements DavResourceFactory, ExtendedDavC
     private CalendarQueryProcessor calendarQueryProcessor;
     private CardQueryProcessor cardQueryProcessor;
     private UserService userService;
+    private ItemChangeRepository itemChangeRepository;
+    private ExpandedInstanceCache expandedInstanceCache;
+    private ResolutionCache resolutionCache;
+    private CollectionLookupCache collectionLookupCache;
+    private Executor importExecutor;
 
     public StandardResourceFactory(ContentService contentService,
                                    ItemRepository itemRepository,
@@ -48,7 +57,12 @@ public class StandardResourceFactory implements DavResourceFactory, ExtendedDavC
                                    CosmoSecurityManager securityManager,
                                    CalendarQueryProcessor calendarQueryProcessor,
                                    CardQueryProcessor cardQueryProcessor,
-                                   UserService userService) {
+                                   UserService userService,
+                                   ItemChangeRepository itemChangeRepository,
+                                   ExpandedInstanceCache expandedInstanceCache,
+                                   ResolutionCache resolutionCache,
+                                   CollectionLookupCache collectionLookupCache,
+                                   Executor importExecutor) {
         this.contentService = contentService;
         this.itemRepository = itemRepository;
         this.collectionRepository = collectionRepository;
@@ -56,6 +70,11 @@ public class StandardResourceFactory implements DavResourceFactory, ExtendedDavC
         this.calendarQueryProcessor = calendarQueryProcessor;
         this.cardQueryProcessor = cardQueryProcessor;
         this.userService = userService;
+        this.itemChangeRepository = itemChangeRepository;
+        this.expandedInstanceCache = expandedInstanceCache;
+        this.resolutionCache = resolutionCache;
+        this.collectionLookupCache = collectionLookupCache;
+        this.importExecutor = importExecutor;
     }
 
     /**
@@ -174,12 +193,17 @@ public class StandardResourceFactory implements DavResourceFactory, ExtendedDavC
         return new DavUserPrincipal(securityManager.getUsername(), locator, this);
     }
 
+    /**
+     * Collections and items are looked up through the {@link ResolutionCache} by locator path,
+     * collections missing there through the {@link CollectionLookupCache}.
+     */
     private WebDavResource createUnknownResource(DavResourceLocator locator) {
         final String itemUid = locator.itemUid();
         final String collectionName = locator.collection();
+        final String path = locator.getPath();
 
         if(collectionName != null && itemUid != null) {
-            final Item userItem = itemRepository.findByCurrentOwnerEmailAndCollectionNameAndName(collectionName, locator.itemUid());
+            final Item userItem = resolutionCache.get(path, () -> itemRepository.findByCurrentOwnerEmailAndCollectionNameAndName(collectionName, itemUid));
             if(userItem == null) {
                 return null;
             }
@@ -187,14 +211,16 @@ public class StandardResourceFactory implements DavResourceFactory, ExtendedDavC
         }
 
         if(collectionName != null) {
-            final CollectionItem userCollection = collectionRepository.findByCurrentOwnerEmailAndName(collectionName);
+            final CollectionItem userCollection = resolutionCache.get(path, () -> collectionLookupCache.get(securityManager.getUsername(), collectionName,
+                    () -> collectionRepository.findByCurrentOwnerEmailAndName(collectionName)));
             if(userCollection == null) {
                 return null;
             }
             return createCollectionResource(locator, userCollection);
         }
 
-        final CollectionItem homeCollection = collectionRepository.findHomeCollectionByCurrentUser();
+        final CollectionItem homeCollection = resolutionCache.get(path, () -> collectionLookupCache.get(securityManager.getUsername(), null,
+                collectionRepository::findHomeCollectionByCurrentUser));
         return createCollectionResource(locator, homeCollection);
     }
 
@@ -206,6 +232,14 @@ public class StandardResourceFactory implements DavResourceFactory, ExtendedDavC
         return calendarQueryProcessor;
     }
 
+    public ExpandedInstanceCache getExpandedInstanceCache() {
+        return expandedInstanceCache;
+    }
+
+    public ResolutionCache getResolutionCache() {
+        return resolutionCache;
+    }
+
     public CardQueryProcessor getCardQueryProcessor() {
         return cardQueryProcessor;
     }
@@ -222,4 +256,13 @@ public class StandardResourceFactory implements DavResourceFactory, ExtendedDavC
     public CollectionRepository getCollectionRepository() {
         return collectionRepository;
     }
+
+    @Override
+    public ItemChangeRepository getItemChangeRepository() {
+        return itemChangeRepository;
+    }
+
+    public Executor getImportExecutor() {
+        return importExecutor;
+    }
 }
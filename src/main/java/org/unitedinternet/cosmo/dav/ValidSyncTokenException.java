@@ -0,0 +1,22 @@
+package org.unitedinternet.cosmo.dav;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * An exception indicating that the <code>DAV:sync-token</code> of a
+ * <code>DAV:sync-collection</code> report is unknown or no longer valid
+ * (RFC 6578 section 3.2).
+ */
+public class ValidSyncTokenException extends ForbiddenException {
+
+    public ValidSyncTokenException(String message) {
+        super(message);
+    }
+
+    protected void writeContent(XMLStreamWriter writer)
+        throws XMLStreamException {
+        writer.writeStartElement("DAV:", "valid-sync-token");
+        writer.writeEndElement();
+    }
+}
@@ -164,5 +164,11 @@ public interface WebDavResource {
 
     List<WebDavResource> getMembers();
 
+    /**
+     * @return the members of this resource for responses without calendar or address data. Member
+     * content is only loaded when it is accessed.
+     */
+    List<WebDavResource> getMemberSummaries();
+
     String getName();
 }
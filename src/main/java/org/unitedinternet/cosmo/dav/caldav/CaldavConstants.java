@@ -94,6 +94,15 @@ public interface CaldavConstants {
     String ATTR_CALDAV_START = "start";
     /** The CalDAV XML attribute name CALDAV:end */
     String ATTR_CALDAV_END = "end";
+    /** The CardDAV XML attribute name CARDDAV:test */
+    String ATTR_CARDDAV_TEST = "test";
+    /** The CardDAV XML attribute name CARDDAV:match-type */
+    String ATTR_CARDDAV_MATCH_TYPE = "match-type";
+
+    /** The CardDAV XML attribute value CARDDAV:allof */
+    String VALUE_ALLOF = "allof";
+    /** The CardDAV XML attribute value CARDDAV:anyof */
+    String VALUE_ANYOF = "anyof";
 
     String CONTACTS = "contacts";
     String CALENDAR = "calendar";
@@ -0,0 +1,24 @@
+package org.unitedinternet.cosmo.dav.caldav;
+
+import org.unitedinternet.cosmo.dav.PreconditionFailedException;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * An exception indicating that an addressbook-query filter uses a property or
+ * filter element that is not supported.
+ */
+public class SupportedFilterException extends PreconditionFailedException implements CaldavConstants {
+
+    public SupportedFilterException(String message) {
+        super(message);
+        getNamespaceContext().addNamespace(PRE_CARD, NS_CARDDAV);
+    }
+
+    protected void writeContent(XMLStreamWriter writer) throws XMLStreamException {
+        writer.writeStartElement(NS_CARDDAV, "supported-filter");
+        writer.writeCharacters(getMessage());
+        writer.writeEndElement();
+    }
+}
@@ -19,12 +19,16 @@ import static carldav.CarldavConstants.CALENDAR_DATA;
 
 import carldav.CarldavConstants;
 import carldav.jackrabbit.webdav.xml.DomUtils;
+import carldav.jackrabbit.webdav.xml.StaxUtils;
 import org.unitedinternet.cosmo.dav.caldav.CaldavConstants;
 import org.unitedinternet.cosmo.dav.property.StandardDavProperty;
 import org.unitedinternet.cosmo.icalendar.ICalendarConstants;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
 public class CalendarData extends StandardDavProperty implements CaldavConstants, ICalendarConstants {
 
     public CalendarData(String calendarData) {
@@ -39,4 +43,15 @@ public class CalendarData extends StandardDavProperty implements CaldavConstants
 
         return e;
     }
+
+    @Override
+    public void writeTo(XMLStreamWriter writer) throws XMLStreamException {
+        StaxUtils.writeStartElement(writer, getName().getQName());
+        writer.writeAttribute(CarldavConstants.PRE_C, CarldavConstants.NS_C, ATTR_CALDAV_CONTENT_TYPE, ICALENDAR_MEDIA_TYPE);
+        writer.writeAttribute(CarldavConstants.PRE_C, CarldavConstants.NS_C, ATTR_CALDAV_VERSION, ICALENDAR_VERSION);
+        if (getValue() != null) {
+            StaxUtils.writeCharacters(writer, getValue().toString());
+        }
+        writer.writeEndElement();
+    }
 }
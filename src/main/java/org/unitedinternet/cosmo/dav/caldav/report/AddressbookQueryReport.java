@@ -12,11 +12,13 @@ import carldav.jackrabbit.webdav.version.report.ReportType;
 import org.unitedinternet.cosmo.calendar.data.OutputFilter;
 import org.unitedinternet.cosmo.calendar.query.AddressbookFilter;
 import org.unitedinternet.cosmo.calendar.query.UnsupportedCollationException;
+import org.unitedinternet.cosmo.calendar.query.UnsupportedFilterException;
 import org.unitedinternet.cosmo.dav.CosmoDavException;
 import org.unitedinternet.cosmo.dav.DavCollection;
 import org.unitedinternet.cosmo.dav.WebDavResource;
 import org.unitedinternet.cosmo.dav.caldav.CaldavConstants;
 import org.unitedinternet.cosmo.dav.caldav.SupportedCollationException;
+import org.unitedinternet.cosmo.dav.caldav.SupportedFilterException;
 import org.unitedinternet.cosmo.dav.impl.DavCardCollection;
 import org.unitedinternet.cosmo.dav.report.MultiStatusReport;
 import org.w3c.dom.Element;
@@ -63,7 +65,7 @@ public class AddressbookQueryReport extends MultiStatusReport {
     protected void doQueryChildren(final DavCollection collection) throws CosmoDavException {
         if (collection instanceof DavCardCollection) {
             DavCardCollection dcc = (DavCardCollection) collection;
-            getResults().addAll(dcc.findMembers(queryFilter));
+            dcc.streamMembers(queryFilter).forEach(this::addResult);
             return;
         }
     }
@@ -85,6 +87,8 @@ public class AddressbookQueryReport extends MultiStatusReport {
             throw new InvalidFilterException(e);
         } catch (UnsupportedCollationException e) {
             throw new SupportedCollationException();
+        } catch (UnsupportedFilterException e) {
+            throw new SupportedFilterException(e.getMessage());
         }
     }
 
@@ -25,6 +25,7 @@ import carldav.jackrabbit.webdav.MultiStatusResponse;
 import carldav.jackrabbit.webdav.version.report.ReportInfo;
 import net.fortuna.ical4j.data.CalendarBuilder;
 import net.fortuna.ical4j.model.Calendar;
+import org.unitedinternet.cosmo.calendar.data.ExpandedInstances;
 import org.unitedinternet.cosmo.calendar.data.OutputFilter;
 import org.unitedinternet.cosmo.dav.CosmoDavException;
 import org.unitedinternet.cosmo.dav.WebDavResource;
@@ -105,7 +106,12 @@ public abstract class CaldavMultiStatusReport extends MultiStatusReport implemen
         }
         final String calendarString = resource.getCalendar();
         StringBuffer buffer = new StringBuffer();
-        if (outputFilter != null) {
+        if (outputFilter != null && outputFilter.getExpand() != null) {
+            final ExpandedInstances expanded = resource.getResourceFactory().getExpandedInstanceCache()
+                    .get(resource.getItem(), outputFilter.getExpand());
+            outputFilter.filter(expanded, buffer);
+        }
+        else if (outputFilter != null) {
             try {
                 final Calendar calendar = new CalendarBuilder().build(new StringReader(calendarString));
                 outputFilter.filter(calendar, buffer);
@@ -16,7 +16,6 @@
 package org.unitedinternet.cosmo.dav.caldav.report;
 
 import carldav.jackrabbit.webdav.DavConstants;
-import carldav.jackrabbit.webdav.MultiStatus;
 import carldav.jackrabbit.webdav.MultiStatusResponse;
 import carldav.jackrabbit.webdav.property.DavPropertyNameSet;
 import carldav.jackrabbit.webdav.version.report.ReportInfo;
@@ -39,9 +38,10 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -114,7 +114,7 @@ public class MultigetReport extends CaldavMultiStatusReport {
         if (resourceUUIDMatcher.find()) {
             resourceUUID = resourceUUIDMatcher.group(0);
         }        
-        hrefs = new HashSet<>();
+        hrefs = new TreeSet<>();
         for (Element element : hrefElements) { 
             String href = DomUtils.getTextTrim(element);
             href = updateHrefElementWithRequestUrlUUID(element, href, resourceUUID);
@@ -163,27 +163,26 @@ public class MultigetReport extends CaldavMultiStatusReport {
      */
     protected void runQuery()
         throws CosmoDavException {
-        DavPropertyNameSet propspec = createResultPropSpec();
+        DavPropertyNameSet propspec = getResultPropSpec();
 
         if (getResource() instanceof DavCollection) {
             DavCollection collection = (DavCollection) getResource();
+            Map<String, WebDavResource> targets = collection.findMembers(hrefs);
             for (String href : hrefs) {
-                WebDavResource target = collection.findMember(href);
+                WebDavResource target = targets.get(href);
 
-                final MultiStatus multiStatus = getMultiStatus();
                 if (target != null) {
-                    multiStatus.addResponse(buildMultiStatusResponse(target, propspec));
+                    addResponse(buildMultiStatusResponse(target, propspec));
                 }
                 else {
-                    multiStatus.addResponse(new MultiStatusResponse(href, 404));
+                    addResponse(new MultiStatusResponse(href, 404));
                 }
             }
             return;
         }
 
         if (getResource() instanceof DavCalendarResource) {
-            final MultiStatus multiStatus = getMultiStatus();
-            multiStatus.addResponse(buildMultiStatusResponse(getResource(), propspec));
+            addResponse(buildMultiStatusResponse(getResource(), propspec));
             return;
         }
 
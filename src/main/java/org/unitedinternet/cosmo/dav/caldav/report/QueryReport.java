@@ -104,7 +104,7 @@ public class QueryReport extends CaldavMultiStatusReport {
         if (resource instanceof DavCalendarResource) {
             DavCalendarResource dcr = (DavCalendarResource) resource;
             if (dcr.matches(queryFilter)) {
-                getResults().add(dcr);
+                addResult(dcr);
             }
             return;
         }
@@ -119,7 +119,7 @@ public class QueryReport extends CaldavMultiStatusReport {
     * </p>
     * <p>
     * If the collection is a calendar collection, attempts to match the query
-    * filter using {@link DavCalendarCollection#findMembers(CalendarFilter)}.
+    * filter using {@link DavCalendarCollection#streamMembers(CalendarFilter)}.
     * Otherwise does nothing, as only calendar resources can match the query,
     * and regular collections cannot contain calendar resources.
     * </p>
@@ -127,7 +127,7 @@ public class QueryReport extends CaldavMultiStatusReport {
     protected void doQueryChildren(DavCollection collection) throws CosmoDavException {
         if (collection instanceof DavCalendarCollection) {
             DavCalendarCollection dcc = (DavCalendarCollection) collection;
-            getResults().addAll(dcc.findMembers(queryFilter));
+            dcc.streamMembers(queryFilter).forEach(this::addResult);
             return;
         }
         // if it's a regular collection, there won't be any calendar resources
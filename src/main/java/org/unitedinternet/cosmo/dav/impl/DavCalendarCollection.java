@@ -2,27 +2,55 @@ package org.unitedinternet.cosmo.dav.impl;
 
 import carldav.entity.CollectionItem;
 import carldav.entity.Item;
+import carldav.jackrabbit.webdav.MultiStatus;
+import carldav.jackrabbit.webdav.MultiStatusResponse;
+import carldav.jackrabbit.webdav.io.DavInputContext;
 import carldav.jackrabbit.webdav.property.DavPropertySet;
+import net.fortuna.ical4j.data.CalendarBuilder;
+import net.fortuna.ical4j.data.ParserException;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.Property;
+import net.fortuna.ical4j.model.ValidationException;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.unitedinternet.cosmo.calendar.query.CalendarFilter;
+import org.unitedinternet.cosmo.calendar.util.CalendarUtils;
 import org.unitedinternet.cosmo.dav.*;
 import org.unitedinternet.cosmo.dav.caldav.CaldavConstants;
+import org.unitedinternet.cosmo.dav.caldav.InvalidCalendarDataException;
+import org.unitedinternet.cosmo.dav.caldav.InvalidCalendarResourceException;
+import org.unitedinternet.cosmo.dav.caldav.SupportedCalendarComponentException;
+import org.unitedinternet.cosmo.dav.caldav.UidConflictException;
 import org.unitedinternet.cosmo.dav.caldav.property.*;
 import org.unitedinternet.cosmo.dav.caldav.report.MultigetReport;
 import org.unitedinternet.cosmo.dav.caldav.report.QueryReport;
 import org.unitedinternet.cosmo.dav.property.DisplayName;
+import org.unitedinternet.cosmo.dav.property.SyncToken;
+import org.unitedinternet.cosmo.dav.report.SyncCollectionReport;
 import org.unitedinternet.cosmo.icalendar.ICalendarConstants;
+import org.unitedinternet.cosmo.util.ParallelUtil;
 
 import javax.xml.namespace.QName;
-import java.util.HashSet;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static carldav.CarldavConstants.*;
 
 public class DavCalendarCollection extends DavCollectionBase implements CaldavConstants, ICalendarConstants {
 
     private static final Logger LOG = LoggerFactory.getLogger(DavCalendarCollection.class);
+    private static final Pattern SAFE_MEMBER_NAME = Pattern.compile("[A-Za-z0-9@._-]{1,200}");
 
     public DavCalendarCollection(CollectionItem collection, DavResourceLocator locator, DavResourceFactory factory) throws CosmoDavException {
         super(collection, locator, factory);
@@ -30,27 +58,146 @@ public class DavCalendarCollection extends DavCollectionBase implements CaldavCo
         registerLiveProperty(SUPPORTED_CALENDAR_COMPONENT_SET);
         registerLiveProperty(SUPPORTED_CALENDAR_DATA);
         registerLiveProperty(GET_CTAG);
+        registerLiveProperty(SYNC_TOKEN);
 
         reportTypes.add(MultigetReport.REPORT_TYPE_CALDAV_MULTIGET);
         reportTypes.add(QueryReport.REPORT_TYPE_CALDAV_QUERY);
+        reportTypes.add(SyncCollectionReport.REPORT_TYPE_SYNC_COLLECTION);
     }
 
     public String getSupportedMethods() {
-        return "OPTIONS, GET, HEAD, TRACE, PROPFIND, PUT, DELETE, REPORT";
+        return "OPTIONS, GET, HEAD, TRACE, PROPFIND, PUT, POST, DELETE, REPORT";
     }
 
     public Set<DavCalendarResource> findMembers(CalendarFilter filter) throws CosmoDavException {
-        Set<DavCalendarResource> members = new HashSet<>();
+        return streamMembers(filter).collect(Collectors.toSet());
+    }
 
+    /**
+     * Like {@link #findMembers(CalendarFilter)} but creates the member resources
+     * lazily while the returned stream is consumed. The matching items are loaded
+     * up front.
+     */
+    public Stream<DavCalendarResource> streamMembers(CalendarFilter filter) throws CosmoDavException {
         CollectionItem collection = getItem();
         filter.setParent(collection.getId());
 
-        for (Item memberItem : getCalendarQueryProcesor().filterQuery(filter)) {
-            WebDavResource resource = memberToResource(memberItem);
-            members.add((DavCalendarResource) resource);
+        return getCalendarQueryProcesor().filterQuery(filter).stream()
+                .map(memberItem -> (DavCalendarResource) memberToResource(memberItem));
+    }
+
+    /**
+     * Imports every calendar object of the given input, e.g. the export of a whole calendar, as a
+     * new member named after its UID. The objects are validated, converted and indexed in parallel
+     * and stored at once. Objects that are invalid or whose member or UID exists already are skipped.
+     *
+     * @return status of each imported or skipped member
+     */
+    public MultiStatus importContent(DavInputContext context) throws CosmoDavException {
+        final Calendar calendar = context.getImportCalendar();
+        if (calendar == null) {
+            throw new BadRequestException("Import requires entity body");
+        }
+
+        final List<Item> summaries = getResourceFactory().getItemRepository().findSummariesByCollectionId(getItem().getId());
+        final Set<String> existing = summaries.stream().map(Item::getName).collect(Collectors.toSet());
+        final Set<String> existingUids = summaries.stream().map(Item::getUid).collect(Collectors.toSet());
+        final Date now = new Date();
+        // the split calendars share the timezones of the request calendar, so they are written out
+        // by this thread and parsed again by the import threads
+        final List<String> objects = CalendarUtils.splitByUid(calendar).stream().map(Calendar::toString).collect(Collectors.toList());
+        final List<ImportedMember> imported = ParallelUtil.map(objects,
+                object -> importMember(object, now), getResourceFactory().getImportExecutor());
+
+        final MultiStatus multiStatus = new MultiStatus();
+        final List<Item> items = new ArrayList<>(imported.size());
+        for (ImportedMember member : imported) {
+            if (member.status == 201 && !existing.add(member.name)) {
+                member.status = new ConflictException("Member " + member.name + " exists").getErrorCode();
+            } else if (member.status == 201 && !existingUids.add(member.item.getUid())) {
+                member.status = new UidConflictException("Uid " + member.item.getUid() + " in use").getErrorCode();
+            }
+            if (member.status == 201) {
+                items.add(member.item);
+            }
+            multiStatus.addResponse(new MultiStatusResponse(getMemberHref(member.name), member.status));
+        }
+
+        LOG.debug("importing {} of {} calendar objects into {}", items.size(), imported.size(), getResourcePath());
+        if (!items.isEmpty()) {
+            getContentService().importContent(getItem(), items);
+        }
+        return multiStatus;
+    }
+
+    /**
+     * Parses, validates and converts a calendar object to import, runs concurrently and must not access the database.
+     */
+    private static ImportedMember importMember(String content, Date now) {
+        final Calendar calendar;
+        try {
+            calendar = new CalendarBuilder().build(new StringReader(content));
+        } catch (IOException | ParserException exception) {
+            final ImportedMember member = new ImportedMember(UUID.randomUUID() + ".ics");
+            member.status = new InvalidCalendarDataException("Invalid calendar object: " + exception.getMessage()).getErrorCode();
+            return member;
+        }
+
+        final ImportedMember member = new ImportedMember(memberName(calendar));
+        try {
+            calendar.validate(true);
+            if (CalendarUtils.hasMultipleComponentTypes(calendar)) {
+                throw new InvalidCalendarResourceException("Calendar object contains more than one type of component");
+            }
+
+            final Item item = new Item(memberType(calendar));
+            item.setName(member.name);
+            item.setClientCreationDate(now);
+            item.setClientModifiedDate(now);
+            item.setCalendar(content);
+            converter.convert(item, calendar);
+
+            member.item = item;
+            member.status = 201;
+        } catch (CosmoDavException exception) {
+            member.status = exception.getErrorCode();
+        } catch (ValidationException exception) {
+            member.status = new InvalidCalendarDataException("Invalid calendar object: " + exception.getMessage()).getErrorCode();
+        } catch (RuntimeException exception) {
+            LOG.debug("could not import {}: {}", member.name, exception.getMessage());
+            member.status = new InvalidCalendarDataException(exception.getMessage()).getErrorCode();
+        }
+        return member;
+    }
+
+    private static String memberName(Calendar calendar) {
+        final Property uid = ((Component) calendar.getComponents().get(calendar.getComponents().size() - 1)).getProperty(Property.UID);
+        if (uid == null || "".equals(uid.getValue())) {
+            return UUID.randomUUID() + ".ics";
+        }
+        if (SAFE_MEMBER_NAME.matcher(uid.getValue()).matches()) {
+            return uid.getValue() + ".ics";
         }
+        return DigestUtils.sha1Hex(uid.getValue()) + ".ics";
+    }
 
-        return members;
+    private static Item.Type memberType(Calendar calendar) {
+        for (Item.Type type : new Item.Type[] {Item.Type.VEVENT, Item.Type.VTODO, Item.Type.VJOURNAL}) {
+            if (!calendar.getComponents(type.name()).isEmpty()) {
+                return type;
+            }
+        }
+        throw new SupportedCalendarComponentException(Arrays.asList(Component.VEVENT, Component.VTODO, Component.VJOURNAL));
+    }
+
+    private static final class ImportedMember {
+        private final String name;
+        private Item item;
+        private int status;
+
+        private ImportedMember(String name) {
+            this.name = name;
+        }
     }
 
     protected Set<QName> getResourceTypes() {
@@ -62,24 +209,26 @@ public class DavCalendarCollection extends DavCollectionBase implements CaldavCo
     protected void loadLiveProperties(DavPropertySet properties) {
         super.loadLiveProperties(properties);
 
-        properties.add(new GetCTag(ETagUtil.createETag(getItem().getId(), getItem().getModifiedDate())));
+        properties.add(new GetCTag(ETagUtil.createETag(getItem().getId(), getItem().getVersion())));
         properties.add(new SupportedCalendarComponentSet());
         properties.add(new SupportedCollationSet());
         properties.add(new SupportedCalendarData());
         properties.add(new AddressbookHomeSet(getResourceLocator(), getUsername()));
         properties.add(new DisplayName(getItem().getDisplayName()));
+        properties.add(new SyncToken(getItem().getSyncToken()));
     }
 
     protected void saveContent(DavItemResourceBase member) throws CosmoDavException {
         Item content = member.getItem();
-        final Item converted = converter.convert(content);
+        final Calendar calendar = member instanceof DavCalendarResource ? ((DavCalendarResource) member).getParsedCalendar() : null;
+        final Item converted = calendar != null ? converter.convert(content, calendar) : converter.convert(content);
 
         if (content.getId() != null) {
             LOG.debug("updating {} {} ", content.getMimetype(), member.getResourcePath());
-            getContentService().updateContent(converted);
+            getContentService().updateContent(converted, calendar);
         } else {
             LOG.debug("creating {} {}", content.getMimetype(), member.getResourcePath());
-            getContentService().createContent(getItem(), converted);
+            getContentService().createContent(getItem(), converted, calendar);
         }
 
         member.setItem(content);
@@ -18,7 +18,7 @@ package org.unitedinternet.cosmo.dav.impl;
 import carldav.jackrabbit.webdav.io.DavInputContext;
 import carldav.jackrabbit.webdav.property.DavPropertySet;
 import carldav.jackrabbit.webdav.version.report.ReportType;
-import org.apache.commons.io.IOUtils;
+import net.fortuna.ical4j.model.Calendar;
 import org.unitedinternet.cosmo.calendar.query.CalendarFilter;
 import org.unitedinternet.cosmo.dav.CosmoDavException;
 import org.unitedinternet.cosmo.dav.DavResourceFactory;
@@ -31,10 +31,7 @@ import org.unitedinternet.cosmo.icalendar.ICalendarConstants;
 import carldav.entity.Item;
 
 import javax.servlet.http.HttpServletResponse;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.util.Set;
 
 import static carldav.CarldavConstants.*;
@@ -45,6 +42,8 @@ public class DavCalendarResource extends DavItemResourceBase implements ICalenda
 
     //private final Set<CustomReportType> reportTypes = new HashSet<>();
 
+    private Calendar parsedCalendar;
+
     public DavCalendarResource(Item item,
                                DavResourceLocator locator,
                                DavResourceFactory factory)
@@ -64,6 +63,15 @@ public class DavCalendarResource extends DavItemResourceBase implements ICalenda
 
         DavInputContext dic = inputContext;
         setCalendar(dic.getCalendarString());
+        parsedCalendar = dic.getCalendar();
+    }
+
+    /**
+     * @return calendar parsed from the request body by the last {@link #populateItem(DavInputContext)},
+     * <code>null</code> if the content was not populated from a request
+     */
+    Calendar getParsedCalendar() {
+        return parsedCalendar;
     }
 
     public boolean matches(CalendarFilter filter)
@@ -72,7 +80,7 @@ public class DavCalendarResource extends DavItemResourceBase implements ICalenda
     }
 
     public String getCalendar() {
-        return getItem().getCalendar();
+        return getContent();
     }
 
     public void setCalendar(String calendar) throws CosmoDavException {
@@ -82,13 +90,7 @@ public class DavCalendarResource extends DavItemResourceBase implements ICalenda
 
     public void writeHead(final HttpServletResponse response) throws IOException {
         response.setContentType(TEXT_CALENDAR_VALUE);
-
-        // Get calendar
-        String calendar = getCalendar();
-
-        // convert Calendar object to String, then to bytes (UTF-8)
-        byte[] calendarBytes = calendar.getBytes(StandardCharsets.UTF_8);
-        response.setContentLength(calendarBytes.length);
+        response.setContentLengthLong(getContentLength());
         if (getModificationTime() >= 0) {
             response.addDateHeader(LAST_MODIFIED, getModificationTime());
         }
@@ -98,14 +100,7 @@ public class DavCalendarResource extends DavItemResourceBase implements ICalenda
     }
 
     public void writeBody(final HttpServletResponse response) throws IOException {
-        // Get calendar
-        String calendar = getCalendar();
-        // convert Calendar object to String, then to bytes (UTF-8)
-        byte[] calendarBytes = calendar.getBytes(StandardCharsets.UTF_8);
-
-        // spool calendar bytes
-        ByteArrayInputStream bois = new ByteArrayInputStream(calendarBytes);
-        IOUtils.copy(bois, response.getOutputStream());
+        writeContent(response);
     }
 
     public Set<ReportType> getReportTypes() {
@@ -114,9 +109,7 @@ public class DavCalendarResource extends DavItemResourceBase implements ICalenda
 
     protected void loadLiveProperties(DavPropertySet properties) {
         super.loadLiveProperties(properties);
-        byte[] calendarBytes = getCalendar().getBytes(Charset.forName("UTF-8"));
-
-        properties.add(new ContentLength((long) calendarBytes.length));
+        properties.add(new ContentLength(getContentLength()));
         properties.add(new ContentType(ICALENDAR_MEDIA_TYPE, "UTF-8"));
     }
 }
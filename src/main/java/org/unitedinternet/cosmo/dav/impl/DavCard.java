@@ -17,7 +17,6 @@ package org.unitedinternet.cosmo.dav.impl;
 
 import carldav.jackrabbit.webdav.io.DavInputContext;
 import carldav.jackrabbit.webdav.property.DavPropertySet;
-import org.apache.commons.io.IOUtils;
 import org.unitedinternet.cosmo.dav.CosmoDavException;
 import org.unitedinternet.cosmo.dav.DavResourceFactory;
 import org.unitedinternet.cosmo.dav.DavResourceLocator;
@@ -25,9 +24,7 @@ import org.unitedinternet.cosmo.dav.property.ContentType;
 import carldav.entity.Item;
 
 import javax.servlet.http.HttpServletResponse;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
 import static org.springframework.http.HttpHeaders.ETAG;
@@ -45,11 +42,8 @@ public class DavCard extends DavItemResourceBase {
     }
 
     public void writeHead(final HttpServletResponse response) throws IOException {
-        Item content = (Item) getItem();
-        final byte[] calendar = content.getCalendar().getBytes(StandardCharsets.UTF_8);
-
-        response.setContentType(content.getMimetype());
-        response.setContentLength(calendar.length);
+        response.setContentType(getItem().getMimetype());
+        response.setContentLengthLong(getContentLength());
         if (getModificationTime() >= 0) {
             response.addDateHeader(LAST_MODIFIED, getModificationTime());
         }
@@ -59,9 +53,7 @@ public class DavCard extends DavItemResourceBase {
     }
 
     public void writeBody(final HttpServletResponse response) throws IOException {
-        Item content = getItem();
-        final byte[] calendar = content.getCalendar().getBytes(StandardCharsets.UTF_8);
-        IOUtils.copy(new ByteArrayInputStream(calendar), response.getOutputStream());
+        writeContent(response);
     }
 
     protected void populateItem(DavInputContext inputContext) throws CosmoDavException {
@@ -6,18 +6,20 @@ import org.unitedinternet.cosmo.calendar.query.AddressbookFilter;
 import org.unitedinternet.cosmo.dav.CosmoDavException;
 import org.unitedinternet.cosmo.dav.DavResourceFactory;
 import org.unitedinternet.cosmo.dav.DavResourceLocator;
-import org.unitedinternet.cosmo.dav.WebDavResource;
 import org.unitedinternet.cosmo.dav.caldav.property.SupportedAddressData;
 import org.unitedinternet.cosmo.dav.caldav.report.AddressbookMultigetReport;
 import org.unitedinternet.cosmo.dav.caldav.report.AddressbookQueryReport;
+import org.unitedinternet.cosmo.dav.property.SyncToken;
+import org.unitedinternet.cosmo.dav.report.SyncCollectionReport;
 import carldav.entity.CollectionItem;
-import carldav.entity.Item;
 
 import javax.xml.namespace.QName;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static carldav.CarldavConstants.SUPPORTED_ADDRESS_DATA;
+import static carldav.CarldavConstants.SYNC_TOKEN;
 import static carldav.CarldavConstants.carddav;
 
 /**
@@ -31,11 +33,13 @@ public class DavCardCollection extends DavCollectionBase {
                              final CardQueryProcessor cardQueryProcessor) throws CosmoDavException {
         super(collection, locator, factory);
         registerLiveProperty(SUPPORTED_ADDRESS_DATA);
+        registerLiveProperty(SYNC_TOKEN);
 
         this.cardQueryProcessor = cardQueryProcessor;
 
         reportTypes.add(AddressbookMultigetReport.REPORT_TYPE_CARDDAV_MULTIGET);
         reportTypes.add(AddressbookQueryReport.REPORT_TYPE_CARDDAV_QUERY);
+        reportTypes.add(SyncCollectionReport.REPORT_TYPE_SYNC_COLLECTION);
     }
 
     @Override
@@ -46,20 +50,24 @@ public class DavCardCollection extends DavCollectionBase {
     }
 
     public Set<DavItemResourceBase> findMembers(AddressbookFilter filter) throws CosmoDavException {
-        Set<DavItemResourceBase> members = new HashSet<>();
+        return streamMembers(filter).collect(Collectors.toSet());
+    }
 
+    /**
+     * Like {@link #findMembers(AddressbookFilter)} but creates the member resources
+     * lazily while the returned stream is consumed. The matching items are loaded
+     * up front.
+     */
+    public Stream<DavItemResourceBase> streamMembers(AddressbookFilter filter) throws CosmoDavException {
         CollectionItem collection = getItem();
-        for (Item memberItem : cardQueryProcessor.filterQuery(collection, filter)) {
-            WebDavResource resource = memberToResource(memberItem);
-            members.add((DavItemResourceBase) resource);
-        }
-
-        return members;
+        return cardQueryProcessor.filterQuery(collection, filter).stream()
+                .map(memberItem -> (DavItemResourceBase) memberToResource(memberItem));
     }
 
     @Override
     protected void loadLiveProperties(final DavPropertySet properties) {
         super.loadLiveProperties(properties);
         properties.add(new SupportedAddressData());
+        properties.add(new SyncToken(getItem().getSyncToken()));
     }
 }
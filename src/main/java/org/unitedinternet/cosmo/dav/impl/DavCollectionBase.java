@@ -21,6 +21,7 @@ import carldav.jackrabbit.webdav.io.DavInputContext;
 import carldav.jackrabbit.webdav.property.DavPropertySet;
 import carldav.jackrabbit.webdav.version.report.ReportType;
 import org.apache.commons.lang.StringEscapeUtils;
+import org.apache.commons.lang.StringUtils;
 import org.unitedinternet.cosmo.calendar.query.CalendarQueryProcessor;
 import org.unitedinternet.cosmo.dav.*;
 import org.unitedinternet.cosmo.dav.property.*;
@@ -44,6 +45,8 @@ import static org.springframework.http.HttpHeaders.LAST_MODIFIED;
 
 public class DavCollectionBase extends DavResourceBase implements WebDavResource, DavCollection {
 
+    private static final int MEMBER_BATCH_SIZE = 500;
+
     protected final Set<ReportType> reportTypes = new HashSet<>();
 
     private List<WebDavResource> members;
@@ -85,8 +88,16 @@ public class DavCollectionBase extends DavResourceBase implements WebDavResource
 
     @Override
     public List<WebDavResource> getMembers() {
+        return addMembers(getResourceFactory().getItemRepository().findByCollectionId(item.getId()));
+    }
+
+    @Override
+    public List<WebDavResource> getMemberSummaries() {
+        return addMembers(getResourceFactory().getItemRepository().findSummariesByCollectionId(item.getId()));
+    }
+
+    private List<WebDavResource> addMembers(List<Item> items) {
         final List<CollectionItem> collections = getResourceFactory().getCollectionRepository().findByParentId(item.getId());
-        final List<Item> items = getResourceFactory().getItemRepository().findByCollectionId(item.getId());
 
         members.addAll(collections.stream().map(this::collectionToResource).collect(Collectors.toList()));
         members.addAll(items.stream().map(this::memberToResource).collect(Collectors.toList()));
@@ -110,12 +121,14 @@ public class DavCollectionBase extends DavResourceBase implements WebDavResource
     public void removeItem(WebDavResource member) {
         Item item = ((DavItemResourceBase) member).getItem();
         getContentService().removeItemFromCollection(item, this.item);
+        getResourceFactory().getResolutionCache().evict(member.getResourcePath());
         members.remove(member);
     }
 
     public void removeCollection(DavCollectionBase member) {
         CollectionItem hibItem = member.getItem();
         getContentService().removeCollection(hibItem);
+        getResourceFactory().getResolutionCache().evict(member.getResourcePath());
         members.remove(member);
     }
 
@@ -140,7 +153,7 @@ public class DavCollectionBase extends DavResourceBase implements WebDavResource
 
     @Override
     public String getETag() {
-        return ETagUtil.createETagEscaped(getItem().getId(), getItem().getModifiedDate());
+        return ETagUtil.createETagEscaped(getItem().getId(), getItem().getVersion());
     }
 
     public void addContent(WebDavResource content, DavInputContext context) throws CosmoDavException {
@@ -154,6 +167,77 @@ public class DavCollectionBase extends DavResourceBase implements WebDavResource
         return memberToResource(href);
     }
 
+    /**
+     * Items addressed directly below this collection are looked up with one query per
+     * {@value #MEMBER_BATCH_SIZE} names. Any other href is resolved with {@link #findMember(String)}.
+     */
+    public Map<String, WebDavResource> findMembers(Collection<String> hrefs) throws CosmoDavException {
+        Map<String, WebDavResource> members = new HashMap<>();
+        Map<String, DavResourceLocator> batched = new LinkedHashMap<>();
+
+        for (String href : hrefs) {
+            DavResourceLocator locator = getResourceLocator().getFactory()
+                    .createResourceLocatorByUri(getResourceLocator().getContext(), href);
+            if (isDirectMember(locator)) {
+                batched.put(href, locator);
+            } else {
+                WebDavResource member = findMember(href);
+                if (member != null) {
+                    members.put(href, member);
+                }
+            }
+        }
+
+        Set<String> names = batched.values().stream().map(DavResourceLocator::itemUid).collect(Collectors.toSet());
+        Map<String, Item> items = findItemsByName(names);
+
+        for (Map.Entry<String, DavResourceLocator> entry : batched.entrySet()) {
+            Item item = items.get(entry.getValue().itemUid());
+            if (item != null) {
+                members.put(entry.getKey(), getResourceFactory().createResource(entry.getValue(), item));
+            }
+        }
+
+        return members;
+    }
+
+    /**
+     * Returns the items of this collection with the given names, keyed by name. Names without
+     * an item are left out.
+     */
+    public Map<String, WebDavResource> findMembersByName(Collection<String> names) throws CosmoDavException {
+        Map<String, WebDavResource> members = new HashMap<>();
+        for (Map.Entry<String, Item> entry : findItemsByName(names).entrySet()) {
+            members.put(entry.getKey(), memberToResource(entry.getValue()));
+        }
+        return members;
+    }
+
+    public String getMemberHref(String name) {
+        return memberLocator(name).getHref(false);
+    }
+
+    private Map<String, Item> findItemsByName(Collection<String> names) {
+        Map<String, Item> items = new HashMap<>();
+        List<String> list = new ArrayList<>(names);
+
+        for (int from = 0; from < list.size(); from += MEMBER_BATCH_SIZE) {
+            List<String> chunk = list.subList(from, Math.min(from + MEMBER_BATCH_SIZE, list.size()));
+            for (Item item : getResourceFactory().getItemRepository().findByCollectionIdAndNameIn(getItem().getId(), chunk)) {
+                items.put(item.getName(), item);
+            }
+        }
+
+        return items;
+    }
+
+    private boolean isDirectMember(DavResourceLocator locator) {
+        if (getItem() == null || locator.itemUid() == null || !getItem().getName().equals(locator.collection())) {
+            return false;
+        }
+        return locator.getPath().startsWith(StringUtils.removeEnd(getResourceLocator().getPath(), "/") + "/");
+    }
+
     public boolean isHomeCollection() {
         return false;
     }
@@ -195,17 +279,19 @@ public class DavCollectionBase extends DavResourceBase implements WebDavResource
     }
 
     protected WebDavResource memberToResource(Item item) throws CosmoDavException {
+        return getResourceFactory().createResource(memberLocator(item.getName()), item);
+    }
+
+    private DavResourceLocator memberLocator(String name) throws CosmoDavException {
         String path;
         try {
-            path = getResourcePath() + "/" + URLEncoder.encode(item.getName(), "UTF-8");
+            path = getResourcePath() + "/" + URLEncoder.encode(name, "UTF-8");
         } catch (UnsupportedEncodingException e) {
             throw new CosmoDavException(e);
         }
-        DavResourceLocator locator = getResourceLocator().getFactory()
+        return getResourceLocator().getFactory()
                 .createResourceLocatorByPath(getResourceLocator().getContext(),
                         path);
-
-        return getResourceFactory().createResource(locator, item);
     }
 
     protected WebDavResource collectionToResource(CollectionItem hibItem) {
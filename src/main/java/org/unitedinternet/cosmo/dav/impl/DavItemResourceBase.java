@@ -32,8 +32,14 @@ import org.unitedinternet.cosmo.dav.property.IsCollection;
 import org.unitedinternet.cosmo.dav.property.LastModified;
 import org.unitedinternet.cosmo.dav.property.ResourceType;
 import org.unitedinternet.cosmo.util.PathUtil;
+import org.unitedinternet.cosmo.util.Utf8Util;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -92,7 +98,7 @@ public abstract class DavItemResourceBase extends DavResourceBase implements Web
     }
 
     public String getETag() {
-        return ETagUtil.createETagEscaped(getItem().getId(), getItem().getModifiedDate());
+        return ETagUtil.createETagEscaped(getItem().getId(), getItem().getVersion());
     }
 
     @Override
@@ -123,6 +129,37 @@ public abstract class DavItemResourceBase extends DavResourceBase implements Web
         loadProperties();
     }
 
+    /**
+     * Returns the UTF-8 encoded length of the item content, falling back to computing it for
+     * items stored before the length was recorded.
+     */
+    protected long getContentLength() {
+        final Long contentLength = item.getContentLength();
+        return contentLength != null ? contentLength : Utf8Util.length(getContent());
+    }
+
+    /**
+     * Returns the item content, loading it first if the item is a member summary without content.
+     */
+    protected String getContent() {
+        if (item.getCalendar() == null && item.getId() != null) {
+            final Item stored = getResourceFactory().getItemRepository().findOne(item.getId());
+            if (stored != null) {
+                item.setCalendar(stored.getCalendar());
+            }
+        }
+        return item.getCalendar();
+    }
+
+    /**
+     * Encodes the item content straight into the response without an intermediate byte array.
+     */
+    protected void writeContent(final HttpServletResponse response) throws IOException {
+        final Writer writer = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+        writer.write(getContent());
+        writer.flush();
+    }
+
     protected CalendarQueryProcessor getCalendarQueryProcesor() {
         return getResourceFactory().getCalendarQueryProcessor();
     }
@@ -87,6 +87,10 @@ public abstract class DavResourceBase implements ExtendedDavConstants, WebDavRes
         return new ArrayList<>();
     }
 
+    public List<WebDavResource> getMemberSummaries() {
+        return getMembers();
+    }
+
     public String getComplianceClass() {
         return WebDavResource.COMPLIANCE_CLASS;
     }
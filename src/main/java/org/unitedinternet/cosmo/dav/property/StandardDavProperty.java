@@ -17,11 +17,15 @@ package org.unitedinternet.cosmo.dav.property;
 
 import carldav.jackrabbit.webdav.property.DavPropertyName;
 import carldav.jackrabbit.webdav.xml.DomUtils;
+import carldav.jackrabbit.webdav.xml.StaxUtils;
 import carldav.jackrabbit.webdav.xml.XmlSerializable;
+import carldav.jackrabbit.webdav.xml.XmlStreamSerializable;
 import org.apache.commons.lang.StringUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -36,7 +40,23 @@ import java.util.Set;
  * is included in "allprop" <code>PROFIND</code> responses.
  * </p>
  */
-public class StandardDavProperty implements WebDavProperty, XmlSerializable {
+public class StandardDavProperty implements WebDavProperty, XmlStreamSerializable {
+
+    /**
+     * Whether a property class keeps the serialization of {@link #toXml(Document)}.
+     * Subclasses with a custom DOM representation have to go through the DOM fallback
+     * unless they override {@link #writeTo(XMLStreamWriter)} as well.
+     */
+    private static final ClassValue<Boolean> PLAIN_TO_XML = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("toXml", Document.class).getDeclaringClass() == StandardDavProperty.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
 
     private DavPropertyName name;
     private Object value;
@@ -128,6 +148,22 @@ public class StandardDavProperty implements WebDavProperty, XmlSerializable {
         return e;
     }
 
+    /**
+     * <p>
+     * Streams simple values directly. Element and <code>XmlSerializable</code> values,
+     * as well as subclasses with a custom {@link #toXml(Document)}, are serialized to a
+     * scratch document and copied to the writer.
+     * </p>
+     */
+    public void writeTo(XMLStreamWriter writer) throws XMLStreamException {
+        Object v = getValue();
+        if (!PLAIN_TO_XML.get(getClass()) || v instanceof Element || v instanceof XmlSerializable) {
+            StaxUtils.writeElement(writer, toXml(DomUtils.createDocument()));
+            return;
+        }
+        StaxUtils.writeTextElement(writer, getName().getQName(), v == null ? null : v.toString());
+    }
+
 	@Override
 	public boolean isInvisibleInAllprop() {
         return false;
@@ -0,0 +1,25 @@
+package org.unitedinternet.cosmo.dav.property;
+
+import static carldav.CarldavConstants.SYNC_TOKEN;
+
+/**
+ * Represents the <code>DAV:sync-token</code> property defined in RFC 6578.
+ * The property is not returned for <code>DAV:allprop</code> requests.
+ */
+public class SyncToken extends StandardDavProperty {
+
+    public static final String PREFIX = "data:,";
+
+    public SyncToken(Long token) {
+        super(SYNC_TOKEN, toText(token));
+    }
+
+    public static String toText(Long token) {
+        return PREFIX + (token == null ? 0L : token);
+    }
+
+    @Override
+    public boolean isInvisibleInAllprop() {
+        return true;
+    }
+}
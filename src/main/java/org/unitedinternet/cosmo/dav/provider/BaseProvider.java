@@ -35,6 +35,7 @@ import org.unitedinternet.cosmo.dav.MethodNotAllowedException;
 import org.unitedinternet.cosmo.dav.NotFoundException;
 import org.unitedinternet.cosmo.dav.UnsupportedMediaTypeException;
 import org.unitedinternet.cosmo.dav.WebDavResource;
+import org.unitedinternet.cosmo.dav.impl.DavCalendarCollection;
 import org.unitedinternet.cosmo.dav.impl.DavCollectionBase;
 import org.unitedinternet.cosmo.dav.impl.DavItemResourceBase;
 import org.unitedinternet.cosmo.dav.report.ReportBase;
@@ -124,6 +125,21 @@ public class BaseProvider implements DavConstants {
         response.setHeader("ETag", content.getETag());
     }
 
+    /**
+     * Imports the calendar objects of the request body into the target calendar collection.
+     */
+    public void post(HttpServletRequest request, HttpServletResponse response, WebDavResource resource) throws CosmoDavException, IOException {
+        if (! resource.exists()) {
+            throw new NotFoundException();
+        }
+        if (!(resource instanceof DavCalendarCollection)) {
+            throw new MethodNotAllowedException("POST only allowed for a calendar collection");
+        }
+
+        MultiStatus ms = ((DavCalendarCollection) resource).importContent(createInputContext(request));
+        ResponseUtils.sendXmlResponse(response, ms, 207);
+    }
+
     public void delete(HttpServletRequest request,
                        HttpServletResponse response,
                        WebDavResource resource)
@@ -15,44 +15,60 @@
  */
 package org.unitedinternet.cosmo.dav.report;
 
-import carldav.exception.resolver.ResponseUtils;
 import carldav.jackrabbit.webdav.property.DavPropertyNameSet;
-import carldav.jackrabbit.webdav.MultiStatus;
 import carldav.jackrabbit.webdav.MultiStatusResponse;
+import carldav.jackrabbit.webdav.MultiStatusWriter;
 import org.unitedinternet.cosmo.dav.CosmoDavException;
 import org.unitedinternet.cosmo.dav.WebDavResource;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
 import javax.servlet.http.HttpServletResponse;
 
 /**
+ * <p>
  * Base class for WebDAV reports that return multistatus responses.
+ * </p>
+ * <p>
+ * Each result is written to the servlet response as soon as its resource is
+ * built, so responses and their properties are not buffered. The queries still
+ * load the matching items as a whole before the first result is written.
+ * </p>
  */
 public abstract class MultiStatusReport extends ReportBase {
 
-    private MultiStatus multistatus = new MultiStatus();
     protected int propfindType = PROPFIND_ALL_PROP;
     private DavPropertyNameSet propfindProps;
+    private DavPropertyNameSet resultProps;
+    private MultiStatusWriter multiStatusWriter;
+    private String syncToken;
 
-    protected void output(HttpServletResponse response)
-            throws CosmoDavException {
+    @Override
+    public void run(HttpServletResponse response) throws CosmoDavException {
+        multiStatusWriter = new MultiStatusWriter(response);
         try {
-            buildMultistatus();
-            ResponseUtils.sendXmlResponse(response, multistatus, 207);
-        } catch (Exception e) {
-            throw new CosmoDavException(e);
+            runQuery();
+            multiStatusWriter.close(syncToken);
+        } finally {
+            multiStatusWriter = null;
         }
     }
 
-    public final void buildMultistatus() throws CosmoDavException {
+    @Override
+    protected void addResult(WebDavResource result) {
+        addResponse(buildMultiStatusResponse(result, getResultPropSpec()));
+    }
 
-        DavPropertyNameSet resultProps = createResultPropSpec();
+    /**
+     * Writes the response to the servlet response the report is running against.
+     */
+    protected void addResponse(MultiStatusResponse response) {
+        multiStatusWriter.write(response);
+    }
 
-        for (WebDavResource result : getResults()) {
-            MultiStatusResponse msr = buildMultiStatusResponse(result, resultProps);
-            multistatus.addResponse(msr);
+    protected DavPropertyNameSet getResultPropSpec() {
+        if (resultProps == null) {
+            resultProps = createResultPropSpec();
         }
+        return resultProps;
     }
 
     protected DavPropertyNameSet createResultPropSpec() {
@@ -72,18 +88,11 @@ public abstract class MultiStatusReport extends ReportBase {
         return new MultiStatusResponse(resource, props, propfindType);
     }
 
-    protected MultiStatus getMultiStatus() {
-        return multistatus;
-    }
-
-    public final Element toXml(Document document) {
-        try {
-            runQuery();
-        } catch (CosmoDavException e) {
-            throw new RuntimeException(e);
-        }
-
-        return multistatus.toXml(document);
+    /**
+     * Sets the <code>DAV:sync-token</code> reported after all responses.
+     */
+    protected void setSyncToken(String syncToken) {
+        this.syncToken = syncToken;
     }
 
     public void setPropFindType(int type) {
@@ -26,9 +26,6 @@ import org.unitedinternet.cosmo.dav.WebDavResource;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import javax.servlet.http.HttpServletResponse;
 
 /**
@@ -40,21 +37,19 @@ public abstract class ReportBase implements Report, ExtendedDavConstants {
 
     private WebDavResource resource;
     private ReportInfo info;
-    private HashSet<WebDavResource> results;
 
     public void init(WebDavResource resource,
                      ReportInfo info)
             throws CosmoDavException {
         this.resource = resource;
         this.info = info;
-        this.results = new HashSet<>();
         parseReport(info);
     }
 
-    public void run(HttpServletResponse response) throws CosmoDavException {
-        runQuery();
-        output(response);
-    }
+    /**
+     * Runs the report query with {@link #runQuery()} and writes the results to the response.
+     */
+    public abstract void run(HttpServletResponse response) throws CosmoDavException;
 
     protected abstract void parseReport(ReportInfo info)
             throws CosmoDavException;
@@ -94,12 +89,6 @@ public abstract class ReportBase implements Report, ExtendedDavConstants {
         doQueryDescendents(collection);
     }
 
-    /**
-     * Writes the report result to the response.
-     */
-    protected abstract void output(HttpServletResponse response)
-            throws CosmoDavException;
-
     /**
      * Performs the report query on the specified resource.
      */
@@ -142,6 +131,11 @@ public abstract class ReportBase implements Report, ExtendedDavConstants {
         return reportInfo.toXml(document);
     }
 
+    /**
+     * Adds a resource matching the report query to the results.
+     */
+    protected abstract void addResult(WebDavResource result);
+
     public WebDavResource getResource() {
         return resource;
     }
@@ -149,8 +143,4 @@ public abstract class ReportBase implements Report, ExtendedDavConstants {
     public ReportInfo getInfo() {
         return info;
     }
-
-    public Set<WebDavResource> getResults() {
-        return results;
-    }
 }
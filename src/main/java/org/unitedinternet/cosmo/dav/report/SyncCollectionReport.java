@@ -0,0 +1,146 @@
+package org.unitedinternet.cosmo.dav.report;
+
+import static carldav.CarldavConstants.caldav;
+
+import carldav.entity.CollectionItem;
+import carldav.entity.ItemChange;
+import carldav.jackrabbit.webdav.MultiStatusResponse;
+import carldav.jackrabbit.webdav.version.report.ReportInfo;
+import carldav.jackrabbit.webdav.version.report.ReportType;
+import carldav.jackrabbit.webdav.xml.DomUtils;
+import org.apache.commons.lang.StringUtils;
+import org.unitedinternet.cosmo.dav.BadRequestException;
+import org.unitedinternet.cosmo.dav.CosmoDavException;
+import org.unitedinternet.cosmo.dav.DavCollection;
+import org.unitedinternet.cosmo.dav.UnprocessableEntityException;
+import org.unitedinternet.cosmo.dav.ValidSyncTokenException;
+import org.unitedinternet.cosmo.dav.WebDavResource;
+import org.unitedinternet.cosmo.dav.impl.DavCollectionBase;
+import org.unitedinternet.cosmo.dav.property.SyncToken;
+import org.w3c.dom.Element;
+
+import javax.xml.namespace.QName;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * <p>
+ * Represents the <code>DAV:sync-collection</code> report defined in RFC 6578.
+ * </p>
+ * <p>
+ * An empty <code>DAV:sync-token</code> returns every member of the collection.
+ * Otherwise only members created, updated or deleted since the given token are
+ * returned, deleted members with status 404. In both cases the response ends
+ * with the current token of the collection.
+ * </p>
+ */
+public class SyncCollectionReport extends MultiStatusReport {
+
+    private static final QName SYNC_TOKEN = caldav("sync-token");
+    private static final QName SYNC_LEVEL = caldav("sync-level");
+
+    public static final ReportType REPORT_TYPE_SYNC_COLLECTION =
+            ReportType.register(caldav("sync-collection"), SyncCollectionReport.class);
+
+    private Long syncToken;
+
+    public ReportType getType() {
+        return REPORT_TYPE_SYNC_COLLECTION;
+    }
+
+    /**
+     * <pre>
+     * <!ELEMENT sync-collection (sync-token, sync-level, limit?, prop)>
+     * </pre>
+     * <code>DAV:sync-level</code> is optional for clients implementing earlier drafts
+     * of RFC 6578. <code>DAV:limit</code> is ignored, the full delta is always returned.
+     */
+    protected void parseReport(ReportInfo info) throws CosmoDavException {
+        if (!getType().isRequestedReportType(info)) {
+            throw new CosmoDavException("Report not of type " + getType().getReportName());
+        }
+        if (!(getResource() instanceof DavCollectionBase)) {
+            throw new UnprocessableEntityException(getType() + " report not supported for non-collection resources");
+        }
+
+        Element reportElement = getReportElementFrom(info);
+
+        Element token = DomUtils.getChildElement(reportElement, SYNC_TOKEN);
+        if (token == null) {
+            throw new BadRequestException("Expected " + SYNC_TOKEN);
+        }
+        syncToken = parseSyncToken(DomUtils.getTextTrim(token));
+
+        Element level = DomUtils.getChildElement(reportElement, SYNC_LEVEL);
+        if (level != null) {
+            String text = DomUtils.getTextTrim(level);
+            if (!"1".equals(text) && !"infinite".equals(text)) {
+                throw new BadRequestException("Invalid " + SYNC_LEVEL + " " + text);
+            }
+        }
+
+        setPropFindProps(info.getPropertyNameSet());
+        setPropFindType(PROPFIND_BY_PROPERTY);
+    }
+
+    private static Long parseSyncToken(String text) {
+        if (StringUtils.isEmpty(text)) {
+            return null;
+        }
+        if (!text.startsWith(SyncToken.PREFIX)) {
+            throw new ValidSyncTokenException("Unknown sync token " + text);
+        }
+        try {
+            return Long.valueOf(text.substring(SyncToken.PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new ValidSyncTokenException("Unknown sync token " + text);
+        }
+    }
+
+    protected void doQuerySelf(WebDavResource resource) throws CosmoDavException {}
+
+    protected void doQueryChildren(DavCollection collection) throws CosmoDavException {}
+
+    protected void runQuery() throws CosmoDavException {
+        DavCollectionBase collection = (DavCollectionBase) getResource();
+        CollectionItem item = collection.getItem();
+        long current = item.getSyncToken() == null ? 0L : item.getSyncToken();
+
+        if (syncToken == null) {
+            for (WebDavResource member : collection.getMembers()) {
+                if (!member.isCollection()) {
+                    addResult(member);
+                }
+            }
+        } else {
+            long oldest = item.getOldestSyncToken() == null ? 0L : item.getOldestSyncToken();
+            if (syncToken < oldest || syncToken > current) {
+                throw new ValidSyncTokenException("Sync token " + SyncToken.toText(syncToken) + " is no longer valid");
+            }
+
+            List<ItemChange> changes = collection.getResourceFactory().getItemChangeRepository()
+                    .findByCollectionIdAndSyncTokenGreaterThanOrderBySyncTokenAsc(item.getId(), syncToken);
+
+            Set<String> names = new TreeSet<>();
+            for (ItemChange change : changes) {
+                if (change.getType() != ItemChange.Type.DELETED) {
+                    names.add(change.getName());
+                }
+            }
+            Map<String, WebDavResource> members = collection.findMembersByName(names);
+
+            for (ItemChange change : changes) {
+                WebDavResource member = members.get(change.getName());
+                if (member != null) {
+                    addResult(member);
+                } else {
+                    addResponse(new MultiStatusResponse(collection.getMemberHref(change.getName()), 404));
+                }
+            }
+        }
+
+        setSyncToken(SyncToken.toText(current));
+    }
+}
@@ -143,6 +143,9 @@ public class StandardRequestHandler extends AbstractController implements Server
         else if (request.getMethod().equals("REPORT")) {
             provider.report(request, response, resource);
         }
+        else if (request.getMethod().equals("POST")) {
+            provider.post(request, response, resource);
+        }
         else {
             if (resource.isCollection()) {
                 throw new MethodNotAllowedException(request.getMethod() + " not allowed for a collection");
@@ -15,9 +15,14 @@
  */
 package org.unitedinternet.cosmo.model.hibernate;
 
+import carldav.entity.CardProperty;
 import carldav.entity.Item;
 import ezvcard.Ezvcard;
 import ezvcard.VCard;
+import ezvcard.property.Email;
+import ezvcard.property.FormattedName;
+import ezvcard.property.StructuredName;
+import ezvcard.property.Telephone;
 import net.fortuna.ical4j.data.CalendarBuilder;
 import net.fortuna.ical4j.model.*;
 import net.fortuna.ical4j.model.component.VEvent;
@@ -49,12 +54,20 @@ public class EntityConverter {
             cardItem.setDisplayName(uidString);
         }
 
+        setCardProperties(cardItem, vcard);
         return cardItem;
     }
 
     public Item convert(Item calendarItem) {
+        return convert(calendarItem, convertContent(calendarItem));
+    }
+
+    /**
+     * Sets UID, display name and time-range indexes from an already parsed calendar, which has to
+     * match the content of the item.
+     */
+    public Item convert(Item calendarItem, Calendar calendar) {
         try {
-            final Calendar calendar = new CalendarBuilder().build(new StringReader(calendarItem.getCalendar()));
             Component component = getFirstComponent(calendar.getComponents(calendarItem.getType().name()));
             setCalendarAttributes(calendarItem, component);
             calculateEventStampIndexes(calendar, component, calendarItem);
@@ -76,6 +89,49 @@ public class EntityConverter {
         return null;
     }
 
+    /**
+     * Replaces the searchable properties of the given card with FN, N, EMAIL, TEL and UID of the vCard.
+     */
+    private void setCardProperties(Item cardItem, VCard vcard) {
+        final List<CardProperty> properties = cardItem.getCardProperties();
+        properties.clear();
+
+        addCardProperty(cardItem, "UID", cardItem.getUid());
+        for (FormattedName formattedName : vcard.getFormattedNames()) {
+            addCardProperty(cardItem, "FN", formattedName.getValue());
+        }
+        final StructuredName structuredName = vcard.getStructuredName();
+        if (structuredName != null) {
+            addCardProperty(cardItem, "N", String.join(";",
+                    nullToEmpty(structuredName.getFamily()),
+                    nullToEmpty(structuredName.getGiven()),
+                    String.join(",", structuredName.getAdditional()),
+                    String.join(",", structuredName.getPrefixes()),
+                    String.join(",", structuredName.getSuffixes())));
+        }
+        for (Email email : vcard.getEmails()) {
+            addCardProperty(cardItem, "EMAIL", email.getValue());
+        }
+        for (Telephone telephone : vcard.getTelephoneNumbers()) {
+            if (telephone.getText() != null) {
+                addCardProperty(cardItem, "TEL", telephone.getText());
+            } else if (telephone.getUri() != null) {
+                addCardProperty(cardItem, "TEL", telephone.getUri().toString());
+            }
+        }
+        cardItem.setCardIndexed(true);
+    }
+
+    private void addCardProperty(Item cardItem, String name, String value) {
+        if (value != null && !value.isEmpty()) {
+            cardItem.getCardProperties().add(new CardProperty(cardItem, name, value));
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
     private void setCalendarAttributes(Item note, Component component) {
         final Property uid = component.getProperty(Property.UID);
         String uidString = null;
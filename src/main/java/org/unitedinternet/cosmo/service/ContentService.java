@@ -17,8 +17,11 @@ package org.unitedinternet.cosmo.service;
 
 import carldav.entity.CollectionItem;
 import carldav.entity.Item;
+import net.fortuna.ical4j.model.Calendar;
 import carldav.entity.User;
 
+import java.util.List;
+
 /**
  * Interface for services that manage access to user content.
  */
@@ -66,6 +69,14 @@ public interface ContentService {
     Item createContent(CollectionItem parent,
                        Item content);
 
+    /**
+     * Like {@link #createContent(CollectionItem, Item)} but indexes the content
+     * with the given calendar parsed from it instead of parsing it again.
+     */
+    Item createContent(CollectionItem parent,
+                       Item content,
+                       Calendar calendar);
+
     /**
      * Update an existing content item.
      * 
@@ -75,5 +86,25 @@ public interface ContentService {
      */
     Item updateContent(Item content);
 
+    /**
+     * Like {@link #updateContent(Item)} but indexes the content with the
+     * given calendar parsed from it instead of parsing it again.
+     */
+    Item updateContent(Item content, Calendar calendar);
+
+    /**
+     * Creates many new content items at once, e.g. when importing a calendar. The items
+     * have to be converted already, the occurrences of recurring items are indexed in
+     * parallel, each parsed again by the thread indexing it. The collection is modified
+     * and its sync token advanced once for all items. The created items are detached afterwards.
+     *
+     * @param parent
+     *            parent collection of the content
+     * @param contents
+     *            content to create
+     * @return the parent collection
+     */
+    CollectionItem importContent(CollectionItem parent, List<Item> contents);
+
     CollectionItem createRootItem(User user);
 }
@@ -15,28 +15,71 @@
  */
 package org.unitedinternet.cosmo.service.impl;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.util.Assert;
+import org.unitedinternet.cosmo.calendar.CalendarCache;
+import org.unitedinternet.cosmo.calendar.OccurrenceIndexer;
+import carldav.repository.CollectionLookupCache;
 import carldav.repository.CollectionRepository;
+import carldav.repository.ItemChangeRepository;
 import carldav.repository.ItemRepository;
 import carldav.entity.CollectionItem;
 import carldav.entity.Item;
+import carldav.entity.ItemChange;
 import carldav.entity.User;
+import net.fortuna.ical4j.model.Calendar;
 import org.unitedinternet.cosmo.service.ContentService;
+import org.unitedinternet.cosmo.util.ParallelUtil;
+import org.unitedinternet.cosmo.util.Utf8Util;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 import static org.unitedinternet.cosmo.dav.caldav.CaldavConstants.HOME_COLLECTION;
 
 public class StandardContentService implements ContentService {
 
+    /**
+     * Number of imported items inserted per flush, matches <code>hibernate.jdbc.batch_size</code>
+     * and the id allocation size of items.
+     */
+    static final int IMPORT_BATCH_SIZE = 50;
+
     private final ItemRepository itemRepository;
     private final CollectionRepository collectionRepository;
+    private final CalendarCache calendarCache;
+    private final ItemChangeRepository itemChangeRepository;
+    private final int maxTombstones;
+    private final OccurrenceIndexer occurrenceIndexer;
+    private final CollectionLookupCache collectionLookupCache;
+    private final Executor importExecutor;
 
-    public StandardContentService(final ItemRepository itemRepository, CollectionRepository collectionRepository) {
+    /**
+     * @param importExecutor bounded executor the occurrences of imported items are indexed on
+     */
+    public StandardContentService(final ItemRepository itemRepository, CollectionRepository collectionRepository, CalendarCache calendarCache,
+                                  ItemChangeRepository itemChangeRepository, int maxTombstones, OccurrenceIndexer occurrenceIndexer,
+                                  CollectionLookupCache collectionLookupCache, Executor importExecutor) {
         Assert.notNull(itemRepository, "itemRepository is null");
         Assert.notNull(collectionRepository, "collectionRepository is null");
+        Assert.notNull(calendarCache, "calendarCache is null");
+        Assert.notNull(itemChangeRepository, "itemChangeRepository is null");
+        Assert.isTrue(maxTombstones > 0, "maxTombstones must be positive");
+        Assert.notNull(occurrenceIndexer, "occurrenceIndexer is null");
+        Assert.notNull(collectionLookupCache, "collectionLookupCache is null");
+        Assert.notNull(importExecutor, "importExecutor is null");
         this.itemRepository = itemRepository;
         this.collectionRepository = collectionRepository;
+        this.calendarCache = calendarCache;
+        this.itemChangeRepository = itemChangeRepository;
+        this.maxTombstones = maxTombstones;
+        this.occurrenceIndexer = occurrenceIndexer;
+        this.collectionLookupCache = collectionLookupCache;
+        this.importExecutor = importExecutor;
     }
 
     /**
@@ -47,7 +90,10 @@ public class StandardContentService implements ContentService {
      */
     public void removeItemFromCollection(Item item, CollectionItem collection) {
         itemRepository.delete(item);
-        collection.setModifiedDate(new Date());
+        itemRepository.flush();
+        calendarCache.invalidate(item);
+        recordChange(collection, item.getName(), ItemChange.Type.DELETED, new Date());
+        compactTombstones(collection);
     }
 
     /**
@@ -62,6 +108,7 @@ public class StandardContentService implements ContentService {
     public CollectionItem createCollection(CollectionItem parent, CollectionItem collection) {
         collection.setParent(parent);
         collectionRepository.save(collection);
+        collectionLookupCache.evict(collection);
         return collection;
     }
 
@@ -79,6 +126,7 @@ public class StandardContentService implements ContentService {
             throw new IllegalArgumentException("cannot remove home collection");
         }
         collectionRepository.delete(collection);
+        collectionLookupCache.evict(collection);
     }
 
     /**
@@ -93,9 +141,16 @@ public class StandardContentService implements ContentService {
      * @return newly created content
      */
     public Item createContent(CollectionItem parent, Item content) {
+        return createContent(parent, content, null);
+    }
+
+    public Item createContent(CollectionItem parent, Item content, Calendar calendar) {
         content.setCollection(parent);
-        content.getCollection().setModifiedDate(new Date());
+        updateContentLength(content);
         itemRepository.save(content);
+        cacheCalendar(content, calendar);
+        occurrenceIndexer.index(content);
+        recordChange(parent, content.getName(), ItemChange.Type.CREATED, new Date());
         return content;
     }
 
@@ -107,13 +162,105 @@ public class StandardContentService implements ContentService {
      * @return updated content item
      */
     public Item updateContent(Item content) {
+        return updateContent(content, null);
+    }
+
+    public Item updateContent(Item content, Calendar calendar) {
         final Date date = new Date();
         content.setModifiedDate(date);
-        content.getCollection().setModifiedDate(date);
+        updateContentLength(content);
         itemRepository.save(content);
+        itemRepository.flush();
+        calendarCache.invalidate(content);
+        cacheCalendar(content, calendar);
+        occurrenceIndexer.index(content);
+        recordChange(content.getCollection(), content.getName(), ItemChange.Type.UPDATED, date);
         return content;
     }
 
+    /**
+     * Hands the calendar parsed from the request body to the occurrence indexer and later
+     * readers through the calendar cache, so storing a calendar costs a single parse.
+     */
+    private void cacheCalendar(Item content, Calendar calendar) {
+        if (calendar != null) {
+            calendarCache.put(content, calendar);
+        }
+    }
+
+    public CollectionItem importContent(CollectionItem parent, List<Item> contents) {
+        // parsed calendars and their timezones must not be shared between threads
+        ParallelUtil.map(contents, content -> {
+            occurrenceIndexer.index(content);
+            return content;
+        }, importExecutor);
+        for (Item content : contents) {
+            content.setCollection(parent);
+            updateContentLength(content);
+        }
+        itemRepository.persistInBatches(contents, IMPORT_BATCH_SIZE);
+
+        final long syncToken = collectionRepository.advanceSyncToken(parent, new Date());
+
+        final Map<String, ItemChange> changes = new HashMap<>();
+        for (ItemChange change : itemChangeRepository.findByCollectionId(parent.getId())) {
+            changes.put(change.getName(), change);
+        }
+        final List<ItemChange> created = new ArrayList<>(contents.size());
+        for (Item content : contents) {
+            ItemChange change = changes.get(content.getName());
+            if (change == null) {
+                change = new ItemChange(parent, content.getName());
+            }
+            change.setSyncToken(syncToken);
+            change.setType(ItemChange.Type.CREATED);
+            created.add(change);
+        }
+        itemChangeRepository.save(created);
+        return parent;
+    }
+
+    private void updateContentLength(Item content) {
+        content.setContentLength(content.getCalendar() == null ? null : Utf8Util.length(content.getCalendar()));
+    }
+
+    /**
+     * Advances the sync token of the collection and keeps the latest change per member name. The
+     * member changes are flushed first, as the atomic update locks the collection row until the
+     * transaction ends and only the change journal should be written while it is held.
+     */
+    private void recordChange(CollectionItem collection, String name, ItemChange.Type type, Date modifiedDate) {
+        itemRepository.flush();
+        final long syncToken = collectionRepository.advanceSyncToken(collection, modifiedDate);
+
+        ItemChange change = itemChangeRepository.findByCollectionIdAndName(collection.getId(), name);
+        if (change == null) {
+            change = new ItemChange(collection, name);
+        }
+        change.setSyncToken(syncToken);
+        change.setType(type);
+        itemChangeRepository.save(change);
+    }
+
+    /**
+     * Drops the oldest tombstones once a collection holds more than the configured
+     * maximum. Sync tokens up to the last dropped tombstone can't be answered with a
+     * delta anymore, clients holding such a token have to run a full sync.
+     */
+    private void compactTombstones(CollectionItem collection) {
+        long tombstones = itemChangeRepository.countByCollectionIdAndType(collection.getId(), ItemChange.Type.DELETED);
+        if (tombstones <= maxTombstones) {
+            return;
+        }
+
+        List<ItemChange> expired = itemChangeRepository.findByCollectionIdAndTypeOrderBySyncTokenAsc(
+                collection.getId(), ItemChange.Type.DELETED, new PageRequest(0, (int) (tombstones - maxTombstones)));
+        for (ItemChange change : expired) {
+            collection.setOldestSyncToken(change.getSyncToken());
+        }
+        itemChangeRepository.delete(expired);
+    }
+
     @Override
     public CollectionItem createRootItem(User user) {
         CollectionItem newItem = new CollectionItem();
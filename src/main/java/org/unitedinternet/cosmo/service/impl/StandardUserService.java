@@ -17,8 +17,10 @@ package org.unitedinternet.cosmo.service.impl;
 
 import carldav.entity.CollectionItem;
 import carldav.entity.User;
+import carldav.repository.CollectionLookupCache;
 import carldav.repository.CollectionRepository;
 import carldav.repository.UserRepository;
+import carldav.security.AuthenticationCache;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.util.Assert;
@@ -32,14 +34,21 @@ public class StandardUserService implements UserService {
     private final ContentService contentService;
     private final UserRepository userRepository;
     private final CollectionRepository collectionRepository;
+    private final AuthenticationCache authenticationCache;
+    private final CollectionLookupCache collectionLookupCache;
 
-    public StandardUserService(final ContentService contentService, final UserRepository userRepository, final CollectionRepository collectionRepository) {
+    public StandardUserService(final ContentService contentService, final UserRepository userRepository, final CollectionRepository collectionRepository,
+                               final AuthenticationCache authenticationCache, final CollectionLookupCache collectionLookupCache) {
         Assert.notNull(contentService, "contentService is null");
         Assert.notNull(userRepository, "userRepository is null");
         Assert.notNull(collectionRepository, "collectionRepository is null");
+        Assert.notNull(authenticationCache, "authenticationCache is null");
+        Assert.notNull(collectionLookupCache, "collectionLookupCache is null");
         this.contentService = contentService;
         this.userRepository = userRepository;
         this.collectionRepository = collectionRepository;
+        this.authenticationCache = authenticationCache;
+        this.collectionLookupCache = collectionLookupCache;
     }
 
     public Iterable<User> getUsers() {
@@ -65,6 +74,7 @@ public class StandardUserService implements UserService {
         user.setPassword(digestPassword(user.getPassword()));
 
         User newUser = userRepository.save(user);
+        authenticationCache.invalidate(newUser.getEmail());
 
         CollectionItem calendar = new CollectionItem();
         calendar.setOwner(user);
@@ -93,6 +103,8 @@ public class StandardUserService implements UserService {
         final List<CollectionItem> byOwnerEmail = collectionRepository.findByOwnerEmail(user.getEmail());
         collectionRepository.delete(byOwnerEmail);
         userRepository.delete(user);
+        authenticationCache.invalidate(user.getEmail());
+        collectionLookupCache.evictOwner(user.getEmail());
     }
 
     /**
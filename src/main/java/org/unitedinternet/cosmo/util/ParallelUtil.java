@@ -0,0 +1,43 @@
+package org.unitedinternet.cosmo.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Provides utility methods for running CPU bound work on a dedicated executor instead of the
+ * common fork/join pool shared with the rest of the JVM.
+ */
+public class ParallelUtil {
+
+    /**
+     * Applies the given function to every element on the given executor and waits for all
+     * results, which are returned in the order of the elements. Exceptions thrown by the
+     * function are rethrown.
+     */
+    public static <T, R> List<R> map(List<T> elements, Function<T, R> function, Executor executor) {
+        if (elements == null || function == null || executor == null) {
+            throw new IllegalArgumentException("null argument");
+        }
+        final List<CompletableFuture<R>> futures = new ArrayList<>(elements.size());
+        for (final T element : elements) {
+            futures.add(CompletableFuture.supplyAsync(() -> function.apply(element), executor));
+        }
+
+        final List<R> results = new ArrayList<>(elements.size());
+        try {
+            for (final CompletableFuture<R> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+        return results;
+    }
+}
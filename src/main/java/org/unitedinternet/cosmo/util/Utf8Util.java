@@ -0,0 +1,35 @@
+package org.unitedinternet.cosmo.util;
+
+/**
+ * Provides utility methods for working with UTF-8 encoded content.
+ */
+public class Utf8Util {
+
+    /**
+     * Returns the number of bytes the given text occupies when encoded as UTF-8 without
+     * actually encoding it. Unpaired surrogates count as one byte, matching the replacement
+     * character written by {@link String#getBytes(java.nio.charset.Charset)}.
+     */
+    public static long length(CharSequence text) {
+        if (text == null) {
+            throw new IllegalArgumentException("null text");
+        }
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
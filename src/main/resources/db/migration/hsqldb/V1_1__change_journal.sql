@@ -0,0 +1,16 @@
+-- Sync tokens of collections and the latest change per member name for sync-collection reports.
+
+alter table collection add column synctoken bigint;
+alter table collection add column oldestsynctoken bigint;
+
+create table item_change (
+    id bigint generated by default as identity (start with 1),
+    itemname varchar(255) not null,
+    synctoken bigint not null,
+    type varchar(255) not null,
+    collectionid bigint not null references collection (id),
+    primary key (id),
+    constraint change_collection_name unique (collectionid, itemname)
+);
+
+create index idx_change_token on item_change (collectionid, synctoken);
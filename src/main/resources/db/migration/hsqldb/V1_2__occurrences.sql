@@ -0,0 +1,15 @@
+-- Materialized occurrences of recurring items for time-range queries. Existing recurring items have
+-- no occurrencesuntil yet and are indexed on their first query.
+
+alter table item add column occurrencesuntil timestamp;
+
+create table item_occurrence (
+    id bigint generated by default as identity (start with 1),
+    enddate timestamp not null,
+    startdate timestamp not null,
+    itemid bigint not null references item (id),
+    primary key (id)
+);
+
+create index idx_occurrence_range on item_occurrence (startdate, enddate);
+create index idx_occurrence_item on item_occurrence (itemid);
@@ -0,0 +1,3 @@
+-- UTF-8 length of the item content. Existing items keep null, their length is computed on access.
+
+alter table item add column contentlength bigint;
@@ -0,0 +1,14 @@
+-- Searchable vCard property values for addressbook-query filters. Existing cards are indexed on
+-- their first query.
+
+create table item_card_property (
+    id bigint generated by default as identity (start with 1),
+    foldedvalue varchar(1024) not null,
+    name varchar(16) not null,
+    value varchar(1024) not null,
+    itemid bigint not null references item (id),
+    primary key (id)
+);
+
+create index idx_cardproperty_value on item_card_property (name, foldedvalue);
+create index idx_cardproperty_item on item_card_property (itemid);
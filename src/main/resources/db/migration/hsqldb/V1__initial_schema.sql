@@ -0,0 +1,51 @@
+-- Schema of the entities in carldav.entity as created by hibernate.hbm2ddl.auto=update in the
+-- release before Flyway was introduced. Databases created that way are baselined at this version,
+-- everything added since lives in later migrations.
+
+create table users (
+    id bigint generated by default as identity (start with 1),
+    email varchar(255) not null,
+    locked boolean not null,
+    password varchar(255) not null,
+    role varchar(255),
+    primary key (id),
+    constraint user_email unique (email)
+);
+
+create table collection (
+    id bigint generated by default as identity (start with 1),
+    displayname varchar(255) not null,
+    itemname varchar(255) not null,
+    modifydate timestamp,
+    ownerid bigint not null references users (id),
+    collectionid bigint references collection (id),
+    primary key (id),
+    constraint displayname_owner unique (displayname, ownerid)
+);
+
+create table item (
+    id bigint generated by default as identity (start with 1),
+    calendar clob,
+    clientcreatedate timestamp,
+    clientmodifieddate timestamp,
+    displayname varchar(255) not null,
+    enddate timestamp,
+    floating boolean,
+    mimetype varchar(255) not null,
+    modifydate timestamp,
+    itemname varchar(255) not null,
+    recurring boolean,
+    startdate timestamp,
+    type varchar(255),
+    uid varchar(255) not null,
+    collectionid bigint references collection (id),
+    primary key (id),
+    constraint uid_collection unique (uid, collectionid)
+);
+
+create index idx_itemuid on item (uid);
+create index idx_itemname on item (itemname);
+create index idx_startdt on item (startdate);
+create index idx_enddt on item (enddate);
+create index idx_floating on item (floating);
+create index idx_recurring on item (recurring);
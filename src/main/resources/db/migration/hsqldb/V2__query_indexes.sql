@@ -0,0 +1,10 @@
+-- Composite indexes for the filters of the hot queries:
+-- members of a collection by type ordered by name (findByCollectionIdAndTypeOrderByNameAsc),
+-- a member of a collection by name (findByCurrentOwnerEmailAndCollectionNameAndName),
+-- calendar-query time ranges within a collection (ItemSpecs.parent and ItemSpecs.stamp)
+-- and collections of an owner by name (findByCurrentOwnerEmailAndName).
+
+create index idx_item_collection_type on item (collectionid, type, itemname);
+create index idx_item_collection_name on item (collectionid, itemname);
+create index idx_item_collection_range on item (collectionid, type, startdate, enddate);
+create index idx_collection_name_owner on collection (itemname, ownerid);
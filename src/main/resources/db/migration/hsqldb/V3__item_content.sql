@@ -0,0 +1,22 @@
+-- Moves item content into its own table so item queries don't load it. Contents are created in
+-- item order and matched to their item through the temporary itemid column.
+
+create table item_content (
+    id bigint generated by default as identity (start with 1),
+    calendar clob,
+    itemid bigint,
+    primary key (id)
+);
+
+insert into item_content (calendar, itemid) select calendar, id from item;
+create index idx_content_item on item_content (itemid);
+
+alter table item add column contentid bigint;
+update item set contentid = (select c.id from item_content c where c.itemid = item.id);
+
+drop index idx_content_item;
+alter table item_content drop column itemid;
+alter table item drop column calendar;
+
+alter table item add constraint fk_item_content foreign key (contentid) references item_content (id);
+alter table item add constraint uk_item_content unique (contentid);
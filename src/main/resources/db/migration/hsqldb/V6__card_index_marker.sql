@@ -0,0 +1,12 @@
+-- Marks cards whose properties were indexed, so cards without searchable properties aren't indexed
+-- on every query, and keeps property values longer than the indexed columns in full. Cards with a
+-- value that may have been truncated are indexed again on their next query.
+
+alter table item add column cardindexed boolean;
+alter table item_card_property add column longvalue clob;
+alter table item_card_property add column longfoldedvalue clob;
+
+update item set cardindexed = true where type = 'VCARD'
+    and exists (select 1 from item_card_property p where p.itemid = item.id)
+    and not exists (select 1 from item_card_property p where p.itemid = item.id
+        and (char_length(p.value) = 1024 or char_length(p.foldedvalue) = 1024));
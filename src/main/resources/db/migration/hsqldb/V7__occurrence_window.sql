@@ -0,0 +1,5 @@
+-- Start of the materialized occurrence range and hash of the content it was expanded from. Existing
+-- recurring items keep their occurrences from the first instance and are expanded again on their next write.
+
+alter table item add column occurrencesfrom timestamp;
+alter table item add column occurrenceshash varchar(40);
@@ -0,0 +1,109 @@
+-- Schema of the entities in carldav.entity. Item and occurrence start/end dates are timestamptz, so
+-- carldav_timerange is immutable and can be indexed.
+
+create sequence hibernate_sequence start 1 increment 1;
+
+create table users (
+    id int8 not null,
+    email varchar(255) not null,
+    locked boolean not null,
+    password varchar(255) not null,
+    role varchar(255),
+    primary key (id),
+    constraint user_email unique (email)
+);
+
+create table collection (
+    id int8 not null,
+    displayname varchar(255) not null,
+    itemname varchar(255) not null,
+    modifydate timestamp,
+    oldestsynctoken int8,
+    synctoken int8,
+    ownerid int8 not null references users (id),
+    collectionid int8 references collection (id),
+    primary key (id),
+    constraint displayname_owner unique (displayname, ownerid)
+);
+
+create table item (
+    id int8 not null,
+    calendar text,
+    clientcreatedate timestamp,
+    clientmodifieddate timestamp,
+    contentlength int8,
+    displayname varchar(255) not null,
+    enddate timestamptz,
+    floating boolean,
+    mimetype varchar(255) not null,
+    modifydate timestamp,
+    itemname varchar(255) not null,
+    occurrencesuntil timestamp,
+    recurring boolean,
+    startdate timestamptz,
+    type varchar(255),
+    uid varchar(255) not null,
+    collectionid int8 references collection (id),
+    primary key (id),
+    constraint uid_collection unique (uid, collectionid)
+);
+
+create index idx_itemuid on item (uid);
+create index idx_itemname on item (itemname);
+create index idx_startdt on item (startdate);
+create index idx_enddt on item (enddate);
+create index idx_floating on item (floating);
+create index idx_recurring on item (recurring);
+
+create table item_occurrence (
+    id int8 not null,
+    enddate timestamptz not null,
+    startdate timestamptz not null,
+    itemid int8 not null references item (id),
+    primary key (id)
+);
+
+create index idx_occurrence_range on item_occurrence (startdate, enddate);
+create index idx_occurrence_item on item_occurrence (itemid);
+
+create table item_card_property (
+    id int8 not null,
+    foldedvalue varchar(1024) not null,
+    name varchar(16) not null,
+    value varchar(1024) not null,
+    itemid int8 not null references item (id),
+    primary key (id)
+);
+
+create index idx_cardproperty_value on item_card_property (name, foldedvalue);
+create index idx_cardproperty_item on item_card_property (itemid);
+
+create table item_change (
+    id int8 not null,
+    itemname varchar(255) not null,
+    synctoken int8 not null,
+    type varchar(255) not null,
+    collectionid int8 not null references collection (id),
+    primary key (id),
+    constraint change_collection_name unique (collectionid, itemname)
+);
+
+create index idx_change_token on item_change (collectionid, synctoken);
+
+-- Time range of an item or occurrence: half-open for events with a duration, a single instant for
+-- events ending at or before their start. plpgsql keeps the planner from inlining the function, so
+-- queries match the index expressions below.
+create function carldav_timerange(startdate timestamptz, enddate timestamptz) returns tstzrange as $$
+begin
+    if startdate is null or enddate is null then
+        return null;
+    end if;
+    if enddate <= startdate then
+        return tstzrange(startdate, startdate, '[]');
+    end if;
+    return tstzrange(startdate, enddate, '[)');
+end;
+$$ language plpgsql immutable;
+
+create index idx_item_timerange on item using gist (carldav_timerange(startdate, enddate));
+create index idx_occurrence_timerange on item_occurrence using gist (carldav_timerange(startdate, enddate));
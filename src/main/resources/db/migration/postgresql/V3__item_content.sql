@@ -0,0 +1,20 @@
+-- Moves item content into its own table so item queries don't load it. Contents are matched to
+-- their item through the temporary itemid column.
+
+create table item_content (
+    id int8 not null,
+    calendar text,
+    itemid int8,
+    primary key (id)
+);
+
+insert into item_content (id, calendar, itemid) select nextval('hibernate_sequence'), calendar, id from item;
+
+alter table item add column contentid int8;
+update item set contentid = c.id from item_content c where c.itemid = item.id;
+
+alter table item_content drop column itemid;
+alter table item drop column calendar;
+
+alter table item add constraint fk_item_content foreign key (contentid) references item_content (id);
+alter table item add constraint uk_item_content unique (contentid);
@@ -0,0 +1,10 @@
+-- Pooled id sequence of items and their content, occurrences and changes. Hibernate allocates
+-- blocks of 50 ids per call, the first block has to start above the ids handed out so far.
+
+create sequence item_seq start 1 increment 50;
+
+select setval('item_seq', (select coalesce(max(id), 0) + 50 from (
+    select max(id) as id from item
+    union all select max(id) from item_content
+    union all select max(id) from item_occurrence
+    union all select max(id) from item_change) ids), false);
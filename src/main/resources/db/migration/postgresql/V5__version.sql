@@ -0,0 +1,4 @@
+-- Optimistic locking versions of items and collections, ETags are derived from them.
+
+alter table item add column version bigint default 0 not null;
+alter table collection add column version bigint default 0 not null;
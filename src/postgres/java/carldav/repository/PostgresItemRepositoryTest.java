@@ -0,0 +1,124 @@
+package carldav.repository;
+
+import carldav.CarldavApplication;
+import carldav.entity.Item;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.WebIntegrationTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static carldav.repository.specification.ItemSpecs.combine;
+import static carldav.repository.specification.ItemSpecs.parent;
+import static carldav.repository.specification.ItemSpecs.stamp;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Starts the application against the PostgreSQL migrations with the entities validated against them and runs
+ * calendar-query time ranges through {@link carldav.repository.specification.ItemSpecs#stamp} and the
+ * <code>timerange_overlaps</code> function of {@link carldav.repository.dialect.CarldavPostgreSQLDialect}.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = {CarldavApplication.class, PostgresItemRepositoryTest.EmbeddedDatabase.class})
+@WebIntegrationTest(randomPort = true)
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.database-platform=carldav.repository.dialect.CarldavPostgreSQLDialect",
+        "flyway.locations=classpath:db/migration/postgresql",
+        "carldav.query.range-operator=true"
+})
+@Transactional
+@Rollback
+public class PostgresItemRepositoryTest {
+
+    private static final long COLLECTION = 1000;
+    private static final Date START = date("2016-01-01 00:00:00+00");
+    private static final Date END = date("2016-01-02 00:00:00+00");
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void before() {
+        jdbcTemplate.update("insert into users (id, email, locked, password) values (1000, 'postgres@localhost', false, 'x')");
+        jdbcTemplate.update("insert into collection (id, displayname, itemname, ownerid, version) values (?, 'calendar', 'calendar', 1000, 0)", COLLECTION);
+    }
+
+    @Test
+    public void timeRangeMatchesOverlappingEvents() {
+        insertItem(1000, "overlapping", false, "2015-12-31 23:00:00+00", "2016-01-01 01:00:00+00");
+        insertItem(1001, "before", false, "2015-12-31 22:00:00+00", "2016-01-01 00:00:00+00");
+        insertItem(1002, "instant-at-start", false, "2016-01-01 00:00:00+00", "2016-01-01 00:00:00+00");
+        insertItem(1003, "instant-at-end", false, "2016-01-02 00:00:00+00", "2016-01-02 00:00:00+00");
+        insertItem(1004, "after", false, "2016-01-02 00:00:00+00", "2016-01-02 01:00:00+00");
+
+        assertEquals(Arrays.asList("instant-at-end.ics", "instant-at-start.ics", "overlapping.ics"), timeRange());
+    }
+
+    @Test
+    public void timeRangeMatchesRecurringEventsByOccurrence() {
+        insertItem(1000, "occurring", true, "2015-01-01 10:00:00+00", "2017-01-01 11:00:00+00");
+        insertItem(1001, "not-occurring", true, "2015-01-01 10:00:00+00", "2017-01-01 11:00:00+00");
+        insertOccurrence(1000, 1000, "2016-01-01 10:00:00+00", "2016-01-01 11:00:00+00");
+        insertOccurrence(1001, 1001, "2016-01-03 10:00:00+00", "2016-01-03 11:00:00+00");
+
+        assertEquals(Arrays.asList("occurring.ics"), timeRange());
+    }
+
+    private List<String> timeRange() {
+        final List<Item> items = itemRepository.findAll(combine(Arrays.asList(parent(COLLECTION), stamp(Item.Type.VEVENT, null, START, END, true))),
+                new Sort("name"));
+        return items.stream().map(Item::getName).collect(Collectors.toList());
+    }
+
+    private void insertItem(long id, String name, boolean recurring, String start, String end) {
+        jdbcTemplate.update("insert into item (id, displayname, mimetype, itemname, uid, type, recurring, collectionid, startdate, enddate, " +
+                "occurrencesuntil, version) values (?, ?, 'text/calendar', ?, ?, 'VEVENT', ?, ?, ?::timestamptz, ?::timestamptz, ?, 0)",
+                id, name, name + ".ics", name, recurring, COLLECTION, start, end, recurring ? date("2017-01-01 00:00:00+00") : null);
+    }
+
+    private void insertOccurrence(long id, long itemId, String start, String end) {
+        jdbcTemplate.update("insert into item_occurrence (id, itemid, startdate, enddate) values (?, ?, ?::timestamptz, ?::timestamptz)",
+                id, itemId, start, end);
+    }
+
+    private static Date date(String timestamp) {
+        return java.sql.Timestamp.from(java.time.OffsetDateTime.parse(timestamp.replace(' ', 'T') + ":00").toInstant());
+    }
+
+    @Configuration
+    static class EmbeddedDatabase {
+
+        @Bean(destroyMethod = "close")
+        public EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+            return embeddedPostgres.getPostgresDatabase();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package carldav.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Runs the PostgreSQL migrations against an embedded server and checks the time range semantics
+ * of <code>carldav_timerange</code> and that time range queries are answered from its index.
+ */
+public class PostgresSchemaTest {
+
+    private static final String OVERLAPS = "select count(*) from item " +
+            "where carldav_timerange(startdate, enddate) && tstzrange(?::timestamptz, ?::timestamptz, '[)')";
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        postgres = EmbeddedPostgres.start();
+
+        final Flyway flyway = new Flyway();
+        flyway.setDataSource(postgres.getPostgresDatabase());
+        flyway.setLocations("classpath:db/migration/postgresql");
+        flyway.migrate();
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        postgres.close();
+    }
+
+    @Before
+    public void before() throws Exception {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("delete from item");
+            statement.execute("delete from collection");
+            statement.execute("delete from users");
+            statement.execute("insert into users (id, email, locked, password) values (1, 'test@localhost', false, 'x')");
+            statement.execute("insert into collection (id, displayname, itemname, ownerid) values (1, 'calendar', 'calendar', 1)");
+        }
+    }
+
+    @Test
+    public void eventOverlapsHalfOpenRange() throws Exception {
+        insertItem(1, "2016-01-01 10:00:00+00", "2016-01-01 11:00:00+00");
+
+        assertEquals(1, count("2016-01-01 10:30:00+00", "2016-01-01 12:00:00+00"));
+        assertEquals(1, count("2016-01-01 09:00:00+00", "2016-01-01 10:30:00+00"));
+        assertEquals(0, count("2016-01-01 11:00:00+00", "2016-01-01 12:00:00+00"));
+        assertEquals(0, count("2016-01-01 09:00:00+00", "2016-01-01 10:00:00+00"));
+    }
+
+    @Test
+    public void instantOverlapsRangeStartingAtIt() throws Exception {
+        insertItem(1, "2016-01-01 10:00:00+00", "2016-01-01 10:00:00+00");
+
+        assertEquals(1, count("2016-01-01 10:00:00+00", "2016-01-01 11:00:00+00"));
+        assertEquals(0, count("2016-01-01 09:00:00+00", "2016-01-01 10:00:00+00"));
+    }
+
+    @Test
+    public void timeRangeQueryUsesIndex() throws Exception {
+        insertItem(1, "2016-01-01 10:00:00+00", "2016-01-01 11:00:00+00");
+
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            // one event per hour over several years, so a one day range is selective enough for the index
+            statement.execute("insert into item (id, displayname, mimetype, itemname, uid, collectionid, startdate, enddate) " +
+                    "select g, 'event', 'text/calendar', g || '.ics', g::text, 1, " +
+                    "timestamptz '2010-01-01 00:00:00+00' + g * interval '1 hour', timestamptz '2010-01-01 01:00:00+00' + g * interval '1 hour' " +
+                    "from generate_series(2, 50001) g");
+            statement.execute("analyze item");
+        }
+
+        final StringBuilder plan = new StringBuilder();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + OVERLAPS)) {
+                statement.setString(1, "2016-01-01 00:00:00+00");
+                statement.setString(2, "2016-01-02 00:00:00+00");
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1)).append('\n');
+                    }
+                }
+            }
+        }
+
+        assertThat(plan.toString(), containsString("idx_item_timerange"));
+    }
+
+    private static void insertItem(long id, String start, String end) throws Exception {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             PreparedStatement statement = connection.prepareStatement("insert into item " +
+                     "(id, displayname, mimetype, itemname, uid, collectionid, startdate, enddate) " +
+                     "values (?, 'event', 'text/calendar', ?, ?, 1, ?::timestamptz, ?::timestamptz)")) {
+            statement.setLong(1, id);
+            statement.setString(2, id + ".ics");
+            statement.setString(3, String.valueOf(id));
+            statement.setString(4, start);
+            statement.setString(5, end);
+            statement.executeUpdate();
+        }
+    }
+
+    private static long count(String start, String end) throws Exception {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             PreparedStatement statement = connection.prepareStatement(OVERLAPS)) {
+            statement.setString(1, start);
+            statement.setString(2, end);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+}
@@ -83,7 +83,7 @@ class DavDroidTests extends IntegrationTestSupport {
         mockMvc.perform(options("/dav/{email}/calendar", USER01))
                 .andExpect(status().isOk())
                 .andExpect(header().string("DAV", "1, 3, addressbook, calendar-access"))
-                .andExpect(header().string(ALLOW, "OPTIONS, GET, HEAD, TRACE, PROPFIND, PUT, DELETE, REPORT"))
+                .andExpect(header().string(ALLOW, "OPTIONS, GET, HEAD, TRACE, PROPFIND, PUT, POST, DELETE, REPORT"))
 
         def request2 = """\
                         <propfind xmlns="DAV:">
@@ -176,7 +176,7 @@ class DavDroidTests extends IntegrationTestSupport {
                                 <D:propstat>
                                     <D:prop>
                                         <D:displayname>calendarDisplayName</D:displayname>
-                                        <CS:getctag xmlns:CS="http://calendarserver.org/ns/">157565ba8b0d3652b027c868d554f914</CS:getctag>
+                                        <CS:getctag xmlns:CS="http://calendarserver.org/ns/">2-0</CS:getctag>
                                     </D:prop>
                                     <D:status>HTTP/1.1 200 OK</D:status>
                                 </D:propstat>
@@ -812,6 +812,182 @@ class DavDroidTests extends IntegrationTestSupport {
                 .andExpect(text(request1))
     }
 
+    @Test
+    void addressbookQueryWithPropFilter() {
+        addVCard()
+
+        def request1 = """\
+                            <CARD:addressbook-query xmlns="DAV:" xmlns:CARD="urn:ietf:params:xml:ns:carddav">
+                                <prop>
+                                    <getetag/>
+                                </prop>
+                                <CARD:filter test="allof">
+                                    <CARD:prop-filter name="EMAIL">
+                                        <CARD:text-match match-type="starts-with">EMAIL@</CARD:text-match>
+                                    </CARD:prop-filter>
+                                    <CARD:prop-filter name="TEL" test="allof">
+                                        <CARD:text-match match-type="equals">1111-1</CARD:text-match>
+                                        <CARD:text-match negate-condition="yes">0000</CARD:text-match>
+                                    </CARD:prop-filter>
+                                </CARD:filter>
+                            </CARD:addressbook-query>"""
+
+        def response1 = """\
+                            <D:multistatus xmlns:D="DAV:">
+                                <D:response>
+                                    <D:href>/carldav/dav/test01@localhost.de/contacts/d0f1d24e-2f4b-4318-b38c-92c6a0130c6a.vcf</D:href>
+                                    <D:propstat>
+                                        <D:prop>
+                                            <D:getetag>${currentEtag}</D:getetag>
+                                        </D:prop>
+                                        <D:status>HTTP/1.1 200 OK</D:status>
+                                    </D:propstat>
+                                </D:response>
+                            </D:multistatus>"""
+
+        mockMvc.perform(report("/dav/{email}/contacts/", USER01)
+                .contentType(APPLICATION_XML)
+                .content(request1)
+                .header("Depth", "1"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(textXmlContentType())
+                .andExpect(xml(response1))
+
+        def request2 = """\
+                            <CARD:addressbook-query xmlns="DAV:" xmlns:CARD="urn:ietf:params:xml:ns:carddav">
+                                <prop>
+                                    <getetag/>
+                                </prop>
+                                <CARD:filter>
+                                    <CARD:prop-filter name="FN">
+                                        <CARD:text-match collation="i;octet">last name</CARD:text-match>
+                                    </CARD:prop-filter>
+                                    <CARD:prop-filter name="UID">
+                                        <CARD:is-not-defined/>
+                                    </CARD:prop-filter>
+                                </CARD:filter>
+                            </CARD:addressbook-query>"""
+
+        mockMvc.perform(report("/dav/{email}/contacts/", USER01)
+                .contentType(APPLICATION_XML)
+                .content(request2)
+                .header("Depth", "1"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(textXmlContentType())
+                .andExpect(xml("""<D:multistatus xmlns:D="DAV:"/>"""))
+    }
+
+    @Test
+    void addressbookQueryNegatesTextMatchOverAllValues() {
+        addVCard()
+
+        def query = { String text -> """\
+                            <CARD:addressbook-query xmlns="DAV:" xmlns:CARD="urn:ietf:params:xml:ns:carddav">
+                                <prop>
+                                    <getetag/>
+                                </prop>
+                                <CARD:filter>
+                                    <CARD:prop-filter name="TEL">
+                                        <CARD:text-match negate-condition="yes">${text}</CARD:text-match>
+                                    </CARD:prop-filter>
+                                </CARD:filter>
+                            </CARD:addressbook-query>"""
+        }
+
+        mockMvc.perform(report("/dav/{email}/contacts/", USER01)
+                .contentType(APPLICATION_XML)
+                .content(query("1111"))
+                .header("Depth", "1"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(xml("""<D:multistatus xmlns:D="DAV:"/>"""))
+
+        def response = """\
+                            <D:multistatus xmlns:D="DAV:">
+                                <D:response>
+                                    <D:href>/carldav/dav/test01@localhost.de/contacts/d0f1d24e-2f4b-4318-b38c-92c6a0130c6a.vcf</D:href>
+                                    <D:propstat>
+                                        <D:prop>
+                                            <D:getetag>${currentEtag}</D:getetag>
+                                        </D:prop>
+                                        <D:status>HTTP/1.1 200 OK</D:status>
+                                    </D:propstat>
+                                </D:response>
+                            </D:multistatus>"""
+
+        mockMvc.perform(report("/dav/{email}/contacts/", USER01)
+                .contentType(APPLICATION_XML)
+                .content(query("0000"))
+                .header("Depth", "1"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(xml(response))
+    }
+
+    @Test
+    void addressbookQueryMatchesLongValuesInFull() {
+        def name = "x" * 1100 + " Tail"
+        def card = """\
+                        BEGIN:VCARD
+                        VERSION:4.0
+                        UID:long-name
+                        FN:${name}
+                        END:VCARD
+                        """.stripIndent()
+
+        def etag = mockMvc.perform(put("/dav/{email}/contacts/long-name.vcf", USER01)
+                .contentType(TEXT_VCARD)
+                .content(card)
+                .header("If-None-Match", "*"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader(ETAG)
+
+        def query = { String matchType, String text -> """\
+                            <CARD:addressbook-query xmlns="DAV:" xmlns:CARD="urn:ietf:params:xml:ns:carddav">
+                                <prop>
+                                    <getetag/>
+                                </prop>
+                                <CARD:filter>
+                                    <CARD:prop-filter name="FN">
+                                        <CARD:text-match match-type="${matchType}">${text}</CARD:text-match>
+                                    </CARD:prop-filter>
+                                </CARD:filter>
+                            </CARD:addressbook-query>"""
+        }
+
+        def match = """\
+                            <D:multistatus xmlns:D="DAV:">
+                                <D:response>
+                                    <D:href>/carldav/dav/test01@localhost.de/contacts/long-name.vcf</D:href>
+                                    <D:propstat>
+                                        <D:prop>
+                                            <D:getetag>${etag}</D:getetag>
+                                        </D:prop>
+                                        <D:status>HTTP/1.1 200 OK</D:status>
+                                    </D:propstat>
+                                </D:response>
+                            </D:multistatus>"""
+
+        mockMvc.perform(report("/dav/{email}/contacts/", USER01)
+                .contentType(APPLICATION_XML)
+                .content(query("ends-with", "tail"))
+                .header("Depth", "1"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(xml(match))
+
+        mockMvc.perform(report("/dav/{email}/contacts/", USER01)
+                .contentType(APPLICATION_XML)
+                .content(query("equals", name))
+                .header("Depth", "1"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(xml(match))
+
+        mockMvc.perform(report("/dav/{email}/contacts/", USER01)
+                .contentType(APPLICATION_XML)
+                .content(query("equals", "x" * 1024))
+                .header("Depth", "1"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(xml("""<D:multistatus xmlns:D="DAV:"/>"""))
+    }
+
     @Test
     void deleteVCard() {
         addVCard()
@@ -185,7 +185,7 @@ class IosTests extends IntegrationTestSupport {
                                     </D:propstat>
                                     <D:propstat>
                                         <D:prop>
-                                            <CS:getctag xmlns:CS="http://calendarserver.org/ns/">157565ba8b0d3652b027c868d554f914</CS:getctag>
+                                            <CS:getctag xmlns:CS="http://calendarserver.org/ns/">2-0</CS:getctag>
                                             <C:supported-calendar-component-set xmlns:C="urn:ietf:params:xml:ns:caldav">
                                                 <C:comp name="VEVENT"/>
                                                 <C:comp name="VJOURNAL"/>
@@ -920,6 +920,11 @@ class IosTests extends IntegrationTestSupport {
                                                         <CARD:addressbook-multiget xmlns:CARD="urn:ietf:params:xml:ns:carddav"/>
                                                     </D:report>
                                                 </D:supported-report>
+                                                <D:supported-report>
+                                                    <D:report>
+                                                        <D:sync-collection/>
+                                                    </D:report>
+                                                </D:supported-report>
                                             </D:supported-report-set>
                                             <D:resourcetype>
                                                 <D:collection/>
@@ -178,6 +178,11 @@ class ThunderbirdTests extends IntegrationTestSupport {
                                                   <C:calendar-query xmlns:C="urn:ietf:params:xml:ns:caldav"/>
                                                 </D:report>
                                               </D:supported-report>
+                                              <D:supported-report>
+                                                <D:report>
+                                                  <D:sync-collection/>
+                                                </D:report>
+                                              </D:supported-report>
                                         </D:supported-report-set>
                                         <D:resourcetype>
                                             <C:calendar xmlns:C="urn:ietf:params:xml:ns:caldav"/>
@@ -188,7 +193,7 @@ class ThunderbirdTests extends IntegrationTestSupport {
                                           <C:comp name="VJOURNAL"/>
                                           <C:comp name="VTODO"/>
                                         </C:supported-calendar-component-set>
-                                        <CS:getctag xmlns:CS="http://calendarserver.org/ns/">157565ba8b0d3652b027c868d554f914</CS:getctag>
+                                        <CS:getctag xmlns:CS="http://calendarserver.org/ns/">2-0</CS:getctag>
                                     </D:prop>
                                     <D:status>HTTP/1.1 200 OK</D:status>
                                 </D:propstat>
@@ -224,7 +229,7 @@ class ThunderbirdTests extends IntegrationTestSupport {
                                     </D:propstat>
                                     <D:propstat>
                                         <D:prop>
-                                            <D:getetag>"157565ba8b0d3652b027c868d554f914"</D:getetag>
+                                            <D:getetag>"2-0"</D:getetag>
                                             <D:resourcetype>
                                                 <C:calendar xmlns:C="urn:ietf:params:xml:ns:caldav"/>
                                                 <D:collection/>
@@ -992,6 +997,11 @@ class ThunderbirdTests extends IntegrationTestSupport {
                                                         <CARD:addressbook-query xmlns:CARD="urn:ietf:params:xml:ns:carddav"/>
                                                     </D:report>
                                                 </D:supported-report>
+                                                <D:supported-report>
+                                                    <D:report>
+                                                        <D:sync-collection/>
+                                                    </D:report>
+                                                </D:supported-report>
                                             </D:supported-report-set>
                                             <D:resourcetype>
                                                 <D:collection/>
@@ -1031,7 +1041,7 @@ class ThunderbirdTests extends IntegrationTestSupport {
                                     </D:propstat>
                                     <D:propstat>
                                         <D:prop>
-                                            <D:getetag>"6ae40e84e2caf8e8fea53ce5396de66f"</D:getetag>
+                                            <D:getetag>"3-0"</D:getetag>
                                         </D:prop>
                                         <D:status>HTTP/1.1 200 OK</D:status>
                                     </D:propstat>
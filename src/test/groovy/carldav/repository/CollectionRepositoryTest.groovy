@@ -0,0 +1,68 @@
+package carldav.repository
+
+import org.junit.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.unitedinternet.cosmo.IntegrationTestSupport
+
+import javax.persistence.EntityManager
+
+class CollectionRepositoryTest extends IntegrationTestSupport {
+
+    @Autowired
+    private CollectionRepository collectionRepository
+
+    @Autowired
+    private EntityManager entityManager
+
+    @Test
+    void advanceSyncTokenRefreshesLoadedCollection() {
+        def collection = collectionRepository.findOne(2L)
+        def before = collection.syncToken ?: 0L
+
+        assert collectionRepository.advanceSyncToken(collection, new Date(1000)) == before + 1
+        assert collectionRepository.advanceSyncToken(collection, new Date(2000)) == before + 2
+        assert collection.syncToken == before + 2
+        assert collection.modifiedDate.time == 2000
+    }
+
+    @Test
+    void advanceSyncTokenLeavesLoadedCollectionClean() {
+        def collection = collectionRepository.findOne(2L)
+
+        def syncToken = collectionRepository.advanceSyncToken(collection, new Date(1000))
+        entityManager.flush()
+
+        def row = entityManager.createNativeQuery("select synctoken, version from collection where id = 2").singleResult as Object[]
+        assert row[0] == syncToken
+        assert row[1] == collection.version
+    }
+
+    @Test
+    void advanceSyncTokenKeepsPendingChanges() {
+        def collection = collectionRepository.findOne(2L)
+        collection.oldestSyncToken = 1L
+
+        collectionRepository.advanceSyncToken(collection, new Date(1000))
+        entityManager.flush()
+        entityManager.clear()
+
+        assert collectionRepository.findOne(2L).oldestSyncToken == 1L
+    }
+
+    @Test
+    void staleCollectionKeepsConcurrentSyncToken() {
+        def collection = collectionRepository.findOne(2L)
+        def before = collection.syncToken ?: 0L
+
+        entityManager.createNativeQuery("update collection set synctoken = :syncToken where id = 2")
+                .setParameter("syncToken", before + 5)
+                .executeUpdate()
+        collection.oldestSyncToken = 1L
+        entityManager.flush()
+        entityManager.clear()
+
+        def reloaded = collectionRepository.findOne(2L)
+        assert reloaded.syncToken == before + 5
+        assert reloaded.oldestSyncToken == 1L
+    }
+}
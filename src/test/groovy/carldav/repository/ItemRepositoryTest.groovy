@@ -0,0 +1,81 @@
+package carldav.repository
+
+import carldav.entity.Item
+import org.hibernate.Hibernate
+import org.junit.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.unitedinternet.cosmo.IntegrationTestSupport
+
+import javax.persistence.EntityManager
+
+public class ItemRepositoryTest extends IntegrationTestSupport {
+
+    @Autowired
+    private ItemRepository itemRepository
+
+    @Autowired
+    private CollectionRepository collectionRepository
+
+    @Autowired
+    private EntityManager entityManager
+
+    @Test
+    public void summariesWithoutContent() {
+        def item = saveItem()
+
+        def summaries = itemRepository.findSummariesByCollectionId(2L)
+
+        assert summaries.size() == 1
+        def summary = summaries[0]
+        assert summary.id == item.id
+        assert summary.name == "name.ics"
+        assert summary.displayName == "displayName"
+        assert summary.uid == "uid"
+        assert summary.mimetype == "text/calendar"
+        assert summary.type == Item.Type.VEVENT
+        assert summary.modifiedDate == item.modifiedDate
+        assert summary.contentLength == 31
+        assert summary.calendar == null
+    }
+
+    @Test
+    public void summariesComputeMissingContentLength() {
+        def item = saveItem()
+        item.contentLength = null
+        item.calendar = "BEGIN:VCALENDAR\r\nX-NAME:\u00e4\r\nEND:VCALENDAR\r\n"
+        entityManager.flush()
+        entityManager.clear()
+
+        def summaries = itemRepository.findSummariesByCollectionId(2L)
+
+        assert summaries[0].contentLength == 43
+        assert summaries[0].calendar == null
+    }
+
+    @Test
+    public void contentLoadedOnAccess() {
+        def id = saveItem().id
+        entityManager.flush()
+        entityManager.clear()
+
+        def item = itemRepository.findOne(id)
+
+        assert !Hibernate.isInitialized(item.content)
+        assert item.calendar == "BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n"
+        assert Hibernate.isInitialized(item.content)
+    }
+
+    private Item saveItem() {
+        itemRepository.save(new Item(
+                uid: "uid",
+                displayName: "displayName",
+                mimetype: "text/calendar",
+                name: "name.ics",
+                type: Item.Type.VEVENT,
+                calendar: "BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n",
+                contentLength: 31,
+                modifiedDate: new Date(),
+                collection: collectionRepository.findOne(2L)
+        ))
+    }
+}
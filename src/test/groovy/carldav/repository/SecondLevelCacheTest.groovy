@@ -0,0 +1,63 @@
+package carldav.repository
+
+import carldav.entity.CollectionItem
+import carldav.entity.User
+import org.junit.Before
+import org.junit.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.security.test.context.support.WithUserDetails
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import org.unitedinternet.cosmo.IntegrationTestSupport
+
+import static org.springframework.http.MediaType.TEXT_XML
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+import static testutil.TestUser.USER01
+import static testutil.mockmvc.CustomRequestBuilders.propfind
+
+/**
+ * Runs without a test transaction, so every request has its own persistence context and
+ * entities not loaded from the database come from the second-level cache.
+ */
+@WithUserDetails(USER01)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest extends IntegrationTestSupport {
+
+    @Autowired
+    private SecondLevelCacheStatistics cacheStatistics
+
+    @Autowired
+    private UserRepository userRepository
+
+    @Before
+    void warmUp() {
+        propfindCalendar()
+        userRepository.findByEmailIgnoreCase(USER01)
+        cacheStatistics.clear()
+    }
+
+    @Test
+    void repeatedPropfindLoadsNoUserOrCollection() {
+        propfindCalendar()
+        propfindCalendar()
+
+        assert cacheStatistics.getEntityLoadCount(User) == 0
+        assert cacheStatistics.getEntityLoadCount(CollectionItem) == 0
+        assert cacheStatistics.regionStatistics[CollectionItem.name].hitCount > 0
+    }
+
+    @Test
+    void userByEmailFromQueryCache() {
+        assert userRepository.findByEmailIgnoreCase(USER01).email == USER01
+
+        assert cacheStatistics.queryCacheHitCount == 1
+        assert cacheStatistics.getEntityLoadCount(User) == 0
+    }
+
+    private void propfindCalendar() {
+        mockMvc.perform(propfind("/dav/{email}/calendar/", USER01)
+                .contentType(TEXT_XML)
+                .header("Depth", "1"))
+                .andExpect(status().isMultiStatus())
+    }
+}
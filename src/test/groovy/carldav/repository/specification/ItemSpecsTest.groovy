@@ -1,6 +1,7 @@
 package carldav.repository.specification
 
 import carldav.entity.Item
+import carldav.entity.ItemOccurrence
 import carldav.repository.CollectionRepository
 import carldav.repository.ItemRepository
 import org.junit.Before
@@ -144,4 +145,40 @@ public class ItemSpecsTest extends IntegrationTestSupport {
 
         assert itemRepository.findAll(ItemSpecs.stamp(null, null, startDate, endDate)) == [item]
     }
-}
\ No newline at end of file
+
+    @Test
+    public void stampRecurringMatchesOccurrencesOnly() {
+        Date occurrenceStart = Date.from(now.atStartOfDay().atZone(ZoneId.systemDefault()).toInstant())
+        Date occurrenceEnd = Date.from(now.atStartOfDay().plusHours(1).atZone(ZoneId.systemDefault()).toInstant())
+
+        item.setRecurring(true)
+        item.setOccurrencesUntil(item.getEndDate())
+        item.getOccurrences().add(new ItemOccurrence(item, occurrenceStart, occurrenceEnd))
+        item = itemRepository.save(item)
+
+        Date gapStart = Date.from(now.atStartOfDay().plusHours(2).atZone(ZoneId.systemDefault()).toInstant())
+        Date gapEnd = Date.from(now.atStartOfDay().plusHours(3).atZone(ZoneId.systemDefault()).toInstant())
+
+        assert itemRepository.findAll(ItemSpecs.stamp(null, null, gapStart, gapEnd)) == []
+        assert itemRepository.findAll(ItemSpecs.stamp(null, null, occurrenceStart, gapEnd)) == [item]
+    }
+
+    @Test
+    public void stampRecurringMatchesRangesBeforeOccurrences() {
+        Date occurrenceStart = Date.from(now.atStartOfDay().atZone(ZoneId.systemDefault()).toInstant())
+        Date occurrenceEnd = Date.from(now.atStartOfDay().plusHours(1).atZone(ZoneId.systemDefault()).toInstant())
+
+        item.setRecurring(true)
+        item.setOccurrencesFrom(occurrenceStart)
+        item.setOccurrencesUntil(item.getEndDate())
+        item.getOccurrences().add(new ItemOccurrence(item, occurrenceStart, occurrenceEnd))
+        item = itemRepository.save(item)
+
+        Date gapStart = Date.from(now.atStartOfDay().plusHours(2).atZone(ZoneId.systemDefault()).toInstant())
+        Date gapEnd = Date.from(now.atStartOfDay().plusHours(3).atZone(ZoneId.systemDefault()).toInstant())
+        Date before = Date.from(now.minusDays(1).atStartOfDay().atZone(ZoneId.systemDefault()).toInstant())
+
+        assert itemRepository.findAll(ItemSpecs.stamp(null, null, gapStart, gapEnd)) == []
+        assert itemRepository.findAll(ItemSpecs.stamp(null, null, before, occurrenceStart)) == [item]
+    }
+}
@@ -3,18 +3,26 @@ package dav
 import org.junit.Before
 import org.junit.Test
 import org.springframework.http.HttpHeaders
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.jdbc.core.JdbcTemplate
 import org.springframework.security.test.context.support.WithUserDetails
+import carldav.repository.ItemRepository
 import org.unitedinternet.cosmo.IntegrationTestSupport
 import testutil.builder.GeneralData
 
 import static org.hamcrest.Matchers.is
+import static org.hamcrest.Matchers.not
 import static org.hamcrest.Matchers.notNullValue
+import static org.springframework.http.MediaType.APPLICATION_XML
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
 import static testutil.TestUser.USER01
 import static testutil.builder.GeneralData.CALDAV_EVENT
+import static testutil.builder.GeneralData.CALDAV_EVENT2
+import static testutil.builder.GeneralData.UUID_EVENT2
 import static testutil.builder.GeneralResponse.PRECONDITION_FAILED_RESPONSE
 import static testutil.mockmvc.CustomMediaTypes.TEXT_CALENDAR
+import static testutil.mockmvc.CustomRequestBuilders.report
 import static testutil.mockmvc.CustomResultMatchers.etag
 import static testutil.mockmvc.CustomResultMatchers.xml
 
@@ -28,6 +36,12 @@ class EtagTests extends IntegrationTestSupport {
 
     def etag;
 
+    @Autowired
+    private ItemRepository itemRepository
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate
+
     @Before
     public void before() {
         etag = mockMvc.perform(put("/dav/{email}/calendar/{uuid}.ics", USER01, uuid)
@@ -75,4 +89,111 @@ class EtagTests extends IntegrationTestSupport {
                 .header("If-None-Match", etag))
                 .andExpect(status().isNotModified())
     }
+
+    @Test
+    public void user01IfMatchPutAdvancesEtag() throws Exception {
+        def updated = mockMvc.perform(put("/dav/{email}/calendar/{uuid}.ics", USER01, uuid)
+                .contentType(TEXT_CALENDAR)
+                .content(CALDAV_EVENT)
+                .header("If-Match", etag))
+                .andExpect(status().isNoContent())
+                .andExpect(etag(not(etag)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG)
+
+        mockMvc.perform(head("/dav/{email}/calendar/{uuid}.ics", USER01, uuid))
+                .andExpect(status().isOk())
+                .andExpect(etag(is(updated)))
+
+        mockMvc.perform(put("/dav/{email}/calendar/{uuid}.ics", USER01, uuid)
+                .contentType(TEXT_CALENDAR)
+                .content(CALDAV_EVENT)
+                .header("If-Match", etag))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(etag(is(updated)))
+    }
+
+    @Test
+    public void user01IfMatchDeleteWithStaleEtagIsPreconditionFailed() throws Exception {
+        mockMvc.perform(put("/dav/{email}/calendar/{uuid}.ics", USER01, uuid)
+                .contentType(TEXT_CALENDAR)
+                .content(CALDAV_EVENT))
+                .andExpect(status().isNoContent())
+
+        mockMvc.perform(delete("/dav/{email}/calendar/{uuid}.ics", USER01, uuid)
+                .header("If-Match", etag))
+                .andExpect(status().isPreconditionFailed())
+
+        mockMvc.perform(get("/dav/{email}/calendar/{uuid}.ics", USER01, uuid))
+                .andExpect(status().isOk())
+    }
+
+    @Test
+    public void user01TimeRangeReportKeepsEtagOfRecurringEvent() throws Exception {
+        def created = mockMvc.perform(put("/dav/{email}/calendar/{uuid}.ics", USER01, UUID_EVENT2)
+                .contentType(TEXT_CALENDAR)
+                .content(CALDAV_EVENT2))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG)
+
+        itemRepository.flush()
+
+        mockMvc.perform(head("/dav/{email}/calendar/{uuid}.ics", USER01, UUID_EVENT2))
+                .andExpect(status().isOk())
+                .andExpect(etag(is(created)))
+
+        def request = """\
+                        <C:calendar-query xmlns:C="urn:ietf:params:xml:ns:caldav" xmlns:D="DAV:">
+                          <D:prop>
+                            <D:getetag/>
+                          </D:prop>
+                          <C:filter>
+                            <C:comp-filter name="VCALENDAR">
+                              <C:comp-filter name="VEVENT">
+                                <C:time-range start="20151201T000000Z" end="20160101T000000Z"/>
+                              </C:comp-filter>
+                            </C:comp-filter>
+                          </C:filter>
+                        </C:calendar-query>"""
+
+        mockMvc.perform(report("/dav/{email}/calendar/", USER01)
+                .contentType(APPLICATION_XML)
+                .content(request)
+                .header("Depth", "1"))
+                .andExpect(status().isMultiStatus())
+
+        itemRepository.flush()
+
+        mockMvc.perform(head("/dav/{email}/calendar/{uuid}.ics", USER01, UUID_EVENT2))
+                .andExpect(status().isOk())
+                .andExpect(etag(is(created)))
+    }
+
+    @Test
+    public void user01PutOfConcurrentlyModifiedItemIsPreconditionFailed() throws Exception {
+        modifyConcurrently()
+
+        mockMvc.perform(put("/dav/{email}/calendar/{uuid}.ics", USER01, uuid)
+                .contentType(TEXT_CALENDAR)
+                .content(CALDAV_EVENT)
+                .header("If-Match", etag))
+                .andExpect(status().isPreconditionFailed())
+    }
+
+    @Test
+    public void user01DeleteOfConcurrentlyModifiedItemIsPreconditionFailed() throws Exception {
+        modifyConcurrently()
+
+        mockMvc.perform(delete("/dav/{email}/calendar/{uuid}.ics", USER01, uuid)
+                .header("If-Match", etag))
+                .andExpect(status().isPreconditionFailed())
+    }
+
+    /**
+     * Advances the version in the database behind the loaded item, so the If-Match check still
+     * passes and only the versioned UPDATE or DELETE detects the concurrent write.
+     */
+    private void modifyConcurrently() {
+        itemRepository.flush()
+        assert jdbcTemplate.update("update item set version = version + 1 where itemname = ?", uuid + ".ics") == 1
+    }
 }
@@ -0,0 +1,135 @@
+package dav
+
+import org.junit.Test
+import org.springframework.security.test.context.support.WithUserDetails
+import org.unitedinternet.cosmo.IntegrationTestSupport
+
+import static org.hamcrest.Matchers.containsString
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+import static testutil.TestUser.USER01
+import static testutil.mockmvc.CustomMediaTypes.TEXT_CALENDAR
+import static testutil.mockmvc.CustomResultMatchers.xml
+
+@WithUserDetails(USER01)
+class ImportTests extends IntegrationTestSupport {
+
+    def request = """\
+                    BEGIN:VCALENDAR
+                    VERSION:2.0
+                    PRODID:-//Example Corp.//CalDAV Client//EN
+                    BEGIN:VEVENT
+                    UID:import-1
+                    DTSTAMP:20160101T120000Z
+                    DTSTART:20160102T100000Z
+                    DTEND:20160102T110000Z
+                    SUMMARY:first
+                    END:VEVENT
+                    BEGIN:VEVENT
+                    UID:import-2
+                    DTSTAMP:20160101T120000Z
+                    DTSTART:20160103T100000Z
+                    DTEND:20160103T110000Z
+                    SUMMARY:second
+                    END:VEVENT
+                    END:VCALENDAR
+                    """.stripIndent()
+
+    @Test
+    void importCreatesOneMemberPerUid() {
+        def response = """\
+                        <D:multistatus xmlns:D="DAV:">
+                            <D:response>
+                                <D:href>/carldav/dav/test01@localhost.de/calendar/import-1.ics</D:href>
+                                <D:status>HTTP/1.1 201 Created</D:status>
+                            </D:response>
+                            <D:response>
+                                <D:href>/carldav/dav/test01@localhost.de/calendar/import-2.ics</D:href>
+                                <D:status>HTTP/1.1 201 Created</D:status>
+                            </D:response>
+                        </D:multistatus>"""
+
+        mockMvc.perform(post("/dav/{email}/calendar/", USER01)
+                .contentType(TEXT_CALENDAR)
+                .content(request))
+                .andExpect(status().isMultiStatus())
+                .andExpect(xml(response))
+
+        mockMvc.perform(get("/dav/{email}/calendar/import-2.ics", USER01))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("SUMMARY:second")))
+    }
+
+    @Test
+    void importSkipsExistingMembers() {
+        mockMvc.perform(post("/dav/{email}/calendar/", USER01)
+                .contentType(TEXT_CALENDAR)
+                .content(request))
+                .andExpect(status().isMultiStatus())
+
+        def response = """\
+                        <D:multistatus xmlns:D="DAV:">
+                            <D:response>
+                                <D:href>/carldav/dav/test01@localhost.de/calendar/import-1.ics</D:href>
+                                <D:status>HTTP/1.1 409 Conflict</D:status>
+                            </D:response>
+                            <D:response>
+                                <D:href>/carldav/dav/test01@localhost.de/calendar/import-2.ics</D:href>
+                                <D:status>HTTP/1.1 409 Conflict</D:status>
+                            </D:response>
+                        </D:multistatus>"""
+
+        mockMvc.perform(post("/dav/{email}/calendar/", USER01)
+                .contentType(TEXT_CALENDAR)
+                .content(request))
+                .andExpect(status().isMultiStatus())
+                .andExpect(xml(response))
+    }
+
+    @Test
+    void importSkipsExistingUids() {
+        def event = """\
+                    BEGIN:VCALENDAR
+                    VERSION:2.0
+                    PRODID:-//Example Corp.//CalDAV Client//EN
+                    BEGIN:VEVENT
+                    UID:import-1
+                    DTSTAMP:20160101T120000Z
+                    DTSTART:20160102T100000Z
+                    DTEND:20160102T110000Z
+                    SUMMARY:existing
+                    END:VEVENT
+                    END:VCALENDAR
+                    """.stripIndent()
+
+        mockMvc.perform(put("/dav/{email}/calendar/existing.ics", USER01)
+                .contentType(TEXT_CALENDAR)
+                .content(event))
+                .andExpect(status().isCreated())
+
+        def response = """\
+                        <D:multistatus xmlns:D="DAV:">
+                            <D:response>
+                                <D:href>/carldav/dav/test01@localhost.de/calendar/import-1.ics</D:href>
+                                <D:status>HTTP/1.1 409 Conflict</D:status>
+                            </D:response>
+                            <D:response>
+                                <D:href>/carldav/dav/test01@localhost.de/calendar/import-2.ics</D:href>
+                                <D:status>HTTP/1.1 201 Created</D:status>
+                            </D:response>
+                        </D:multistatus>"""
+
+        mockMvc.perform(post("/dav/{email}/calendar/", USER01)
+                .contentType(TEXT_CALENDAR)
+                .content(request))
+                .andExpect(status().isMultiStatus())
+                .andExpect(xml(response))
+
+        mockMvc.perform(get("/dav/{email}/calendar/existing.ics", USER01))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("SUMMARY:existing")))
+    }
+}
@@ -0,0 +1,36 @@
+package dav
+
+import org.junit.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.security.test.context.support.WithUserDetails
+import org.unitedinternet.cosmo.IntegrationTestSupport
+import org.unitedinternet.cosmo.dav.ResolutionCache
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+import static testutil.TestUser.USER01
+import static testutil.builder.GeneralData.CALDAV_EVENT
+import static testutil.builder.GeneralData.UUID
+import static testutil.mockmvc.CustomMediaTypes.TEXT_CALENDAR
+
+@WithUserDetails(USER01)
+class ResolutionCacheTests extends IntegrationTestSupport {
+
+    @Autowired
+    private ResolutionCache resolutionCache
+
+    @Test
+    void putResolvesParentCollectionOnce() {
+        def lookups = resolutionCache.lookupCount
+        def hits = resolutionCache.hitCount
+
+        mockMvc.perform(put("/dav/{email}/calendar/{uuid}.ics", USER01, UUID)
+                .contentType(TEXT_CALENDAR)
+                .content(CALDAV_EVENT))
+                .andExpect(status().isCreated())
+
+        // the target is missing, its parent collection is looked up for the new resource and again when adding it
+        assert resolutionCache.hitCount - hits >= 1
+        assert resolutionCache.lookupCount - lookups > resolutionCache.hitCount - hits
+    }
+}
@@ -0,0 +1,112 @@
+package dav
+
+import org.junit.Test
+import org.springframework.security.test.context.support.WithUserDetails
+import org.unitedinternet.cosmo.IntegrationTestSupport
+
+import static org.springframework.http.HttpHeaders.ETAG
+import static org.springframework.http.MediaType.APPLICATION_XML
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+import static testutil.TestUser.USER01
+import static testutil.builder.GeneralData.CALDAV_EVENT
+import static testutil.builder.GeneralData.UUID
+import static testutil.mockmvc.CustomMediaTypes.TEXT_CALENDAR
+import static testutil.mockmvc.CustomRequestBuilders.report
+import static testutil.mockmvc.CustomResultMatchers.textXmlContentType
+import static testutil.mockmvc.CustomResultMatchers.xml
+
+@WithUserDetails(USER01)
+class SyncCollectionTests extends IntegrationTestSupport {
+
+    @Test
+    void deltaContainsChangedAndDeletedMembers() {
+        def token1 = syncToken(sync(""))
+
+        def etag = mockMvc.perform(put("/dav/{email}/calendar/{uuid}.ics", USER01, UUID)
+                .contentType(TEXT_CALENDAR)
+                .content(CALDAV_EVENT))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader(ETAG)
+
+        def result1 = sync(token1)
+        def token2 = syncToken(result1)
+
+        def response1 = """\
+                        <D:multistatus xmlns:D="DAV:">
+                            <D:response>
+                                <D:href>/carldav/dav/test01@localhost.de/calendar/${UUID}.ics</D:href>
+                                <D:propstat>
+                                    <D:prop>
+                                        <D:getetag>${etag}</D:getetag>
+                                    </D:prop>
+                                    <D:status>HTTP/1.1 200 OK</D:status>
+                                </D:propstat>
+                            </D:response>
+                            <D:sync-token>${token2}</D:sync-token>
+                        </D:multistatus>"""
+
+        mockMvc.perform(report("/dav/{email}/calendar/", USER01)
+                .contentType(APPLICATION_XML)
+                .content(request(token1)))
+                .andExpect(status().isMultiStatus())
+                .andExpect(xml(response1))
+
+        mockMvc.perform(delete("/dav/{email}/calendar/{uuid}.ics", USER01, UUID))
+                .andExpect(status().isNoContent())
+
+        def response2 = """\
+                        <D:multistatus xmlns:D="DAV:">
+                            <D:response>
+                                <D:href>/carldav/dav/test01@localhost.de/calendar/${UUID}.ics</D:href>
+                                <D:status>HTTP/1.1 404 Not Found</D:status>
+                            </D:response>
+                            <D:sync-token>data:,${token2.substring(6).toLong() + 1}</D:sync-token>
+                        </D:multistatus>"""
+
+        mockMvc.perform(report("/dav/{email}/calendar/", USER01)
+                .contentType(APPLICATION_XML)
+                .content(request(token2)))
+                .andExpect(status().isMultiStatus())
+                .andExpect(xml(response2))
+    }
+
+    @Test
+    void unknownSyncToken() {
+        def response = """\
+                        <D:error xmlns:cosmo="http://osafoundation.org/cosmo/DAV" xmlns:D="DAV:">
+                            <D:valid-sync-token/>
+                        </D:error>"""
+
+        mockMvc.perform(report("/dav/{email}/calendar/", USER01)
+                .contentType(APPLICATION_XML)
+                .content(request("data:,999999")))
+                .andExpect(status().isForbidden())
+                .andExpect(xml(response))
+    }
+
+    private String sync(String token) {
+        return mockMvc.perform(report("/dav/{email}/calendar/", USER01)
+                .contentType(APPLICATION_XML)
+                .content(request(token)))
+                .andExpect(status().isMultiStatus())
+                .andExpect(textXmlContentType())
+                .andReturn().getResponse().getContentAsString()
+    }
+
+    private static String syncToken(String result) {
+        return new XmlSlurper().parseText(result).'sync-token'.text()
+    }
+
+    private static String request(String token) {
+        return """\
+                <D:sync-collection xmlns:D="DAV:">
+                    <D:sync-token>${token}</D:sync-token>
+                    <D:sync-level>1</D:sync-level>
+                    <D:prop>
+                        <D:getetag/>
+                    </D:prop>
+                </D:sync-collection>"""
+    }
+}
@@ -129,6 +129,55 @@ public class CalendarTests extends IntegrationTestSupport {
                 .andExpect(xml(response));
     }
 
+    @Test
+    public void multigetReturnsNotFoundForMissingMembers() throws Exception {
+        final MvcResult mvcResult = mockMvc.perform(put("/dav/{email}/calendar/{uuid}.ics", USER01, uuid)
+                .contentType(TEXT_CALENDAR)
+                .content(CALDAV_EVENT))
+                .andExpect(status().isCreated())
+                .andExpect(etag(notNullValue()))
+                .andReturn();
+
+        final String eTag = mvcResult.getResponse().getHeader(ETAG);
+
+        def getRequest = """\
+                        <C:calendar-multiget xmlns:D="DAV:" xmlns:C="urn:ietf:params:xml:ns:caldav">
+                            <D:prop>
+                                <D:getetag />
+                            </D:prop>
+                            <D:href>/carldav/dav/test01@localhost.de/calendar/missing1.ics</D:href>
+                            <D:href>/carldav/dav/test01@localhost.de/calendar/59BC120D-E909-4A56-A70D-8E97914E51A3.ics</D:href>
+                            <D:href>/carldav/dav/test01@localhost.de/calendar/missing2.ics</D:href>
+                        </C:calendar-multiget>"""
+
+        def response = """\
+                        <D:multistatus xmlns:D="DAV:">
+                            <D:response>
+                                <D:href>/carldav/dav/test01@localhost.de/calendar/missing1.ics</D:href>
+                                <D:status>HTTP/1.1 404 Not Found</D:status>
+                            </D:response>
+                            <D:response>
+                                <D:href>/carldav/dav/test01@localhost.de/calendar/59BC120D-E909-4A56-A70D-8E97914E51A3.ics</D:href>
+                                <D:propstat>
+                                    <D:prop>
+                                        <D:getetag>${eTag}</D:getetag>
+                                    </D:prop>
+                                    <D:status>HTTP/1.1 200 OK</D:status>
+                                </D:propstat>
+                            </D:response>
+                            <D:response>
+                                <D:href>/carldav/dav/test01@localhost.de/calendar/missing2.ics</D:href>
+                                <D:status>HTTP/1.1 404 Not Found</D:status>
+                            </D:response>
+                        </D:multistatus>"""
+
+        mockMvc.perform(report("/dav/{email}/calendar/", USER01)
+                .content(getRequest)
+                .contentType(TEXT_XML))
+                .andExpect(textXmlContentType())
+                .andExpect(xml(response));
+    }
+
     @Test
     public void putCalendarItem() throws Exception {
         final MvcResult mvcResult = mockMvc.perform(put("/dav/{email}/calendar/{uuid}.ics", USER01, uuid2)
@@ -403,7 +452,7 @@ public class CalendarTests extends IntegrationTestSupport {
                                 <D:href>/carldav/dav/test01@localhost.de/calendar/</D:href>
                                 <D:propstat>
                                     <D:prop>
-                                        <D:getetag>"157565ba8b0d3652b027c868d554f914"</D:getetag>
+                                        <D:getetag>"2-0"</D:getetag>
                                         <C:supported-calendar-data xmlns:C="urn:ietf:params:xml:ns:caldav">
                                             <C:calendar-data C:content-type="text/calendar" C:version="2.0"/>
                                         </C:supported-calendar-data>
@@ -420,6 +469,11 @@ public class CalendarTests extends IntegrationTestSupport {
                                                     <C:calendar-multiget xmlns:C="urn:ietf:params:xml:ns:caldav"/>
                                                   </D:report>
                                                 </D:supported-report>
+                                                <D:supported-report>
+                                                  <D:report>
+                                                    <D:sync-collection/>
+                                                  </D:report>
+                                                </D:supported-report>
                                         </D:supported-report-set>
                                         <D:resourcetype>
                                             <C:calendar xmlns:C="urn:ietf:params:xml:ns:caldav"/>
@@ -438,7 +492,7 @@ public class CalendarTests extends IntegrationTestSupport {
                                             <C:comp name="VJOURNAL"/>
                                             <C:comp name="VTODO"/>
                                         </C:supported-calendar-component-set>
-                                        <CS:getctag xmlns:CS="http://calendarserver.org/ns/">157565ba8b0d3652b027c868d554f914</CS:getctag>
+                                        <CS:getctag xmlns:CS="http://calendarserver.org/ns/">2-0</CS:getctag>
                                     </D:prop>
                                     <D:status>HTTP/1.1 200 OK</D:status>
                                 </D:propstat>
@@ -1499,7 +1553,8 @@ public class CalendarTests extends IntegrationTestSupport {
                             <dt>{urn:ietf:params:xml:ns:caldav}supported-calendar-component-set</dt><dd>VEVENT, VJOURNAL, VTODO</dd>
                             <dt>{urn:ietf:params:xml:ns:caldav}supported-calendar-data</dt><dd>-- no value --</dd>
                             <dt>{urn:ietf:params:xml:ns:caldav}supported-collation-set</dt><dd>i;ascii-casemap, i;octet</dd>
-                            <dt>{DAV:}supported-report-set</dt><dd>{urn:ietf:params:xml:ns:caldav}calendar-multiget, {urn:ietf:params:xml:ns:caldav}calendar-query</dd>
+                            <dt>{DAV:}supported-report-set</dt><dd>{DAV:}sync-collection, {urn:ietf:params:xml:ns:caldav}calendar-multiget, {urn:ietf:params:xml:ns:caldav}calendar-query</dd>
+                            <dt>{DAV:}sync-token</dt><dd>data:,1</dd>
                             </dl>
                             <p>
                             <a href="/carldav/dav/test01@localhost.de/">Home collection</a><br>
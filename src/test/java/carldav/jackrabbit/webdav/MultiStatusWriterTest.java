@@ -0,0 +1,101 @@
+package carldav.jackrabbit.webdav;
+
+import carldav.jackrabbit.webdav.xml.StaxUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.unitedinternet.cosmo.dav.DavResourceLocator;
+import org.unitedinternet.cosmo.dav.caldav.property.CalendarHomeSet;
+import org.unitedinternet.cosmo.dav.property.StandardDavProperty;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static carldav.CarldavConstants.DISPLAY_NAME;
+import static carldav.CarldavConstants.NS_C;
+import static carldav.CarldavConstants.NS_CALDAV;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MultiStatusWriterTest {
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final MultiStatusWriter uut = new MultiStatusWriter(response);
+
+    @Test
+    public void writesNothingBeforeFirstResponse() {
+        Assert.assertEquals(200, response.getStatus());
+        Assert.assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void streamsResponsesAndSyncToken() throws Exception {
+        uut.write(new MultiStatusResponse("/dav/user/calendar/a.ics", 200));
+        uut.write(new MultiStatusResponse("/dav/user/calendar/b.ics", 404));
+        uut.close("token");
+
+        Assert.assertEquals(207, response.getStatus());
+        Assert.assertEquals("text/xml;charset=UTF-8", response.getContentType().replace(" ", ""));
+
+        Element multistatus = parse(response.getContentAsByteArray());
+        Assert.assertEquals("multistatus", multistatus.getLocalName());
+        Assert.assertEquals(NS_CALDAV, multistatus.getNamespaceURI());
+
+        NodeList hrefs = multistatus.getElementsByTagNameNS(NS_CALDAV, "href");
+        Assert.assertEquals(2, hrefs.getLength());
+        Assert.assertEquals("/dav/user/calendar/a.ics", hrefs.item(0).getTextContent());
+        Assert.assertEquals("/dav/user/calendar/b.ics", hrefs.item(1).getTextContent());
+        Assert.assertTrue(multistatus.getElementsByTagNameNS(NS_CALDAV, "status").item(1).getTextContent().contains("404"));
+        Assert.assertEquals("token", multistatus.getElementsByTagNameNS(NS_CALDAV, "sync-token").item(0).getTextContent());
+    }
+
+    @Test
+    public void closeWithoutResponsesWritesEmptyMultistatus() throws Exception {
+        uut.close();
+
+        Element multistatus = parse(response.getContentAsByteArray());
+        Assert.assertEquals("multistatus", multistatus.getLocalName());
+        Assert.assertEquals(0, multistatus.getChildNodes().getLength());
+    }
+
+    @Test
+    public void keepsCarriageReturnsOfStreamedValues() throws Exception {
+        String streamed = write(new StandardDavProperty(DISPLAY_NAME, "line\r\nbreak"));
+
+        Assert.assertTrue(streamed.contains("line&#13;\nbreak"));
+        Assert.assertEquals("line\r\nbreak", parse(streamed.getBytes("UTF-8")).getTextContent());
+    }
+
+    @Test
+    public void copiesPropertiesWithCustomXmlFromDocument() throws Exception {
+        DavResourceLocator locator = mock(DavResourceLocator.class);
+        when(locator.contextPath()).thenReturn("carldav");
+
+        Element homeSet = parse(write(new CalendarHomeSet(locator, "user")).getBytes("UTF-8"));
+
+        Assert.assertEquals("calendar-home-set", homeSet.getLocalName());
+        Assert.assertEquals(NS_C, homeSet.getNamespaceURI());
+        Element href = (Element) homeSet.getElementsByTagNameNS(NS_CALDAV, "href").item(0);
+        Assert.assertTrue(href.getTextContent().startsWith("/carldav/dav/user"));
+    }
+
+    private static String write(StandardDavProperty property) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XMLStreamWriter writer = StaxUtils.createWriter(out);
+        StaxUtils.write(writer, property);
+        writer.flush();
+        return out.toString("UTF-8");
+    }
+
+    private static Element parse(byte[] xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+        return document.getDocumentElement();
+    }
+}
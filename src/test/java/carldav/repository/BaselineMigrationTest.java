@@ -0,0 +1,72 @@
+package carldav.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Upgrades a database created by the release before Flyway was introduced and checks that it ends
+ * up with the same schema as a database migrated from scratch.
+ */
+public class BaselineMigrationTest {
+
+    private static final String COLUMNS = "select table_name, column_name, data_type, is_nullable " +
+            "from information_schema.columns where table_schema = 'PUBLIC' and lower(table_name) <> 'schema_version' " +
+            "order by table_name, column_name";
+
+    @Test
+    public void baselineSchemaMigratesToCurrentSchema() throws Exception {
+        final String baseline = "jdbc:hsqldb:mem:baseline";
+        try (Connection connection = DriverManager.getConnection(baseline, "SA", "")) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/baseline/hsqldb-schema.sql"));
+            migrate(baseline);
+
+            final String fresh = "jdbc:hsqldb:mem:fresh";
+            migrate(fresh);
+            try (Connection freshConnection = DriverManager.getConnection(fresh, "SA", "")) {
+                assertEquals(columns(freshConnection), columns(connection));
+            }
+
+            assertEquals(1, count(connection, "select count(*) from item i join item_content c on i.contentid = c.id"));
+            assertEquals(0, count(connection, "select count(*) from item where occurrencesuntil is not null or contentlength is not null"));
+        }
+    }
+
+    private static void migrate(String url) {
+        final Flyway flyway = new Flyway();
+        flyway.setDataSource(url, "SA", "");
+        flyway.setLocations("classpath:db/migration/hsqldb");
+        flyway.setBaselineOnMigrate(true);
+        flyway.migrate();
+    }
+
+    private static List<String> columns(Connection connection) throws SQLException {
+        final List<String> columns = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(COLUMNS)) {
+            while (resultSet.next()) {
+                columns.add(resultSet.getString(1) + "." + resultSet.getString(2) + " " + resultSet.getString(3) + " " + resultSet.getString(4));
+            }
+        }
+        return columns;
+    }
+
+    private static long count(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package carldav.repository;
+
+import carldav.entity.CollectionItem;
+import carldav.entity.User;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CollectionLookupCacheTest {
+
+    private final CollectionRepository collectionRepository = mock(CollectionRepository.class);
+    private final CollectionLookupCache uut = new CollectionLookupCache(collectionRepository, 2);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void hitLoadsByPrimaryKey() {
+        final CollectionItem calendar = collection(1L, "user", "calendar");
+        when(collectionRepository.findOne(1L)).thenReturn(calendar);
+
+        uut.get("user", "calendar", () -> load(calendar));
+
+        Assert.assertSame(calendar, uut.get("user", "calendar", () -> load(calendar)));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, uut.getHitCount());
+        Assert.assertEquals(1, uut.getMissCount());
+    }
+
+    @Test
+    public void ownersAreSeparated() {
+        final CollectionItem calendar = collection(1L, "user", "calendar");
+        final CollectionItem other = collection(2L, "other", "calendar");
+
+        uut.get("user", "calendar", () -> load(calendar));
+
+        Assert.assertSame(other, uut.get("other", "calendar", () -> load(other)));
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void loadsAgainIfCollectionIsGone() {
+        final CollectionItem calendar = collection(1L, "user", "calendar");
+
+        uut.get("user", "calendar", () -> load(calendar));
+        uut.get("user", "calendar", () -> load(calendar));
+
+        Assert.assertEquals(2, loads.get());
+        Assert.assertEquals(0, uut.getHitCount());
+    }
+
+    @Test
+    public void evictsRemovedCollection() {
+        final CollectionItem calendar = collection(1L, "user", "calendar");
+        when(collectionRepository.findOne(1L)).thenReturn(calendar);
+
+        uut.get("user", "calendar", () -> load(calendar));
+        uut.evict(calendar);
+
+        Assert.assertEquals(0, uut.size());
+    }
+
+    @Test
+    public void evictsOwner() {
+        uut.get("user", "calendar", () -> load(collection(1L, "user", "calendar")));
+        uut.get("user", null, () -> load(collection(2L, "user", "user")));
+
+        uut.evictOwner("user");
+
+        Assert.assertEquals(0, uut.size());
+    }
+
+    @Test
+    public void boundedByMaxEntries() {
+        uut.get("user", "calendar", () -> load(collection(1L, "user", "calendar")));
+        uut.get("user", "contacts", () -> load(collection(2L, "user", "contacts")));
+        uut.get("user", null, () -> load(collection(3L, "user", "user")));
+
+        Assert.assertEquals(2, uut.size());
+    }
+
+    private CollectionItem load(CollectionItem collection) {
+        loads.incrementAndGet();
+        return collection;
+    }
+
+    private static CollectionItem collection(Long id, String owner, String name) {
+        final User user = new User();
+        user.setEmail(owner);
+        final CollectionItem collection = new CollectionItem();
+        collection.setId(id);
+        collection.setName(name);
+        collection.setOwner(user);
+        return collection;
+    }
+}
@@ -0,0 +1,115 @@
+package carldav.repository;
+
+import carldav.entity.Item;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.unitedinternet.cosmo.IntegrationTestSupport;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static carldav.repository.specification.ItemSpecs.combine;
+import static carldav.repository.specification.ItemSpecs.parent;
+import static carldav.repository.specification.ItemSpecs.stamp;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Runs the hot repository queries, captures the SQL Hibernate generates for them with
+ * {@link RecordingStatementInspector} and checks that every statement is answered from indexes
+ * of the migrated schema.
+ */
+@WithUserDetails("test01@localhost.de")
+public class QueryPlanTest extends IntegrationTestSupport {
+
+    private static final Long CALENDAR = 2L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CollectionRepository collectionRepository;
+
+    @Test
+    public void membersByCollectionAndType() {
+        RecordingStatementInspector.start();
+        itemRepository.findByCollectionIdAndTypeOrderByNameAsc(CALENDAR, Item.Type.VEVENT);
+        assertNoFullScan(RecordingStatementInspector.stop());
+    }
+
+    @Test
+    public void membersByCollectionAndNames() {
+        RecordingStatementInspector.start();
+        itemRepository.findByCollectionIdAndNameIn(CALENDAR, Arrays.asList("a.ics", "b.ics"));
+        assertNoFullScan(RecordingStatementInspector.stop());
+    }
+
+    @Test
+    public void memberSummariesByCollection() {
+        RecordingStatementInspector.start();
+        itemRepository.findSummariesByCollectionId(CALENDAR);
+        assertNoFullScan(RecordingStatementInspector.stop());
+    }
+
+    @Test
+    public void memberByOwnerCollectionAndName() {
+        RecordingStatementInspector.start();
+        itemRepository.findByCurrentOwnerEmailAndCollectionNameAndName("calendar", "a.ics");
+        assertNoFullScan(RecordingStatementInspector.stop());
+    }
+
+    @Test
+    public void membersByCollectionTypeAndTimeRange() {
+        final Date start = new Date(1451606400000L);
+        final Date end = new Date(1454284800000L);
+
+        RecordingStatementInspector.start();
+        itemRepository.findAll(combine(Arrays.asList(parent(CALENDAR), stamp(Item.Type.VEVENT, null, start, end, false))), new Sort("name"));
+        assertNoFullScan(RecordingStatementInspector.stop());
+    }
+
+    @Test
+    public void collectionByOwnerAndName() {
+        RecordingStatementInspector.start();
+        collectionRepository.findByCurrentOwnerEmailAndName("calendar");
+        assertNoFullScan(RecordingStatementInspector.stop());
+    }
+
+    private void assertNoFullScan(List<String> statements) {
+        assertThat(statements, not(empty()));
+        for (final String sql : statements) {
+            assertThat(sql, explain(sql), not(containsString("FULL SCAN")));
+        }
+    }
+
+    /**
+     * HSQLDB compiles the plan when the statement is prepared, the values bound to the parameters don't matter.
+     */
+    private String explain(String sql) {
+        return jdbcTemplate.execute("explain plan for " + sql, (PreparedStatement statement) -> {
+            final ParameterMetaData parameters = statement.getParameterMetaData();
+            for (int index = 1; index <= parameters.getParameterCount(); index++) {
+                statement.setNull(index, parameters.getParameterType(index));
+            }
+            final StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        });
+    }
+}
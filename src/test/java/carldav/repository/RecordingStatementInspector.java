@@ -0,0 +1,36 @@
+package carldav.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate sends to the database between {@link #start()} and {@link #stop()}.
+ * Registered through <code>hibernate.session_factory.statement_inspector</code> in the test properties.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+    private static boolean recording;
+
+    public static synchronized void start() {
+        STATEMENTS.clear();
+        recording = true;
+    }
+
+    public static synchronized List<String> stop() {
+        recording = false;
+        return new ArrayList<>(STATEMENTS);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (RecordingStatementInspector.class) {
+            if (recording) {
+                STATEMENTS.add(sql);
+            }
+        }
+        return sql;
+    }
+}
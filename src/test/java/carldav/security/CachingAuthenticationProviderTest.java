@@ -0,0 +1,87 @@
+package carldav.security;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingAuthenticationProviderTest {
+
+    private final AtomicLong time = new AtomicLong();
+    private final AuthenticationCache cache = new AuthenticationCache(10, 60, time::get);
+    private final AuthenticationProvider delegate = mock(AuthenticationProvider.class);
+    private final CachingAuthenticationProvider uut = new CachingAuthenticationProvider(delegate, cache);
+
+    @Test
+    public void cachesSuccessfulAuthentication() {
+        when(delegate.authenticate(any(Authentication.class))).thenReturn(authenticated("user"));
+
+        uut.authenticate(request("user", "secret"));
+        final Authentication result = uut.authenticate(request("user", "secret"));
+
+        Assert.assertTrue(result.isAuthenticated());
+        Assert.assertEquals("user", result.getName());
+        verify(delegate, times(1)).authenticate(any(Authentication.class));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getLoadCount());
+    }
+
+    @Test
+    public void differentPasswordIsVerifiedAgain() {
+        when(delegate.authenticate(any(Authentication.class)))
+                .thenReturn(authenticated("user"))
+                .thenThrow(new BadCredentialsException("bad"));
+
+        uut.authenticate(request("user", "secret"));
+        try {
+            uut.authenticate(request("user", "wrong"));
+            Assert.fail("expected BadCredentialsException");
+        } catch (BadCredentialsException expected) {
+            // expected
+        }
+
+        verify(delegate, times(2)).authenticate(any(Authentication.class));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void expiresAfterTtl() {
+        when(delegate.authenticate(any(Authentication.class))).thenReturn(authenticated("user"));
+
+        uut.authenticate(request("user", "secret"));
+        time.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        uut.authenticate(request("user", "secret"));
+
+        verify(delegate, times(2)).authenticate(any(Authentication.class));
+    }
+
+    @Test
+    public void invalidateIgnoresCase() {
+        when(delegate.authenticate(any(Authentication.class))).thenReturn(authenticated("User"));
+
+        uut.authenticate(request("User", "secret"));
+        cache.invalidate("user");
+
+        Assert.assertEquals(0, cache.size());
+    }
+
+    private static Authentication request(String username, String password) {
+        return new UsernamePasswordAuthenticationToken(username, password);
+    }
+
+    private static Authentication authenticated(String username) {
+        return new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+    }
+}
@@ -0,0 +1,152 @@
+package org.unitedinternet.cosmo.calendar;
+
+import carldav.entity.Item;
+import net.fortuna.ical4j.model.Calendar;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+public class CalendarCacheTest {
+
+    private final AtomicInteger parsed = new AtomicInteger();
+    private final Function<Item, Calendar> parser = item -> {
+        parsed.incrementAndGet();
+        return new Calendar();
+    };
+
+    @Test
+    public void hitForSameIdAndModifiedDate() {
+        CalendarCache cache = new CalendarCache(100);
+        Item item = item(1L, "0123456789", new Date(1));
+
+        Calendar first = cache.get(item, parser);
+        Calendar second = cache.get(item, parser);
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, parsed.get());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void missAfterModification() {
+        CalendarCache cache = new CalendarCache(100);
+        Item item = item(1L, "0123456789", new Date(1));
+
+        cache.get(item, parser);
+        item.setModifiedDate(new Date(2));
+        cache.get(item, parser);
+
+        Assert.assertEquals(2, parsed.get());
+    }
+
+    @Test
+    public void invalidateDropsAllVersions() {
+        CalendarCache cache = new CalendarCache(100);
+        Item item = item(1L, "0123456789", new Date(1));
+
+        cache.get(item, parser);
+        item.setModifiedDate(new Date(2));
+        cache.get(item, parser);
+        cache.invalidate(item);
+
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedByWeight() {
+        CalendarCache cache = new CalendarCache(20);
+        Item first = item(1L, "0123456789", new Date(1));
+        Item second = item(2L, "0123456789", new Date(1));
+        Item third = item(3L, "0123456789", new Date(1));
+
+        cache.get(first, parser);
+        cache.get(second, parser);
+        cache.get(first, parser);
+        cache.get(third, parser);
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+
+        cache.get(first, parser);
+        Assert.assertEquals(3, parsed.get());
+    }
+
+    @Test
+    public void oversizedContentIsNotCached() {
+        CalendarCache cache = new CalendarCache(5);
+        Item item = item(1L, "0123456789", new Date(1));
+
+        cache.get(item, parser);
+        cache.get(item, parser);
+
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(2, parsed.get());
+    }
+
+    @Test
+    public void putSeedsCalendar() {
+        CalendarCache cache = new CalendarCache(100);
+        Item item = item(1L, "0123456789", new Date(1));
+        Calendar calendar = new Calendar();
+
+        cache.put(item, calendar);
+
+        Assert.assertSame(calendar, cache.get(item, parser));
+        Assert.assertEquals(0, parsed.get());
+    }
+
+    @Test
+    public void hitDoesNotLoadContent() {
+        CalendarCache cache = new CalendarCache(100);
+        AtomicInteger contentReads = new AtomicInteger();
+        Item item = new Item(Item.Type.VEVENT) {
+            @Override
+            public String getCalendar() {
+                contentReads.incrementAndGet();
+                return super.getCalendar();
+            }
+        };
+        item.setId(1L);
+        item.setCalendar("0123456789");
+        item.setContentLength(10L);
+        item.setModifiedDate(new Date(1));
+
+        cache.get(item, parser);
+        cache.get(item, parser);
+
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(10, cache.getWeight());
+        Assert.assertEquals(0, contentReads.get());
+    }
+
+    @Test
+    public void otherThreadsParseTheirOwnCalendar() throws Exception {
+        CalendarCache cache = new CalendarCache(100);
+        Item item = item(1L, "0123456789", new Date(1));
+        Calendar first = cache.get(item, parser);
+
+        AtomicReference<Calendar> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(cache.get(item, parser)));
+        thread.start();
+        thread.join();
+
+        Assert.assertNotSame(first, other.get());
+        Assert.assertEquals(2, parsed.get());
+        Assert.assertEquals(2, cache.getMissCount());
+        Assert.assertSame(first, cache.get(item, parser));
+    }
+
+    private static Item item(Long id, String calendar, Date modifiedDate) {
+        Item item = new Item(Item.Type.VEVENT);
+        item.setId(id);
+        item.setCalendar(calendar);
+        item.setModifiedDate(modifiedDate);
+        return item;
+    }
+}
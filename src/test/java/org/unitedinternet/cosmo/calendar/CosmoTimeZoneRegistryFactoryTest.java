@@ -0,0 +1,125 @@
+package org.unitedinternet.cosmo.calendar;
+
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
+import net.fortuna.ical4j.model.component.VEvent;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.unitedinternet.cosmo.calendar.util.CalendarUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CosmoTimeZoneRegistryFactoryTest {
+
+    @Before
+    public void before() {
+        CosmoTimeZoneRegistryFactory.clear();
+    }
+
+    @Test
+    public void registeredThroughIcal4jProperties() {
+        Assert.assertTrue(TimeZoneRegistryFactory.getInstance() instanceof CosmoTimeZoneRegistryFactory);
+    }
+
+    @Test
+    public void identicalDefinitionsShareTimeZone() throws Exception {
+        VEvent first = firstEvent(parse("icalendar/ical_instance_mods.ics"));
+        VEvent second = firstEvent(parse("icalendar/ical_instance_mods.ics"));
+
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(first.getStartDate().getTimeZone(), second.getStartDate().getTimeZone());
+        Assert.assertEquals(1, CosmoTimeZoneRegistryFactory.getDistinctZones());
+        Assert.assertTrue(CosmoTimeZoneRegistryFactory.getHitCount() > 0);
+    }
+
+    @Test
+    public void otherThreadsInternTheirOwnTimeZone() throws Exception {
+        VEvent first = firstEvent(parse("icalendar/ical_instance_mods.ics"));
+        AtomicReference<VEvent> second = new AtomicReference<>();
+
+        Thread thread = new Thread(() -> {
+            try {
+                second.set(firstEvent(parse("icalendar/ical_instance_mods.ics")));
+            } catch (Exception exception) {
+                throw new IllegalStateException(exception);
+            }
+        });
+        thread.start();
+        thread.join();
+
+        Assert.assertNotSame(first.getStartDate().getTimeZone(), second.get().getStartDate().getTimeZone());
+    }
+
+    @Test
+    public void internedZonesAreSummedOverThreads() throws Exception {
+        long interned = CosmoTimeZoneRegistryFactory.getInternedZones();
+        long misses = CosmoTimeZoneRegistryFactory.getMissCount();
+        parse("icalendar/ical_instance_mods.ics");
+
+        Thread thread = new Thread(() -> {
+            try {
+                parse("icalendar/ical_instance_mods.ics");
+            } catch (Exception exception) {
+                throw new IllegalStateException(exception);
+            }
+        });
+        thread.start();
+        thread.join();
+
+        Assert.assertEquals(interned + 2, CosmoTimeZoneRegistryFactory.getInternedZones());
+        Assert.assertEquals(misses + 2, CosmoTimeZoneRegistryFactory.getMissCount());
+        Assert.assertEquals(1, CosmoTimeZoneRegistryFactory.getDistinctZones());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedZones() throws Exception {
+        for (int i = 0; i <= CosmoTimeZoneRegistryFactory.MAX_ZONES; i++) {
+            CalendarUtils.parseCalendar(new ByteArrayInputStream(zone("zone-" + i).getBytes("UTF-8")));
+        }
+
+        Assert.assertEquals(CosmoTimeZoneRegistryFactory.MAX_ZONES, CosmoTimeZoneRegistryFactory.getDistinctZones());
+        Assert.assertEquals(1, CosmoTimeZoneRegistryFactory.getEvictionCount());
+    }
+
+    @Test
+    public void clearResetsStatistics() throws Exception {
+        parse("icalendar/ical_instance_mods.ics");
+        parse("icalendar/ical_instance_mods.ics");
+
+        CosmoTimeZoneRegistryFactory.clear();
+
+        Assert.assertEquals(0, CosmoTimeZoneRegistryFactory.getDistinctZones());
+        Assert.assertEquals(0, CosmoTimeZoneRegistryFactory.getHitCount());
+        Assert.assertEquals(0, CosmoTimeZoneRegistryFactory.getMissCount());
+    }
+
+    @Test
+    public void differentDefinitionsWithSameTzidAreKeptApart() throws Exception {
+        Calendar original = parse("icalendar/ical_instance_mods.ics");
+        Calendar modified = CalendarUtils.parseCalendar(new ByteArrayInputStream(original.toString()
+                .replace("TZNAME:PST", "TZNAME:XST").getBytes("UTF-8")));
+
+        Assert.assertNotSame(firstEvent(original).getStartDate().getTimeZone(), firstEvent(modified).getStartDate().getTimeZone());
+        Assert.assertEquals(2, CosmoTimeZoneRegistryFactory.getDistinctZones());
+    }
+
+    private static String zone(String tzid) {
+        return "BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//test//EN\r\nBEGIN:VTIMEZONE\r\nTZID:" + tzid + "\r\n"
+                + "BEGIN:STANDARD\r\nDTSTART:19700101T000000\r\nTZOFFSETFROM:+0100\r\nTZOFFSETTO:+0100\r\nEND:STANDARD\r\n"
+                + "END:VTIMEZONE\r\nEND:VCALENDAR\r\n";
+    }
+
+    private static Calendar parse(String resource) throws Exception {
+        try (InputStream in = CosmoTimeZoneRegistryFactoryTest.class.getClassLoader().getResourceAsStream(resource)) {
+            return CalendarUtils.parseCalendar(in);
+        }
+    }
+
+    private static VEvent firstEvent(Calendar calendar) {
+        return (VEvent) calendar.getComponents().getComponents(Component.VEVENT).get(0);
+    }
+}
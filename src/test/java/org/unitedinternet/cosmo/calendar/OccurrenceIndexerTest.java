@@ -0,0 +1,73 @@
+package org.unitedinternet.cosmo.calendar;
+
+import carldav.entity.Item;
+import carldav.entity.ItemOccurrence;
+import carldav.repository.ItemRepository;
+import org.junit.Assert;
+import org.junit.Test;
+import org.unitedinternet.cosmo.model.hibernate.EntityConverter;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+public class OccurrenceIndexerTest {
+
+    private static final String DAILY_SINCE_2000 = "BEGIN:VCALENDAR\r\n"
+            + "VERSION:2.0\r\n"
+            + "PRODID:-//carldav//test//EN\r\n"
+            + "BEGIN:VEVENT\r\n"
+            + "UID:daily\r\n"
+            + "DTSTAMP:20000101T000000Z\r\n"
+            + "DTSTART:20000101T100000Z\r\n"
+            + "DTEND:20000101T110000Z\r\n"
+            + "RRULE:FREQ=DAILY\r\n"
+            + "SUMMARY:daily\r\n"
+            + "END:VEVENT\r\n"
+            + "END:VCALENDAR\r\n";
+
+    private final OccurrenceIndexer uut = new OccurrenceIndexer(mock(ItemRepository.class), new CalendarCache(0), 30, 30, 60);
+
+    @Test
+    public void expandsFromRetentionPeriod() {
+        Item item = item(DAILY_SINCE_2000);
+
+        long before = System.currentTimeMillis();
+        uut.index(item);
+
+        Assert.assertTrue(item.getOccurrencesFrom().getTime() >= before - TimeUnit.DAYS.toMillis(30));
+        Assert.assertTrue(item.getOccurrences().size() <= 61);
+        for (ItemOccurrence occurrence : item.getOccurrences()) {
+            Assert.assertFalse(occurrence.getEndDate().before(item.getOccurrencesFrom()));
+        }
+    }
+
+    @Test
+    public void keepsOccurrencesOfUnchangedContent() {
+        Item item = item(DAILY_SINCE_2000);
+        uut.index(item);
+        ItemOccurrence first = item.getOccurrences().get(0);
+
+        uut.index(item);
+
+        Assert.assertSame(first, item.getOccurrences().get(0));
+    }
+
+    @Test
+    public void replacesOccurrencesOfChangedContent() {
+        Item item = item(DAILY_SINCE_2000);
+        uut.index(item);
+        ItemOccurrence first = item.getOccurrences().get(0);
+
+        item.setCalendar(DAILY_SINCE_2000.replace("SUMMARY:daily", "SUMMARY:changed"));
+        uut.index(item);
+
+        Assert.assertNotSame(first, item.getOccurrences().get(0));
+    }
+
+    private static Item item(String calendar) {
+        Item item = new Item(Item.Type.VEVENT);
+        item.setCalendar(calendar);
+        return new EntityConverter().convert(item);
+    }
+}
@@ -0,0 +1,171 @@
+package org.unitedinternet.cosmo.calendar;
+
+import net.fortuna.ical4j.data.CalendarBuilder;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Property;
+import net.fortuna.ical4j.model.TimeZone;
+import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
+import net.fortuna.ical4j.model.component.VEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compares the occurrences of {@link OccurrenceSet} with the instances of {@link InstanceList}.
+ */
+public class OccurrenceSetTest {
+
+    private static final String[] CALENDARS = {
+            "instancelist/allday_recurring.ics",
+            "instancelist/allday_recurring_with_exdates.ics",
+            "instancelist/allday_weekly_recurring.ics",
+            "instancelist/allday_weekly_recurring_with_mods.ics",
+            "instancelist/complicated_allday_recurring.ics",
+            "instancelist/complicated_recurring.ics",
+            "instancelist/eventwithtimezone3.ics",
+            "instancelist/floating_recurr_event.ics",
+            "instancelist/recurring_by_day.ics",
+            "instancelist/recurring_until.ics",
+            "instancelist/recurring_with_exdates.ics",
+            "instancelist/recurring_with_exdates_floating.ics",
+            "instancelist/recurring_with_exdates_utc.ics",
+            "instancelist/recurring_with_exrule.ics",
+            "instancelist/recurring_with_rdates.ics",
+            "limit_recurr_taf_test.ics"
+    };
+
+    @Test
+    public void sameOccurrencesAsInstanceList() throws Exception {
+        DateTime start = new DateTime("20060101T000000Z");
+        DateTime end = new DateTime("20080101T000000Z");
+
+        for (String name : CALENDARS) {
+            assertSameOccurrences(name, start, end, null);
+        }
+    }
+
+    @Test
+    public void sameOccurrencesAsInstanceListWithTimezone() throws Exception {
+        TimeZone timezone = TimeZoneRegistryFactory.getInstance().createRegistry().getTimeZone("Australia/Sydney");
+        DateTime start = new DateTime("20060101T000000Z");
+        DateTime end = new DateTime("20080101T000000Z");
+
+        for (String name : CALENDARS) {
+            assertSameOccurrences(name, start, end, timezone);
+        }
+    }
+
+    @Test
+    public void sameOccurrencesAsInstanceListForShortRange() throws Exception {
+        DateTime start = new DateTime("20070509T090000Z");
+        DateTime end = new DateTime("20070511T090000Z");
+
+        for (String name : CALENDARS) {
+            assertSameOccurrences(name, start, end, null);
+        }
+    }
+
+    @Test
+    public void overrideReplacesOccurrence() throws Exception {
+        Calendar calendar = getCalendar("instancelist/allday_weekly_recurring_with_mods.ics");
+        OccurrenceSet occurrences = new OccurrenceSet();
+        add(calendar, occurrences, new DateTime("20060101T000000Z"), new DateTime("20080101T000000Z"));
+
+        int overridden = 0;
+        for (int i = 0; i < occurrences.size(); i++) {
+            if (occurrences.isOverridden(i)) {
+                overridden++;
+                Assert.assertNotNull(occurrences.getComponent(i).getProperty(Property.RECURRENCE_ID));
+            }
+        }
+        Assert.assertTrue(overridden > 0);
+    }
+
+    @Test
+    public void thisAndFutureOverrideShiftsFollowingOccurrences() throws Exception {
+        Calendar calendar = getCalendar("limit_recurr_taf_test.ics");
+        OccurrenceSet occurrences = new OccurrenceSet();
+        add(calendar, occurrences, new DateTime("20060101T000000Z"), new DateTime("20060201T000000Z"));
+
+        Assert.assertEquals(10, occurrences.size());
+        long shift = 3 * 60 * 60 * 1000L;
+        for (int i = 5; i < occurrences.size(); i++) {
+            Assert.assertEquals(occurrences.getRecurrenceId(i) + shift, occurrences.getStart(i));
+            Assert.assertEquals("event 6 changed 3", occurrences.getComponent(i).getProperty(Property.SUMMARY).getValue());
+        }
+    }
+
+    private void assertSameOccurrences(String name, Date start, Date end, TimeZone timezone) throws Exception {
+        Calendar calendar = getCalendar(name);
+
+        InstanceList instances = new InstanceList();
+        instances.setTimezone(timezone);
+        OccurrenceSet occurrences = new OccurrenceSet();
+        occurrences.setTimezone(timezone);
+
+        for (Object component : calendar.getComponents().getComponents(Component.VEVENT)) {
+            VEvent event = (VEvent) component;
+            if (event.getRecurrenceId() == null) {
+                instances.addComponent(event, start, end);
+                occurrences.addComponent(event, start, end);
+            }
+        }
+        for (Object component : calendar.getComponents().getComponents(Component.VEVENT)) {
+            VEvent event = (VEvent) component;
+            if (event.getRecurrenceId() != null) {
+                Assert.assertEquals(name, instances.addOverride(event, start, end), occurrences.addOverride(event, start, end));
+            }
+        }
+
+        List<Instance> expected = new ArrayList<>();
+        for (Object instance : instances.values()) {
+            expected.add((Instance) instance);
+        }
+        expected.sort(Comparator.comparing(instance -> instance.getRid().getTime()));
+
+        Assert.assertEquals(name, expected.size(), occurrences.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Instance instance = expected.get(i);
+            Assert.assertEquals(name, instance.getRid().getTime(), occurrences.getRecurrenceId(i));
+            Assert.assertEquals(name, instance.getStart().getTime(), occurrences.getStart(i));
+            Assert.assertEquals(name, instance.getEnd().getTime(), occurrences.getEnd(i));
+            Assert.assertEquals(name, instance.getStart() instanceof DateTime, occurrences.getStartDate(i) instanceof DateTime);
+            Assert.assertEquals(name, instance.getStart().getTime(), occurrences.getStartDate(i).getTime());
+            Assert.assertEquals(name, instance.getEnd().getTime(), occurrences.getEndDate(i).getTime());
+            Assert.assertEquals(name, instance.getRid().getTime(), occurrences.getRecurrenceIdDate(i).getTime());
+            Assert.assertEquals(name, instance.isOverridden(), occurrences.isOverridden(i));
+            Assert.assertSame(name, instance.getComp(), occurrences.getComponent(i));
+        }
+    }
+
+    private static void add(Calendar calendar, OccurrenceSet occurrences, Date start, Date end) {
+        for (Object component : calendar.getComponents().getComponents(Component.VEVENT)) {
+            VEvent event = (VEvent) component;
+            if (event.getRecurrenceId() == null) {
+                occurrences.addMaster(event, start, end);
+            }
+        }
+        for (Object component : calendar.getComponents().getComponents(Component.VEVENT)) {
+            VEvent event = (VEvent) component;
+            if (event.getRecurrenceId() != null) {
+                occurrences.addOverride(event, start, end);
+            }
+        }
+    }
+
+    private Calendar getCalendar(String name) throws Exception {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("testdata/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("resource " + name + " not found");
+            }
+            return new CalendarBuilder().build(in);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.unitedinternet.cosmo.calendar.data;
+
+import carldav.entity.Item;
+import net.fortuna.ical4j.data.CalendarBuilder;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Period;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.unitedinternet.cosmo.calendar.CalendarCache;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ExpandedInstanceCacheTest {
+
+    private final ExpandedInstanceCache cache = new ExpandedInstanceCache(new CalendarCache(1024 * 1024), 1024 * 1024);
+
+    @Test
+    public void subWindowIsServedFromCachedWindow() throws Exception {
+        Item item = item("src/test/resources/testdata/expand_recurr_test2.ics");
+
+        ExpandedInstances week = cache.get(item, period("20060101T000000Z", "20060108T000000Z"));
+        ExpandedInstances days = cache.get(item, period("20060102T190000Z", "20060105T190000Z"));
+
+        Assert.assertSame(week, days);
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(3, days.indexesOf(period("20060102T190000Z", "20060105T190000Z")).length);
+    }
+
+    @Test
+    public void expandsAgainAfterModification() throws Exception {
+        Item item = item("src/test/resources/testdata/expand_recurr_test2.ics");
+        Period period = period("20060101T000000Z", "20060108T000000Z");
+
+        ExpandedInstances first = cache.get(item, period);
+        item.setModifiedDate(new Date(2));
+        ExpandedInstances second = cache.get(item, period);
+
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(2, cache.getMissCount());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedItemsByWeight() throws Exception {
+        Period period = period("20060101T000000Z", "20060108T000000Z");
+        cache.get(item("src/test/resources/testdata/expand_recurr_test2.ics"), period);
+        long weight = cache.getWeight();
+        Assert.assertTrue(weight > 0);
+
+        ExpandedInstanceCache bounded = new ExpandedInstanceCache(new CalendarCache(1024 * 1024), weight * 3 / 2);
+        Item first = item("src/test/resources/testdata/expand_recurr_test2.ics");
+        Item second = item("src/test/resources/testdata/expand_recurr_test2.ics");
+        second.setId(2L);
+
+        bounded.get(first, period);
+        bounded.get(second, period);
+
+        Assert.assertEquals(1, bounded.size());
+        Assert.assertEquals(1, bounded.getEvictionCount());
+        Assert.assertEquals(weight, bounded.getWeight());
+        bounded.get(second, period);
+        Assert.assertEquals(1, bounded.getHitCount());
+    }
+
+    @Test
+    public void otherThreadsExpandTheirOwnInstances() throws Exception {
+        Item item = item("src/test/resources/testdata/expand_recurr_test2.ics");
+        Period period = period("20060101T000000Z", "20060108T000000Z");
+        ExpandedInstances first = cache.get(item, period);
+
+        AtomicReference<ExpandedInstances> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(cache.get(item, period)));
+        thread.start();
+        thread.join();
+
+        Assert.assertNotSame(first, other.get());
+        Assert.assertNotSame(first.getCalendar(), other.get().getCalendar());
+        Assert.assertEquals(2, cache.getMissCount());
+        Assert.assertSame(first, cache.get(item, period));
+    }
+
+    @Test
+    public void cachedOutputMatchesUncachedOutput() throws Exception {
+        Item item = item("src/test/resources/testdata/expand_recurr_test2.ics");
+        Period period = period("20060102T190000Z", "20060105T190000Z");
+        OutputFilter filter = new OutputFilter("test");
+        filter.setExpand(period);
+        filter.setAllSubComponents();
+        filter.setAllProperties();
+
+        cache.get(item, period("20060101T000000Z", "20060108T000000Z"));
+        StringBuffer cached = new StringBuffer();
+        filter.filter(cache.get(item, period), cached);
+
+        StringBuffer uncached = new StringBuffer();
+        filter.filter(new CalendarBuilder().build(new StringReader(item.getCalendar())), uncached);
+
+        Assert.assertEquals(uncached.toString(), cached.toString());
+    }
+
+    private static Item item(String file) throws Exception {
+        Item item = new Item();
+        item.setId(1L);
+        item.setModifiedDate(new Date(1));
+        item.setCalendar(FileUtils.readFileToString(new File(file), StandardCharsets.UTF_8));
+        return item;
+    }
+
+    private static Period period(String start, String end) throws Exception {
+        return new Period(new DateTime(start), new DateTime(end));
+    }
+}
@@ -0,0 +1,81 @@
+package org.unitedinternet.cosmo.dav;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ResolutionCacheTest {
+
+    private final ResolutionCache uut = new ResolutionCache();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @After
+    public void after() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void loadsOncePerRequest() {
+        startRequest();
+
+        Assert.assertEquals("calendar", uut.get("/dav/user/calendar", this::load));
+        Assert.assertEquals("calendar", uut.get("/dav/user/calendar", this::load));
+
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(2, uut.getLookupCount());
+        Assert.assertEquals(1, uut.getHitCount());
+    }
+
+    @Test
+    public void loadsAgainInNextRequest() {
+        startRequest();
+        uut.get("/dav/user/calendar", this::load);
+
+        startRequest();
+        uut.get("/dav/user/calendar", this::load);
+
+        Assert.assertEquals(2, loads.get());
+        Assert.assertEquals(0, uut.getHitCount());
+    }
+
+    @Test
+    public void loadsAgainAfterEvict() {
+        startRequest();
+        uut.get("/dav/user/calendar", this::load);
+        uut.evict("/dav/user/calendar");
+        uut.get("/dav/user/calendar", this::load);
+
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void doesNotRememberMisses() {
+        startRequest();
+        Assert.assertNull(uut.get("/dav/user/missing", () -> null));
+
+        Assert.assertEquals("calendar", uut.get("/dav/user/missing", this::load));
+    }
+
+    @Test
+    public void noCachingOutsideOfRequest() {
+        uut.get("/dav/user/calendar", this::load);
+        uut.get("/dav/user/calendar", this::load);
+
+        Assert.assertEquals(2, loads.get());
+        Assert.assertEquals(0, uut.getHitCount());
+    }
+
+    private String load() {
+        loads.incrementAndGet();
+        return "calendar";
+    }
+
+    private static void startRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+}
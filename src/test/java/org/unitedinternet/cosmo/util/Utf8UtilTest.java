@@ -0,0 +1,28 @@
+package org.unitedinternet.cosmo.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class Utf8UtilTest {
+
+    @Test
+    public void matchesEncodedLength() {
+        assertLength("");
+        assertLength("BEGIN:VCALENDAR\r\n");
+        assertLength("SUMMARY:Grüße aus Köln\r\n");
+        assertLength("LOCATION:東京\r\n");
+        assertLength("DESCRIPTION:📅 meeting\r\n");
+    }
+
+    @Test
+    public void unpairedSurrogateCountsAsReplacement() {
+        assertLength("broken \uD83D surrogate");
+        assertLength("trailing \uDCC5");
+    }
+
+    private static void assertLength(String text) {
+        Assert.assertEquals(text.getBytes(StandardCharsets.UTF_8).length, Utf8Util.length(text));
+    }
+}
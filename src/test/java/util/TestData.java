@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 
+import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 
 /**
@@ -13,8 +14,11 @@ import javax.sql.DataSource;
 @Configuration
 public class TestData {
 
+    /**
+     * Depends on the {@link EntityManagerFactory}, which is created after the schema has been migrated.
+     */
     @Bean
-    public ResourceDatabasePopulator initDatabase(final DataSource dataSource) throws Exception {
+    public ResourceDatabasePopulator initDatabase(final DataSource dataSource, final EntityManagerFactory entityManagerFactory) throws Exception {
         ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
         populator.addScript(new ClassPathResource("test-data.sql"));
         populator.populate(dataSource.getConnection());
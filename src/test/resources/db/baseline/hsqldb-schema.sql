@@ -0,0 +1,23 @@
+-- Schema and data of a database created by hibernate.hbm2ddl.auto=update in the release before
+-- Flyway was introduced.
+
+create table collection (id bigint generated by default as identity (start with 1), displayname varchar(255) not null, itemname varchar(255) not null, modifydate timestamp, collectionid bigint, ownerid bigint not null, primary key (id));
+create table item (id bigint generated by default as identity (start with 1), calendar CLOB, clientcreatedate timestamp, clientmodifieddate timestamp, displayname varchar(255) not null, enddate timestamp, floating boolean, mimetype varchar(255) not null, modifydate timestamp, itemname varchar(255) not null, recurring boolean, startdate timestamp, type varchar(255), uid varchar(255) not null, collectionid bigint, primary key (id));
+create table users (id bigint generated by default as identity (start with 1), email varchar(255) not null, locked boolean not null, password varchar(255) not null, role varchar(255), primary key (id));
+alter table collection add constraint displayname_owner unique (displayname, ownerid);
+create index idx_itemuid on item (uid);
+create index idx_itemname on item (itemname);
+create index idx_startdt on item (startdate);
+create index idx_enddt on item (enddate);
+create index idx_floating on item (floating);
+create index idx_recurring on item (recurring);
+alter table item add constraint uid_collection unique (uid, collectionid);
+alter table users add constraint user_email unique (email);
+alter table collection add constraint FK_2tjjtdd3ma3iefvw0a0kh3ewy foreign key (collectionid) references collection;
+alter table collection add constraint FK_qhs5k4ovdfxwdo5uklj1k2gcs foreign key (ownerid) references users;
+alter table item add constraint FK_s2ulr8bhhq4vn6mx6d09sv8eq foreign key (collectionid) references collection;
+
+insert into users (id, email, locked, password, role) values (1, 'test01@localhost.de', false, 'x', 'ROLE_USER');
+insert into collection (id, displayname, itemname, modifydate, collectionid, ownerid) values (1, 'homeCollection', 'test01@localhost.de', null, null, 1);
+insert into collection (id, displayname, itemname, modifydate, collectionid, ownerid) values (2, 'calendarDisplayName', 'calendar', null, 1, 1);
+insert into item (id, calendar, displayname, mimetype, itemname, uid, type, startdate, enddate, floating, recurring, collectionid) values (1, 'BEGIN:VCALENDAR' || chr(13) || chr(10) || 'END:VCALENDAR' || chr(13) || chr(10), 'event', 'text/calendar', 'event.ics', 'event', 'VEVENT', timestamp '2016-01-01 10:00:00', timestamp '2016-01-01 11:00:00', false, false, 2);